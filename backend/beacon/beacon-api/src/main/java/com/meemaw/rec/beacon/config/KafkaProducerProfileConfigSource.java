@@ -0,0 +1,48 @@
+package com.meemaw.rec.beacon.config;
+
+import com.meemaw.events.stream.kafka.KafkaProducerProfile;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import org.eclipse.microprofile.config.spi.ConfigSource;
+
+/**
+ * Exposes {@link KafkaProducerProfile} as connector-wide smallrye-kafka attributes, so every
+ * outgoing channel uses the same producer profile as the standalone producers. The ordinal is
+ * below application.properties, which can still override a single attribute.
+ */
+public class KafkaProducerProfileConfigSource implements ConfigSource {
+
+  private static final String PREFIX = "mp.messaging.connector.smallrye-kafka.";
+  private static final int ORDINAL = 200;
+
+  private final Map<String, String> properties;
+
+  public KafkaProducerProfileConfigSource() {
+    Properties profile = KafkaProducerProfile.highThroughput();
+    Map<String, String> prefixed = new HashMap<>(profile.size());
+    profile.forEach((key, value) -> prefixed.put(PREFIX + key, value.toString()));
+    this.properties = Collections.unmodifiableMap(prefixed);
+  }
+
+  @Override
+  public Map<String, String> getProperties() {
+    return properties;
+  }
+
+  @Override
+  public String getValue(String propertyName) {
+    return properties.get(propertyName);
+  }
+
+  @Override
+  public String getName() {
+    return KafkaProducerProfile.class.getSimpleName();
+  }
+
+  @Override
+  public int getOrdinal() {
+    return ORDINAL;
+  }
+}
@@ -0,0 +1,18 @@
+package com.meemaw.rec.beacon.ingestion;
+
+import com.meemaw.events.model.internal.AbstractBrowserEvent;
+import java.util.List;
+
+/**
+ * Transformation applied to beacon events before they are sent to Kafka. Implementations are
+ * discovered as CDI beans and applied one after another.
+ */
+public interface IngestionStage {
+
+  /**
+   * @param organizationId String organization id
+   * @param events List of beacon events in order of occurrence
+   * @return events that should be sent further; never empty if events were not empty
+   */
+  List<AbstractBrowserEvent> apply(String organizationId, List<AbstractBrowserEvent> events);
+}
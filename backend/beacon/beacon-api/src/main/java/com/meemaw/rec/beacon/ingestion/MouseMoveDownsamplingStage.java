@@ -0,0 +1,142 @@
+package com.meemaw.rec.beacon.ingestion;
+
+import com.meemaw.events.model.internal.AbstractBrowserEvent;
+import com.meemaw.events.model.internal.BrowserEventTypeConstants;
+import com.meemaw.events.model.internal.BrowserMouseMoveEvent;
+import com.meemaw.shared.metrics.MetricsService;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import lombok.Value;
+import org.eclipse.microprofile.config.Config;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Downsamples mouse move events. A mouse move is kept only if enough time has passed, or the
+ * pointer has moved far enough, since the previously kept mouse move. The last mouse move in a
+ * beacon is always kept, so the final pointer position is preserved. All other events (clicks,
+ * navigations, unloads, ...) are passed through untouched.
+ *
+ * <p>Thresholds can be overridden per organization with {@code
+ * beacon.ingestion.mouse-move.<organizationId>.min-interval} and {@code
+ * beacon.ingestion.mouse-move.<organizationId>.min-distance}. Resolved thresholds are kept in a
+ * bounded LRU cache, since organization ids come from the client.
+ */
+@ApplicationScoped
+public class MouseMoveDownsamplingStage implements IngestionStage {
+
+  private static final String PREFIX = "beacon.ingestion.mouse-move.";
+  private static final String CACHE_NAME = "mouse_move_thresholds";
+
+  @Inject Config config;
+  @Inject MetricsService metricsService;
+
+  @ConfigProperty(name = PREFIX + "min-interval", defaultValue = "0")
+  int defaultMinIntervalMillis;
+
+  @ConfigProperty(name = PREFIX + "min-distance", defaultValue = "0")
+  int defaultMinDistance;
+
+  @ConfigProperty(name = "beacon.ingestion.mouse-move-cache.max-size", defaultValue = "10000")
+  int maxCacheSize;
+
+  private Map<String, Thresholds> organizationThresholds;
+
+  @PostConstruct
+  void init() {
+    organizationThresholds =
+        Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+              @Override
+              protected boolean removeEldestEntry(Map.Entry<String, Thresholds> eldest) {
+                if (size() > maxCacheSize) {
+                  metricsService.cacheEviction(CACHE_NAME).inc();
+                  return true;
+                }
+                return false;
+              }
+            });
+  }
+
+  @Override
+  public List<AbstractBrowserEvent> apply(
+      String organizationId, List<AbstractBrowserEvent> events) {
+    Thresholds thresholds =
+        organizationThresholds.computeIfAbsent(organizationId, this::thresholds);
+    if (thresholds.getMinIntervalMillis() <= 0 && thresholds.getMinDistance() <= 0) {
+      return events;
+    }
+
+    List<AbstractBrowserEvent> downsampled =
+        downsample(events, thresholds.getMinIntervalMillis(), thresholds.getMinDistance());
+    int numDropped = events.size() - downsampled.size();
+    if (numDropped > 0) {
+      metricsService.eventsDownsampled(BrowserEventTypeConstants.MOUSEMOVE).inc(numDropped);
+    }
+    return downsampled;
+  }
+
+  private Thresholds thresholds(String organizationId) {
+    int minIntervalMillis =
+        config
+            .getOptionalValue(PREFIX + organizationId + ".min-interval", Integer.class)
+            .orElse(defaultMinIntervalMillis);
+    int minDistance =
+        config
+            .getOptionalValue(PREFIX + organizationId + ".min-distance", Integer.class)
+            .orElse(defaultMinDistance);
+    return new Thresholds(minIntervalMillis, minDistance);
+  }
+
+  static List<AbstractBrowserEvent> downsample(
+      List<AbstractBrowserEvent> events, int minIntervalMillis, int minDistance) {
+    int lastMouseMoveIndex = -1;
+    for (int i = events.size() - 1; i >= 0; i--) {
+      if (BrowserMouseMoveEvent.isMouseMove(events.get(i))) {
+        lastMouseMoveIndex = i;
+        break;
+      }
+    }
+
+    long minDistanceSquared = (long) minDistance * minDistance;
+    List<AbstractBrowserEvent> downsampled = new ArrayList<>(events.size());
+    BrowserMouseMoveEvent lastKept = null;
+
+    for (int i = 0; i < events.size(); i++) {
+      AbstractBrowserEvent event = events.get(i);
+      if (!BrowserMouseMoveEvent.isMouseMove(event)) {
+        downsampled.add(event);
+        continue;
+      }
+
+      BrowserMouseMoveEvent mouseMove = (BrowserMouseMoveEvent) event;
+      if (lastKept == null
+          || i == lastMouseMoveIndex
+          || (minIntervalMillis > 0
+              && mouseMove.getTimestamp() - lastKept.getTimestamp() >= minIntervalMillis)
+          || (minDistance > 0 && distanceSquared(lastKept, mouseMove) >= minDistanceSquared)) {
+        downsampled.add(mouseMove);
+        lastKept = mouseMove;
+      }
+    }
+
+    return downsampled;
+  }
+
+  private static long distanceSquared(BrowserMouseMoveEvent from, BrowserMouseMoveEvent to) {
+    long dx = to.getClientX() - from.getClientX();
+    long dy = to.getClientY() - from.getClientY();
+    return dx * dx + dy * dy;
+  }
+
+  @Value
+  private static class Thresholds {
+    int minIntervalMillis;
+    int minDistance;
+  }
+}
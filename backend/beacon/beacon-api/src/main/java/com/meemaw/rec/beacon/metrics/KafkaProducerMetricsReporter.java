@@ -0,0 +1,86 @@
+package com.meemaw.rec.beacon.metrics;
+
+import com.meemaw.shared.metrics.MetricsService;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.enterprise.inject.spi.CDI;
+import org.apache.kafka.common.MetricName;
+import org.apache.kafka.common.metrics.KafkaMetric;
+import org.apache.kafka.common.metrics.MetricsReporter;
+
+/**
+ * Exposes a handful of Kafka producer metrics (batch size, compression ratio, send rates) as
+ * application gauges. Instantiated by the Kafka client through the {@code metric.reporters}
+ * producer property, hence the programmatic {@link MetricsService} lookup.
+ */
+public class KafkaProducerMetricsReporter implements MetricsReporter {
+
+  private static final String GROUP = "producer-metrics";
+  private static final String CLIENT_ID_TAG = "client-id";
+  private static final Set<String> REPORTED =
+      Set.of(
+          "batch-size-avg",
+          "compression-rate-avg",
+          "record-send-rate",
+          "record-error-rate",
+          "records-per-request-avg",
+          "request-latency-avg");
+
+  private final Map<MetricName, KafkaMetric> metrics = new ConcurrentHashMap<>();
+  private MetricsService metricsService;
+
+  @Override
+  public void configure(Map<String, ?> configs) {
+    metricsService = CDI.current().select(MetricsService.class).get();
+  }
+
+  @Override
+  public void init(List<KafkaMetric> initial) {
+    initial.forEach(this::metricChange);
+  }
+
+  @Override
+  public void metricChange(KafkaMetric metric) {
+    MetricName metricName = metric.metricName();
+    if (!GROUP.equals(metricName.group()) || !REPORTED.contains(metricName.name())) {
+      return;
+    }
+
+    if (metrics.put(metricName, metric) == null) {
+      metricsService.kafkaProducerGauge(
+          gaugeName(metricName), clientId(metricName), () -> value(metricName));
+    }
+  }
+
+  @Override
+  public void metricRemoval(KafkaMetric metric) {
+    MetricName metricName = metric.metricName();
+    if (metrics.remove(metricName) != null) {
+      metricsService.removeKafkaProducerGauge(gaugeName(metricName), clientId(metricName));
+    }
+  }
+
+  @Override
+  public void close() {
+    metrics.values().forEach(this::metricRemoval);
+  }
+
+  private double value(MetricName metricName) {
+    KafkaMetric metric = metrics.get(metricName);
+    if (metric == null) {
+      return Double.NaN;
+    }
+    Object value = metric.metricValue();
+    return value instanceof Number ? ((Number) value).doubleValue() : Double.NaN;
+  }
+
+  private static String gaugeName(MetricName metricName) {
+    return "kafka_producer_" + metricName.name().replace('-', '_');
+  }
+
+  private static String clientId(MetricName metricName) {
+    return metricName.tags().getOrDefault(CLIENT_ID_TAG, "");
+  }
+}
@@ -1,6 +1,7 @@
 package com.meemaw.rec.beacon.resource.v1;
 
 import com.meemaw.auth.organization.model.validation.OrganizationId;
+import java.io.InputStream;
 import java.util.UUID;
 import java.util.concurrent.CompletionStage;
 import javax.validation.constraints.NotNull;
@@ -24,5 +25,5 @@ public interface BeaconResource {
       @NotNull(message = "Required") @QueryParam("sessionId") UUID sessionId,
       @NotNull(message = "Required") @QueryParam("deviceId") UUID deviceId,
       @NotNull(message = "Required") @QueryParam("pageId") UUID pageId,
-      String body);
+      InputStream body);
 }
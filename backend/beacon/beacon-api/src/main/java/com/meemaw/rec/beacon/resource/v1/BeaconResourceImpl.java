@@ -5,16 +5,22 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.meemaw.rec.beacon.model.Beacon;
 import com.meemaw.rec.beacon.model.dto.BeaconDTO;
 import com.meemaw.rec.beacon.service.BeaconService;
+import com.meemaw.rec.beacon.service.EventsOverloadedException;
 import com.meemaw.shared.rest.response.Boom;
+import com.meemaw.shared.rest.response.DataResponse;
 import com.meemaw.shared.rest.status.MissingStatus;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.CompletionStage;
 import javax.inject.Inject;
 import javax.validation.ConstraintViolation;
 import javax.validation.ConstraintViolationException;
 import javax.validation.Validator;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.Response;
 import lombok.extern.slf4j.Slf4j;
 
@@ -29,9 +35,10 @@ public class BeaconResourceImpl implements BeaconResource {
 
   @Override
   public CompletionStage<Response> beacon(
-      String organizationId, UUID sessionId, UUID deviceId, UUID pageId, String payload) {
+      String organizationId, UUID sessionId, UUID deviceId, UUID pageId, InputStream payload) {
     BeaconDTO beaconDTO;
     try {
+      // parse straight from the request stream; avoid materializing body as a String first
       beaconDTO = objectMapper.readValue(payload, BeaconDTO.class);
     } catch (JsonProcessingException ex) {
       log.error("Failed to serialize beacon", ex);
@@ -39,6 +46,10 @@ public class BeaconResourceImpl implements BeaconResource {
           Boom.status(MissingStatus.UNPROCESSABLE_ENTITY)
               .message(ex.getOriginalMessage())
               .response());
+    } catch (IOException ex) {
+      log.error("Failed to read beacon", ex);
+      return CompletableFuture.completedFuture(
+          Boom.badRequest().message(ex.getMessage()).response());
     }
 
     Set<ConstraintViolation<BeaconDTO>> constraintViolations = validator.validate(beaconDTO);
@@ -53,6 +64,19 @@ public class BeaconResourceImpl implements BeaconResource {
       String organizationId, UUID sessionId, UUID deviceId, UUID pageId, BeaconDTO beaconDTO) {
     return beaconService
         .process(organizationId, sessionId, deviceId, pageId, Beacon.from(beaconDTO))
-        .thenApply(nothing -> Response.noContent().build());
+        .thenApply(nothing -> Response.noContent().build())
+        .exceptionally(
+            throwable -> {
+              Throwable cause =
+                  throwable instanceof CompletionException ? throwable.getCause() : throwable;
+              if (!(cause instanceof EventsOverloadedException)) {
+                throw new CompletionException(cause);
+              }
+              EventsOverloadedException ex = (EventsOverloadedException) cause;
+              return DataResponse.error(ex.getBoom())
+                  .builder()
+                  .header(HttpHeaders.RETRY_AFTER, ex.getRetryAfter().toSeconds())
+                  .build();
+            });
   }
 }
@@ -1,28 +1,33 @@
 package com.meemaw.rec.beacon.service;
 
 import com.meemaw.events.model.external.UserEvent;
+import com.meemaw.events.model.external.UserEventBatch;
 import com.meemaw.events.model.internal.AbstractBrowserEvent;
 import com.meemaw.events.model.internal.BrowserUnloadEvent;
 import com.meemaw.events.stream.EventsStream;
+import com.meemaw.rec.beacon.ingestion.IngestionStage;
 import com.meemaw.rec.beacon.model.Beacon;
-import com.meemaw.session.model.PageDTO;
 import com.meemaw.session.resource.v1.SessionResource;
 import com.meemaw.shared.logging.LoggingConstants;
 import com.meemaw.shared.rest.response.Boom;
-import com.meemaw.shared.rest.response.DataResponse;
 import io.smallrye.mutiny.Uni;
+import io.smallrye.reactive.messaging.kafka.KafkaRecord;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
-import java.util.function.Function;
+import java.util.function.IntFunction;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.inject.Instance;
 import javax.inject.Inject;
 import javax.ws.rs.WebApplicationException;
-import javax.ws.rs.core.GenericType;
 import javax.ws.rs.core.Response.Status;
 import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.eclipse.microprofile.metrics.annotation.Timed;
 import org.eclipse.microprofile.reactive.messaging.Channel;
 import org.eclipse.microprofile.reactive.messaging.Emitter;
@@ -36,20 +41,46 @@ import org.slf4j.MDC;
 public class BeaconService {
 
   @Inject @RestClient SessionResource sessionResource;
+  @Inject PageLinkCache pageLinkCache;
+  @Inject EventsBackpressure eventsBackpressure;
+  @Inject Instance<IngestionStage> ingestionStages;
 
   @Inject
   @Channel(EventsStream.ALL)
-  @OnOverflow(Strategy.UNBOUNDED_BUFFER)
+  @OnOverflow(Strategy.BUFFER)
   Emitter<UserEvent<?>> eventsEmitter;
 
   @Inject
   @Channel(EventsStream.UNLOAD)
-  @OnOverflow(Strategy.UNBOUNDED_BUFFER)
+  @OnOverflow(Strategy.BUFFER)
   Emitter<UserEvent<?>> unloadEventsEmitter;
 
+  @Inject
+  @Channel(EventsStream.BATCH)
+  @OnOverflow(Strategy.BUFFER)
+  Emitter<UserEventBatch> batchEventsEmitter;
+
+  @ConfigProperty(name = "beacon.events.batch.enabled", defaultValue = "false")
+  boolean batchEnabled;
+
   private CompletionStage<Boolean> pageExists(UUID sessionId, UUID pageId, String organizationId) {
+    Optional<Boolean> maybeCached = pageLinkCache.get(organizationId, sessionId, pageId);
+    if (maybeCached.isPresent()) {
+      return CompletableFuture.completedFuture(maybeCached.get());
+    }
+
+    return fetchPageExists(sessionId, pageId, organizationId)
+        .thenApply(
+            exists -> {
+              pageLinkCache.put(organizationId, sessionId, pageId, exists);
+              return exists;
+            });
+  }
+
+  private CompletionStage<Boolean> fetchPageExists(
+      UUID sessionId, UUID pageId, String organizationId) {
     return sessionResource
-        .getPage(sessionId, pageId, organizationId)
+        .pageExists(sessionId, pageId, organizationId)
         .exceptionally(
             throwable -> {
               if (throwable.getCause() instanceof WebApplicationException) {
@@ -63,11 +94,12 @@ public class BeaconService {
               if (response.getStatus() == Status.NOT_FOUND.getStatusCode()) {
                 return false;
               }
-              DataResponse<PageDTO> dataResponse = response.readEntity(new GenericType<>() {});
-              PageDTO page = dataResponse.getData();
-              return page.getSessionId().equals(sessionId)
-                  && page.getId().equals(pageId)
-                  && page.getOrganizationId().equals(organizationId);
+              if (response.getStatus() != Status.OK.getStatusCode()) {
+                throw Boom.serverError()
+                    .message("Unexpected page existence status " + response.getStatus())
+                    .exception();
+              }
+              return true;
             });
   }
 
@@ -75,14 +107,18 @@ public class BeaconService {
    * Process a beacon of events. First figure out if page is associated with any of the existing
    * pages, to prevent malicious data injection.
    *
-   * <p>After, send all events to Kafka stream.
+   * <p>After, run the ingestion stages and send all events to Kafka stream. Events are accounted as
+   * in-flight until Kafka acknowledges them; when the in-flight limit is reached, oldest mouse move
+   * events are dropped first and the beacon is rejected if that is not enough. Unlinked beacons
+   * never reach the ingestion stages nor take in-flight capacity.
    *
    * @param organizationId String organization id
    * @param sessionId String session id
    * @param deviceId String user (device) id
    * @param pageId String page id
    * @param beacon Beacon
-   * @return CompletionStage if successful processing
+   * @return CompletionStage if successful processing, completed exceptionally with {@link
+   *     EventsOverloadedException} when too many events are already in-flight
    */
   @Timed(name = "processBeacon", description = "A measure of how long it takes to process beacon")
   public CompletionStage<?> process(
@@ -92,51 +128,111 @@ public class BeaconService {
     MDC.put(LoggingConstants.PAGE_ID, pageId.toString());
     MDC.put(LoggingConstants.SESSION_ID, sessionId.toString());
 
-    Function<AbstractBrowserEvent, UserEvent<?>> identify =
-        (event) ->
-            UserEvent.builder()
-                .event(event)
-                .organizationId(organizationId)
-                .sessionId(sessionId)
-                .pageId(pageId)
-                .deviceId(deviceId)
-                .build();
-
     log.info("Processing beacon");
     return pageExists(sessionId, pageId, organizationId)
-        .thenApply(
+        .thenCompose(
             exists -> {
               if (!exists) {
                 log.warn("Unlinked beacon, ignoring ...");
                 throw Boom.badRequest().message("Unlinked beacon").exception();
               }
-              log.info("Sending {} beacon events to Kafka", beacon.getEvents().size());
-
-              List<AbstractBrowserEvent> events = beacon.getEvents();
-              Stream<Uni<Void>> operations =
-                  events.stream().map(event -> sendEvent(eventsEmitter, identify, event));
-
-              // BrowserUnloadEvent always comes last!
-              AbstractBrowserEvent maybeUnloadEvent = events.get(events.size() - 1);
-              if (maybeUnloadEvent instanceof BrowserUnloadEvent) {
-                log.info("Sending BrowserUnloadEvent to Kafka");
-                operations =
-                    Stream.concat(
-                        operations,
-                        Stream.of(sendEvent(unloadEventsEmitter, identify, maybeUnloadEvent)));
-              }
 
-              return Uni.combine()
-                  .all()
-                  .unis(operations.collect(Collectors.toList()))
-                  .combinedWith(nothing -> null);
+              List<AbstractBrowserEvent> ingested = beacon.getEvents();
+              for (IngestionStage stage : ingestionStages) {
+                ingested = stage.apply(organizationId, ingested);
+              }
+              List<AbstractBrowserEvent> events = eventsBackpressure.acquire(ingested);
+              CompletionStage<Void> sent;
+              try {
+                sent = send(organizationId, sessionId, deviceId, pageId, beacon, events);
+              } catch (RuntimeException ex) {
+                eventsBackpressure.release(events.size());
+                throw ex;
+              }
+              return sent.whenComplete(
+                  (nothing, throwable) -> eventsBackpressure.release(events.size()));
             });
   }
 
-  private Uni<Void> sendEvent(
-      Emitter<UserEvent<?>> channel,
-      Function<AbstractBrowserEvent, UserEvent<?>> identify,
-      AbstractBrowserEvent event) {
-    return Uni.createFrom().completionStage(channel.send(identify.apply(event)));
+  private CompletionStage<Void> send(
+      String organizationId,
+      UUID sessionId,
+      UUID deviceId,
+      UUID pageId,
+      Beacon beacon,
+      List<AbstractBrowserEvent> events) {
+    IntFunction<UserEvent<?>> identify =
+        (index) ->
+            UserEvent.builder()
+                .event(events.get(index))
+                .organizationId(organizationId)
+                .sessionId(sessionId)
+                .pageId(pageId)
+                .deviceId(deviceId)
+                .sequence(UserEvent.sequence(beacon.getSequence(), index))
+                .build();
+
+    log.info("Sending {} beacon events to Kafka", events.size());
+
+    Stream<Uni<Void>> operations;
+    if (batchEnabled) {
+      UserEventBatch batch =
+          UserEventBatch.builder()
+              .events(events)
+              .organizationId(organizationId)
+              .sessionId(sessionId)
+              .pageId(pageId)
+              .deviceId(deviceId)
+              .sequence(UserEvent.sequence(beacon.getSequence(), 0))
+              .build();
+      operations = Stream.of(sendBatch(batch));
+    } else {
+      operations =
+          IntStream.range(0, events.size())
+              .mapToObj(index -> sendEvent(eventsEmitter, identify.apply(index)));
+    }
+
+    // BrowserUnloadEvent always comes last!
+    int lastIndex = events.size() - 1;
+    if (events.get(lastIndex) instanceof BrowserUnloadEvent) {
+      log.info("Sending BrowserUnloadEvent to Kafka");
+      operations =
+          Stream.concat(
+              operations, Stream.of(sendEvent(unloadEventsEmitter, identify.apply(lastIndex))));
+    }
+
+    return Uni.combine()
+        .all()
+        .unis(operations.collect(Collectors.toList()))
+        .combinedWith(nothing -> (Void) null)
+        .subscribeAsCompletionStage();
+  }
+
+  private Uni<Void> sendEvent(Emitter<UserEvent<?>> channel, UserEvent<?> userEvent) {
+    return Uni.createFrom().completionStage(channel.send(userEvent));
+  }
+
+  /**
+   * Send all events from a beacon as a single Kafka record keyed by page id.
+   *
+   * @param batch UserEventBatch
+   * @return Uni completed once the record is acknowledged
+   */
+  private Uni<Void> sendBatch(UserEventBatch batch) {
+    return Uni.createFrom()
+        .emitter(
+            emitter ->
+                batchEventsEmitter.send(
+                    KafkaRecord.of(batch.getPageId().toString(), batch)
+                        .withAck(
+                            () -> {
+                              emitter.complete(null);
+                              return CompletableFuture.completedFuture(null);
+                            })
+                        .withNack(
+                            throwable -> {
+                              emitter.fail(throwable);
+                              return CompletableFuture.completedFuture(null);
+                            })));
   }
 }
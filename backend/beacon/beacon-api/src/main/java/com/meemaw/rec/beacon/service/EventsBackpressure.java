@@ -0,0 +1,101 @@
+package com.meemaw.rec.beacon.service;
+
+import com.meemaw.events.model.internal.AbstractBrowserEvent;
+import com.meemaw.events.model.internal.BrowserEventTypeConstants;
+import com.meemaw.events.model.internal.BrowserMouseMoveEvent;
+import com.meemaw.shared.metrics.MetricsService;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.metrics.Gauge;
+
+/**
+ * Bounds the number of events that were handed to Kafka emitters but are not yet acknowledged.
+ * When the bound is reached, oldest mouse move events of a beacon are dropped first; if that is
+ * not enough, the whole beacon is rejected.
+ */
+@ApplicationScoped
+@Slf4j
+public class EventsBackpressure {
+
+  @Inject MetricsService metricsService;
+
+  @ConfigProperty(name = "beacon.events.max-in-flight", defaultValue = "10000")
+  int maxInFlight;
+
+  @ConfigProperty(name = "beacon.events.retry-after", defaultValue = "PT5S")
+  Duration retryAfter;
+
+  private final AtomicInteger inFlight = new AtomicInteger(0);
+
+  @PostConstruct
+  void init() {
+    metricsService.gauge("events_in_flight", (Gauge<Integer>) inFlight::get);
+  }
+
+  /**
+   * @param events List of beacon events
+   * @return events admitted for sending; oldest mouse moves may have been dropped
+   * @throws EventsOverloadedException if events can not be admitted
+   */
+  public List<AbstractBrowserEvent> acquire(List<AbstractBrowserEvent> events) {
+    while (true) {
+      int current = inFlight.get();
+      int available = maxInFlight - current;
+      List<AbstractBrowserEvent> admitted =
+          events.size() <= available ? events : dropOldestMouseMoves(events, available);
+
+      if (admitted == null) {
+        log.warn("Rejecting beacon of {} events; {} events in-flight", events.size(), current);
+        metricsService.eventsRejected().inc(events.size());
+        throw new EventsOverloadedException(retryAfter);
+      }
+
+      if (inFlight.compareAndSet(current, current + admitted.size())) {
+        int numDropped = events.size() - admitted.size();
+        if (numDropped > 0) {
+          log.warn("Dropped {} mouse move events; {} events in-flight", numDropped, current);
+          metricsService.eventsDropped(BrowserEventTypeConstants.MOUSEMOVE).inc(numDropped);
+        }
+        return admitted;
+      }
+    }
+  }
+
+  /** @param numEvents number of events that are no longer in-flight */
+  public void release(int numEvents) {
+    inFlight.addAndGet(-numEvents);
+  }
+
+  private List<AbstractBrowserEvent> dropOldestMouseMoves(
+      List<AbstractBrowserEvent> events, int available) {
+    int numMouseMoves = 0;
+    for (AbstractBrowserEvent event : events) {
+      if (BrowserMouseMoveEvent.isMouseMove(event)) {
+        numMouseMoves++;
+      }
+    }
+
+    int numOther = events.size() - numMouseMoves;
+    if (available <= 0 || numOther > available) {
+      return null;
+    }
+
+    int numToDrop = numMouseMoves - (available - numOther);
+    List<AbstractBrowserEvent> admitted = new ArrayList<>(available);
+    for (AbstractBrowserEvent event : events) {
+      if (numToDrop > 0 && BrowserMouseMoveEvent.isMouseMove(event)) {
+        numToDrop--;
+      } else {
+        admitted.add(event);
+      }
+    }
+    return admitted;
+  }
+}
@@ -0,0 +1,20 @@
+package com.meemaw.rec.beacon.service;
+
+import com.meemaw.shared.rest.exception.BoomException;
+import com.meemaw.shared.rest.response.Boom;
+import java.time.Duration;
+import javax.ws.rs.core.Response.Status;
+
+public class EventsOverloadedException extends BoomException {
+
+  private final Duration retryAfter;
+
+  public EventsOverloadedException(Duration retryAfter) {
+    super(Boom.status(Status.TOO_MANY_REQUESTS).message("Too many in-flight events"));
+    this.retryAfter = retryAfter;
+  }
+
+  public Duration getRetryAfter() {
+    return retryAfter;
+  }
+}
@@ -0,0 +1,103 @@
+package com.meemaw.rec.beacon.service;
+
+import com.meemaw.shared.metrics.MetricsService;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import lombok.Value;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Bounded, TTL based cache of page links that were already validated against session-api. Pages
+ * that do not exist are cached as well (with a shorter TTL), so a misbehaving client can not hammer
+ * session-api with the same unlinked beacon.
+ */
+@ApplicationScoped
+public class PageLinkCache {
+
+  private static final String CACHE_NAME = "page_link";
+
+  @Inject MetricsService metricsService;
+
+  @ConfigProperty(name = "beacon.page-cache.max-size", defaultValue = "100000")
+  int maxSize;
+
+  @ConfigProperty(name = "beacon.page-cache.ttl", defaultValue = "PT30M")
+  Duration ttl;
+
+  @ConfigProperty(name = "beacon.page-cache.negative-ttl", defaultValue = "PT30S")
+  Duration negativeTtl;
+
+  private Map<PageLink, CachedLink> links;
+
+  @PostConstruct
+  void init() {
+    links =
+        Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+              @Override
+              protected boolean removeEldestEntry(Map.Entry<PageLink, CachedLink> eldest) {
+                if (size() > maxSize) {
+                  metricsService.cacheEviction(CACHE_NAME).inc();
+                  return true;
+                }
+                return false;
+              }
+            });
+  }
+
+  /**
+   * @param organizationId String organization id
+   * @param sessionId UUID session id
+   * @param pageId UUID page id
+   * @return cached page existence or empty if link was not yet validated (or has expired)
+   */
+  public Optional<Boolean> get(String organizationId, UUID sessionId, UUID pageId) {
+    PageLink key = new PageLink(organizationId, sessionId, pageId);
+    CachedLink cached = links.get(key);
+    if (cached == null) {
+      metricsService.cacheMiss(CACHE_NAME).inc();
+      return Optional.empty();
+    }
+
+    if (cached.getExpiresAt() < System.currentTimeMillis()) {
+      links.remove(key);
+      metricsService.cacheMiss(CACHE_NAME).inc();
+      metricsService.cacheEviction(CACHE_NAME).inc();
+      return Optional.empty();
+    }
+
+    metricsService.cacheHit(CACHE_NAME).inc();
+    return Optional.of(cached.isExists());
+  }
+
+  /**
+   * @param organizationId String organization id
+   * @param sessionId UUID session id
+   * @param pageId UUID page id
+   * @param exists boolean if page link exists
+   */
+  public void put(String organizationId, UUID sessionId, UUID pageId, boolean exists) {
+    long expiresAt = System.currentTimeMillis() + (exists ? ttl : negativeTtl).toMillis();
+    links.put(new PageLink(organizationId, sessionId, pageId), new CachedLink(exists, expiresAt));
+  }
+
+  @Value
+  private static class PageLink {
+    String organizationId;
+    UUID sessionId;
+    UUID pageId;
+  }
+
+  @Value
+  private static class CachedLink {
+    boolean exists;
+    long expiresAt;
+  }
+}
@@ -0,0 +1,25 @@
+package com.meemaw.rec.beacon.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.meemaw.events.stream.kafka.KafkaProducerProfile;
+import java.util.Properties;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.junit.jupiter.api.Test;
+
+public class KafkaProducerProfileConfigSourceTest {
+
+  @Test
+  public void shouldExposeProfileAsConnectorAttributes() {
+    Properties profile = KafkaProducerProfile.highThroughput();
+    KafkaProducerProfileConfigSource configSource = new KafkaProducerProfileConfigSource();
+
+    assertEquals(profile.size(), configSource.getProperties().size());
+    profile.forEach(
+        (key, value) ->
+            assertEquals(
+                value, configSource.getValue("mp.messaging.connector.smallrye-kafka." + key)));
+    assertNull(configSource.getValue(ProducerConfig.ACKS_CONFIG));
+  }
+}
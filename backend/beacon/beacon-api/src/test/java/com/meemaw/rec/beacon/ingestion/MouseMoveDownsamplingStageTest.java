@@ -0,0 +1,54 @@
+package com.meemaw.rec.beacon.ingestion;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.meemaw.events.model.internal.AbstractBrowserEvent;
+import com.meemaw.events.model.internal.BrowserClickEvent;
+import com.meemaw.events.model.internal.BrowserMouseMoveEvent;
+import com.meemaw.test.rest.mappers.JacksonMapper;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class MouseMoveDownsamplingStageTest {
+
+  private static final String EVENTS =
+      "[{\"t\":0,\"e\":5,\"a\":[100,100]},{\"t\":10,\"e\":5,\"a\":[101,101]},{\"t\":20,\"e\":5,\"a\":[102,102]},{\"t\":30,\"e\":4,\"a\":[102,102]},{\"t\":40,\"e\":5,\"a\":[200,200]},{\"t\":150,\"e\":5,\"a\":[201,201]},{\"t\":160,\"e\":5,\"a\":[202,202]}]";
+
+  private List<AbstractBrowserEvent> events() throws JsonProcessingException {
+    return JacksonMapper.get().readValue(EVENTS, new TypeReference<>() {});
+  }
+
+  @Test
+  public void shouldKeepAllEvents_whenThresholdsDisabled() throws JsonProcessingException {
+    List<AbstractBrowserEvent> events = events();
+    assertEquals(events, MouseMoveDownsamplingStage.downsample(events, 0, 0));
+  }
+
+  @Test
+  public void shouldDownsampleByInterval() throws JsonProcessingException {
+    List<AbstractBrowserEvent> downsampled =
+        MouseMoveDownsamplingStage.downsample(events(), 100, 0);
+
+    // first mouse move, click, mouse move 100ms+ later, and the last mouse move
+    assertEquals(4, downsampled.size());
+    assertEquals(0, downsampled.get(0).getTimestamp());
+    assertEquals(BrowserClickEvent.class, downsampled.get(1).getClass());
+    assertEquals(150, downsampled.get(2).getTimestamp());
+    assertEquals(160, downsampled.get(3).getTimestamp());
+  }
+
+  @Test
+  public void shouldDownsampleByDistance() throws JsonProcessingException {
+    List<AbstractBrowserEvent> downsampled =
+        MouseMoveDownsamplingStage.downsample(events(), 0, 50);
+
+    assertEquals(4, downsampled.size());
+    assertEquals(0, downsampled.get(0).getTimestamp());
+    assertEquals(BrowserClickEvent.class, downsampled.get(1).getClass());
+    assertEquals(40, downsampled.get(2).getTimestamp());
+    assertEquals(160, downsampled.get(3).getTimestamp());
+    assertEquals(202, ((BrowserMouseMoveEvent) downsampled.get(3)).getClientX());
+  }
+}
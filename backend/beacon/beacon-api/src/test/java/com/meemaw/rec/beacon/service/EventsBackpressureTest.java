@@ -0,0 +1,109 @@
+package com.meemaw.rec.beacon.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.meemaw.events.model.internal.AbstractBrowserEvent;
+import com.meemaw.events.model.internal.BrowserClickEvent;
+import com.meemaw.events.model.internal.BrowserEventTypeConstants;
+import com.meemaw.shared.metrics.MetricsService;
+import com.meemaw.test.rest.mappers.JacksonMapper;
+import io.quarkus.test.junit.QuarkusTest;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import javax.inject.Inject;
+import javax.ws.rs.core.Response.Status;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+@Tag("integration")
+public class EventsBackpressureTest {
+
+  private static final String EVENTS =
+      "[{\"t\":0,\"e\":5,\"a\":[100,100]},{\"t\":10,\"e\":5,\"a\":[101,101]},{\"t\":20,\"e\":4,\"a\":[101,101]},{\"t\":30,\"e\":5,\"a\":[102,102]}]";
+
+  private static final Duration RETRY_AFTER = Duration.ofSeconds(3);
+
+  @Inject MetricsService metricsService;
+
+  /** The application bean is shared by all tests, so the test wires its own small limit. */
+  private EventsBackpressure backpressure(int maxInFlight) {
+    EventsBackpressure backpressure = new EventsBackpressure();
+    backpressure.metricsService = metricsService;
+    backpressure.maxInFlight = maxInFlight;
+    backpressure.retryAfter = RETRY_AFTER;
+    return backpressure;
+  }
+
+  private List<AbstractBrowserEvent> events() throws JsonProcessingException {
+    return JacksonMapper.get().readValue(EVENTS, new TypeReference<>() {});
+  }
+
+  private List<AbstractBrowserEvent> clicks(int numEvents) throws JsonProcessingException {
+    return events().stream()
+        .filter(event -> event.getClass() == BrowserClickEvent.class)
+        .flatMap(event -> Collections.nCopies(numEvents, event).stream())
+        .collect(Collectors.toList());
+  }
+
+  @Test
+  public void acquire_shouldAdmitAllEvents_whenWithinLimit() throws JsonProcessingException {
+    EventsBackpressure backpressure = backpressure(8);
+    long initialDropped =
+        metricsService.eventsDropped(BrowserEventTypeConstants.MOUSEMOVE).getCount();
+
+    List<AbstractBrowserEvent> events = events();
+    assertSame(events, backpressure.acquire(events));
+    assertSame(events, backpressure.acquire(events));
+    assertEquals(
+        initialDropped,
+        metricsService.eventsDropped(BrowserEventTypeConstants.MOUSEMOVE).getCount());
+  }
+
+  @Test
+  public void acquire_shouldDropOldestMouseMoves_whenOverLimit() throws JsonProcessingException {
+    EventsBackpressure backpressure = backpressure(5);
+    backpressure.acquire(clicks(2));
+    long initialDropped =
+        metricsService.eventsDropped(BrowserEventTypeConstants.MOUSEMOVE).getCount();
+
+    // 3 slots left for 4 events: the oldest mouse move goes, the click is always kept
+    List<AbstractBrowserEvent> admitted = backpressure.acquire(events());
+    assertEquals(
+        List.of(10, 20, 30),
+        admitted.stream().map(AbstractBrowserEvent::getTimestamp).collect(Collectors.toList()));
+    assertEquals(
+        initialDropped + 1,
+        metricsService.eventsDropped(BrowserEventTypeConstants.MOUSEMOVE).getCount());
+  }
+
+  @Test
+  public void acquire_shouldReject_whenOtherEventsDoNotFit() throws JsonProcessingException {
+    EventsBackpressure backpressure = backpressure(5);
+    backpressure.acquire(clicks(5));
+    long initialRejected = metricsService.eventsRejected().getCount();
+
+    EventsOverloadedException exception =
+        assertThrows(EventsOverloadedException.class, () -> backpressure.acquire(events()));
+    assertEquals(Status.TOO_MANY_REQUESTS.getStatusCode(), exception.getBoom().getStatusCode());
+    assertEquals(RETRY_AFTER, exception.getRetryAfter());
+    assertEquals(initialRejected + 4, metricsService.eventsRejected().getCount());
+  }
+
+  @Test
+  public void release_shouldFreeCapacity() throws JsonProcessingException {
+    EventsBackpressure backpressure = backpressure(4);
+    List<AbstractBrowserEvent> events = events();
+    backpressure.acquire(events);
+    assertThrows(EventsOverloadedException.class, () -> backpressure.acquire(clicks(1)));
+
+    backpressure.release(events.size());
+    assertSame(events, backpressure.acquire(events));
+  }
+}
@@ -1,16 +1,23 @@
 package com.meemaw.rec.resource.v1.beacon;
 
 import static io.restassured.RestAssured.given;
+import static org.hamcrest.core.StringContains.containsString;
+import static org.hamcrest.core.IsEqual.equalTo;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.meemaw.auth.organization.model.Organization;
 import com.meemaw.events.model.external.UserEvent;
+import com.meemaw.events.model.internal.AbstractBrowserEvent;
 import com.meemaw.events.stream.EventsStream;
 import com.meemaw.rec.beacon.resource.v1.BeaconResource;
+import com.meemaw.rec.beacon.service.EventsBackpressure;
 import com.meemaw.session.model.CreatePageDTO;
 import com.meemaw.session.model.PageIdentity;
 import com.meemaw.session.resource.v1.SessionResource;
+import com.meemaw.shared.metrics.MetricsService;
 import com.meemaw.shared.rest.response.DataResponse;
+import com.meemaw.test.rest.mappers.JacksonMapper;
 import com.meemaw.test.testconainers.api.session.SessionApiTestResource;
 import com.meemaw.test.testconainers.kafka.KafkaTestResource;
 import io.quarkus.test.common.QuarkusTestResource;
@@ -21,10 +28,13 @@ import java.net.URISyntaxException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
 import javax.inject.Inject;
 import javax.ws.rs.core.GenericType;
+import javax.ws.rs.core.HttpHeaders;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.eclipse.microprofile.reactive.messaging.Incoming;
 import org.eclipse.microprofile.rest.client.inject.RestClient;
 import org.junit.jupiter.api.BeforeEach;
@@ -41,7 +51,14 @@ public class BeaconBeatResourceProcessingTest {
   private static final String BEACON_RESOURCE_BEAT_PATH = BeaconResource.PATH + "/beat";
   private static final String ORGANIZATION_ID = Organization.identifier();
 
+  private static final String PAGE_LINK_CACHE = "page_link";
+
   @Inject @RestClient SessionResource sessionResource;
+  @Inject MetricsService metricsService;
+  @Inject EventsBackpressure eventsBackpressure;
+
+  @ConfigProperty(name = "beacon.events.max-in-flight")
+  int maxInFlight;
 
   private static List<UserEvent<?>> events;
   private static List<UserEvent<?>> unloadEvents;
@@ -118,6 +135,15 @@ public class BeaconBeatResourceProcessingTest {
           assertEquals(deviceId, e.getDeviceId());
           assertEquals(ORGANIZATION_ID, e.getOrganizationId());
         });
+
+    // all events acknowledged; nothing left in-flight
+    given()
+        .when()
+        .get("/metrics")
+        .then()
+        .statusCode(200)
+        .body(containsString("application_events_in_flight 0.0"))
+        .body(containsString("application_kafka_producer_record_send_rate{client_id="));
   }
 
   @ParameterizedTest
@@ -129,8 +155,11 @@ public class BeaconBeatResourceProcessingTest {
     UUID sessionID = pageIdentity.getSessionId();
     UUID pageID = pageIdentity.getPageId();
     String body = Files.readString(Path.of(getClass().getResource("/beacon/small.json").toURI()));
+    long initialHits = metricsService.cacheHit(PAGE_LINK_CACHE).getCount();
+    long initialMisses = metricsService.cacheMiss(PAGE_LINK_CACHE).getCount();
 
-    for (int i = 0; i < 100; i++) {
+    int numBeacons = 100;
+    for (int i = 0; i < numBeacons; i++) {
       given()
           .when()
           .contentType(contentType)
@@ -151,6 +180,17 @@ public class BeaconBeatResourceProcessingTest {
     }
 
     assertEquals(0, unloadEvents.size());
+
+    // page link should be validated against session-api only once
+    assertEquals(
+        numBeacons - 1, metricsService.cacheHit(PAGE_LINK_CACHE).getCount() - initialHits);
+    assertEquals(1, metricsService.cacheMiss(PAGE_LINK_CACHE).getCount() - initialMisses);
+    given()
+        .when()
+        .get("/metrics")
+        .then()
+        .statusCode(200)
+        .body(containsString("application_cache_hits_total{cache=\"page_link\"}"));
   }
 
   @ParameterizedTest
@@ -194,4 +234,63 @@ public class BeaconBeatResourceProcessingTest {
           assertEquals(ORGANIZATION_ID, e.getOrganizationId());
         });
   }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"application/json", "text/plain"})
+  public void shouldRejectBeacon_whenTooManyEventsAreInFlight(String contentType)
+      throws IOException, URISyntaxException {
+    UUID deviceId = UUID.randomUUID();
+    PageIdentity pageIdentity = insertPage(deviceId).await().indefinitely();
+    String body = Files.readString(Path.of(getClass().getResource("/beacon/small.json").toURI()));
+    List<AbstractBrowserEvent> inFlight =
+        JacksonMapper.get()
+            .readValue(
+                "[{\"t\":0,\"e\":4,\"a\":[100,100]}]",
+                new TypeReference<List<AbstractBrowserEvent>>() {});
+    long initialRejected = metricsService.eventsRejected().getCount();
+
+    // events still awaiting Kafka acknowledgement take up all the capacity
+    eventsBackpressure.acquire(Collections.nCopies(maxInFlight, inFlight.get(0)));
+    try {
+      given()
+          .when()
+          .contentType(contentType)
+          .queryParam("sessionId", pageIdentity.getSessionId())
+          .queryParam("deviceId", deviceId)
+          .queryParam("pageId", pageIdentity.getPageId())
+          .queryParam("organizationId", ORGANIZATION_ID)
+          .body(body)
+          .post(BEACON_RESOURCE_BEAT_PATH)
+          .then()
+          .statusCode(429)
+          .header(HttpHeaders.RETRY_AFTER, equalTo("5"))
+          .body(containsString("Too many in-flight events"));
+    } finally {
+      eventsBackpressure.release(maxInFlight);
+    }
+
+    assertEquals(0, events.size());
+    assertEquals(1, metricsService.eventsRejected().getCount() - initialRejected);
+    given()
+        .when()
+        .get("/metrics")
+        .then()
+        .statusCode(200)
+        .body(containsString("application_events_rejected_total"))
+        .body(containsString("application_events_in_flight 0.0"));
+
+    // capacity is back once in-flight events are acknowledged
+    given()
+        .when()
+        .contentType(contentType)
+        .queryParam("sessionId", pageIdentity.getSessionId())
+        .queryParam("deviceId", deviceId)
+        .queryParam("pageId", pageIdentity.getPageId())
+        .queryParam("organizationId", ORGANIZATION_ID)
+        .body(body)
+        .post(BEACON_RESOURCE_BEAT_PATH)
+        .then()
+        .statusCode(204);
+    assertEquals(1, events.size());
+  }
 }
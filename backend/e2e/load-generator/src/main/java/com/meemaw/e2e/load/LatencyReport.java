@@ -0,0 +1,87 @@
+package com.meemaw.e2e.load;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/** Latency histograms (in microseconds) and error counts per hop of the ingest pipeline. */
+@Slf4j
+public class LatencyReport {
+
+  public static final String CREATE_PAGE = "session-api createPage";
+  public static final String BEACON = "beacon-api beacon";
+  public static final String EVENT_TO_SEARCHABLE = "event to searchable";
+
+  private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(10);
+  private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+  private final Map<String, Histogram> histograms = new LinkedHashMap<>();
+  private final Map<String, AtomicLong> errors = new LinkedHashMap<>();
+
+  public LatencyReport() {
+    for (String hop : new String[] {CREATE_PAGE, BEACON, EVENT_TO_SEARCHABLE}) {
+      histograms.put(hop, new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3));
+      errors.put(hop, new AtomicLong());
+    }
+  }
+
+  public void record(String hop, long startNanos) {
+    record(hop, startNanos, 0);
+  }
+
+  /**
+   * Record a latency. With an expected interval the histogram backfills the samples a stalled
+   * client would have taken, so the percentiles are not flattered by coordinated omission.
+   *
+   * @param hop name
+   * @param startNanos System.nanoTime() when the hop started
+   * @param expectedIntervalNanos interval between two samples of the same client or 0
+   */
+  public void record(String hop, long startNanos, long expectedIntervalNanos) {
+    long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos);
+    histograms
+        .get(hop)
+        .recordValueWithExpectedInterval(
+            Math.min(micros, HIGHEST_TRACKABLE_MICROS),
+            TimeUnit.NANOSECONDS.toMicros(expectedIntervalNanos));
+  }
+
+  public void error(String hop) {
+    errors.get(hop).incrementAndGet();
+  }
+
+  public long getErrors(String hop) {
+    return errors.get(hop).get();
+  }
+
+  public void print() {
+    StringBuilder builder = new StringBuilder(512);
+    builder.append(
+        String.format(
+            "%n%-24s %8s %8s %10s %10s %10s %10s %10s%n",
+            "hop (ms)",
+            "count",
+            "errors",
+            "p50",
+            "p90",
+            "p99",
+            "p99.9",
+            "max"));
+    histograms.forEach(
+        (hop, histogram) -> {
+          builder.append(
+              String.format(
+                  "%-24s %8d %8d", hop, histogram.getTotalCount(), errors.get(hop).get()));
+          for (double percentile : PERCENTILES) {
+            builder.append(
+                String.format(" %10.2f", histogram.getValueAtPercentile(percentile) / 1000.0));
+          }
+          builder.append(String.format(" %10.2f%n", histogram.getMaxValue() / 1000.0));
+        });
+    log.info(builder.toString());
+  }
+}
@@ -0,0 +1,58 @@
+package com.meemaw.e2e.load;
+
+import java.time.Duration;
+import java.util.Optional;
+import lombok.Builder;
+import lombok.Value;
+
+@Value
+@Builder
+public class LoadConfig {
+
+  /** Number of concurrently simulated pages. */
+  int pages;
+
+  /** Beacons every page sends after it was created. */
+  int beaconsPerPage;
+
+  int eventsPerBeacon;
+
+  /** Pause between two beacons of the same page, like the browser's flush interval. */
+  Duration beaconInterval;
+
+  /** Every n-th beacon is followed until its last event is searchable. */
+  int searchableSampleRate;
+
+  Duration searchableTimeout;
+
+  String organizationId;
+
+  /** Base URL of a running session api, or null to start all services in containers. */
+  String sessionApiBaseUrl;
+
+  /** Base URL of a running beacon api, or null to start all services in containers. */
+  String beaconApiBaseUrl;
+
+  public boolean isExternal() {
+    return sessionApiBaseUrl != null && beaconApiBaseUrl != null;
+  }
+
+  public static LoadConfig fromEnvironment() {
+    return LoadConfig.builder()
+        .pages(intFromEnvironment("LOAD_PAGES", 100))
+        .beaconsPerPage(intFromEnvironment("LOAD_BEACONS_PER_PAGE", 20))
+        .eventsPerBeacon(intFromEnvironment("LOAD_EVENTS_PER_BEACON", 50))
+        .beaconInterval(Duration.ofMillis(intFromEnvironment("LOAD_BEACON_INTERVAL_MS", 1000)))
+        .searchableSampleRate(intFromEnvironment("LOAD_SEARCHABLE_SAMPLE_RATE", 10))
+        .searchableTimeout(
+            Duration.ofMillis(intFromEnvironment("LOAD_SEARCHABLE_TIMEOUT_MS", 60_000)))
+        .organizationId(Optional.ofNullable(System.getenv("LOAD_ORGANIZATION_ID")).orElse("000000"))
+        .sessionApiBaseUrl(System.getenv("SESSION_API_BASE_URL"))
+        .beaconApiBaseUrl(System.getenv("BEACON_API_BASE_URL"))
+        .build();
+  }
+
+  private static int intFromEnvironment(String name, int defaultValue) {
+    return Optional.ofNullable(System.getenv(name)).map(Integer::parseInt).orElse(defaultValue);
+  }
+}
@@ -0,0 +1,97 @@
+package com.meemaw.e2e.load;
+
+import com.meemaw.events.search.indexer.EventIndex;
+import com.meemaw.events.search.indexer.SearchIndexer;
+import com.meemaw.events.stream.EventsStream;
+import com.meemaw.shared.elasticsearch.ElasticsearchUtils;
+import com.meemaw.test.testconainers.api.beacon.BeaconApiTestExtension;
+import com.meemaw.test.testconainers.api.session.SessionApiTestExtension;
+import com.meemaw.test.testconainers.elasticsearch.ElasticsearchTestContainer;
+import com.meemaw.test.testconainers.elasticsearch.ElasticsearchTestExtension;
+import com.meemaw.test.testconainers.kafka.KafkaTestExtension;
+import java.io.IOException;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.elasticsearch.client.RestHighLevelClient;
+
+/**
+ * Services the load is generated against. Either already running ones, or the same containers the
+ * integration tests use: Kafka, Postgres, Elasticsearch, session api and beacon api, with the
+ * search indexer running in this JVM.
+ */
+@Slf4j
+@Getter
+public final class LoadEnvironment implements AutoCloseable {
+
+  private final String sessionApiBaseUrl;
+  private final String beaconApiBaseUrl;
+  private final RestHighLevelClient elasticsearch;
+  private final SearchIndexer searchIndexer;
+
+  private LoadEnvironment(
+      String sessionApiBaseUrl,
+      String beaconApiBaseUrl,
+      RestHighLevelClient elasticsearch,
+      SearchIndexer searchIndexer) {
+    this.sessionApiBaseUrl = sessionApiBaseUrl;
+    this.beaconApiBaseUrl = beaconApiBaseUrl;
+    this.elasticsearch = elasticsearch;
+    this.searchIndexer = searchIndexer;
+  }
+
+  /**
+   * @param config LoadConfig
+   * @return environment pointing to the configured services or freshly started containers
+   * @throws IOException if the events index could not be bootstrapped
+   */
+  public static LoadEnvironment start(LoadConfig config) throws IOException {
+    if (config.isExternal()) {
+      log.info(
+          "Using running services sessionApi={} beaconApi={}",
+          config.getSessionApiBaseUrl(),
+          config.getBeaconApiBaseUrl());
+      return new LoadEnvironment(
+          config.getSessionApiBaseUrl(),
+          config.getBeaconApiBaseUrl(),
+          ElasticsearchUtils.restClient(),
+          null);
+    }
+
+    ElasticsearchTestExtension.start();
+    KafkaTestExtension.start();
+    SessionApiTestExtension.start();
+    BeaconApiTestExtension.start();
+
+    ElasticsearchTestContainer elasticsearchContainer = ElasticsearchTestExtension.getInstance();
+    RestHighLevelClient client = elasticsearchContainer.restHighLevelClient();
+    EventIndex.bootstrap(client);
+
+    SearchIndexer searchIndexer =
+        new SearchIndexer(
+            EventsStream.ALL,
+            "events-retry-0",
+            "events-dead-letter-queue",
+            KafkaTestExtension.getInstance().getBootstrapServers(),
+            client,
+            Runtime.getRuntime().availableProcessors());
+    new Thread(searchIndexer::start, "search-indexer").start();
+
+    return new LoadEnvironment(
+        SessionApiTestExtension.getInstance().getBaseURI(),
+        BeaconApiTestExtension.getInstance().getBaseURI(),
+        client,
+        searchIndexer);
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (searchIndexer != null) {
+      searchIndexer.shutdown();
+      BeaconApiTestExtension.stop();
+      SessionApiTestExtension.stop();
+      KafkaTestExtension.stop();
+      ElasticsearchTestExtension.stop();
+    }
+    elasticsearch.close();
+  }
+}
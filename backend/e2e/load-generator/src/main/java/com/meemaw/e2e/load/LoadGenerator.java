@@ -0,0 +1,249 @@
+package com.meemaw.e2e.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.meemaw.events.search.indexer.EventIndex;
+import com.meemaw.test.rest.mappers.JacksonMapper;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.client.core.CountRequest;
+import org.elasticsearch.index.query.QueryBuilders;
+
+/**
+ * Simulates concurrent pages: each page is created through the session api and then streams
+ * beacons to the beacon api at a fixed interval. Every n-th beacon is followed through Kafka and
+ * the search indexer until its last event is searchable in Elasticsearch.
+ */
+@Slf4j
+public class LoadGenerator {
+
+  private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+  private static final long PROBE_INTERVAL_MILLIS = 100;
+
+  private final LoadConfig config;
+  private final LoadEnvironment environment;
+  private final LatencyReport report = new LatencyReport();
+  private final Queue<CompletableFuture<Void>> probes = new ConcurrentLinkedQueue<>();
+  private final HttpClient httpClient;
+  private final ScheduledExecutorService probeExecutor;
+
+  public LoadGenerator(LoadConfig config, LoadEnvironment environment) {
+    this.config = config;
+    this.environment = environment;
+    this.httpClient = HttpClient.newBuilder().connectTimeout(REQUEST_TIMEOUT).build();
+    this.probeExecutor = Executors.newScheduledThreadPool(4);
+  }
+
+  /**
+   * Run all pages to completion and wait for the sampled beacons to become searchable.
+   *
+   * @return LatencyReport
+   * @throws InterruptedException if interrupted while waiting for pages
+   */
+  public LatencyReport run() throws InterruptedException {
+    ExecutorService pageExecutor = Executors.newFixedThreadPool(config.getPages());
+    List<CompletableFuture<Void>> pages = new ArrayList<>(config.getPages());
+    for (int i = 0; i < config.getPages(); i++) {
+      pages.add(CompletableFuture.runAsync(this::runPage, pageExecutor));
+    }
+    CompletableFuture.allOf(pages.toArray(CompletableFuture[]::new)).join();
+    log.info("All {} pages done, waiting for {} searchable probes", pages.size(), probes.size());
+    CompletableFuture.allOf(probes.toArray(CompletableFuture[]::new)).join();
+
+    pageExecutor.shutdown();
+    probeExecutor.shutdown();
+    pageExecutor.awaitTermination(1, TimeUnit.MINUTES);
+    return report;
+  }
+
+  private void runPage() {
+    UUID pageId;
+    UUID sessionId;
+    UUID deviceId;
+    long createStart = System.nanoTime();
+    try {
+      JsonNode identity = createPage();
+      report.record(LatencyReport.CREATE_PAGE, createStart);
+      pageId = UUID.fromString(identity.get("pageId").asText());
+      sessionId = UUID.fromString(identity.get("sessionId").asText());
+      deviceId = UUID.fromString(identity.get("deviceId").asText());
+    } catch (IOException | RuntimeException ex) {
+      log.warn("Failed to create page", ex);
+      report.error(LatencyReport.CREATE_PAGE);
+      return;
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      return;
+    }
+
+    long intervalNanos = config.getBeaconInterval().toNanos();
+    long nextBeacon = System.nanoTime();
+    for (int seq = 1; seq <= config.getBeaconsPerPage(); seq++) {
+      long beaconStart = System.nanoTime();
+      int lastTimestamp = seq * config.getEventsPerBeacon();
+      try {
+        sendBeacon(pageId, sessionId, deviceId, seq, lastTimestamp);
+        report.record(LatencyReport.BEACON, beaconStart, intervalNanos);
+        if (seq % config.getSearchableSampleRate() == 0) {
+          probes.add(probeSearchable(pageId, lastTimestamp, beaconStart));
+        }
+      } catch (IOException | RuntimeException ex) {
+        log.warn("Failed to send beacon {} of page {}", seq, pageId, ex);
+        report.error(LatencyReport.BEACON);
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+
+      nextBeacon += intervalNanos;
+      long sleepNanos = nextBeacon - System.nanoTime();
+      if (sleepNanos > 0) {
+        try {
+          TimeUnit.NANOSECONDS.sleep(sleepNanos);
+        } catch (InterruptedException ex) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+      }
+    }
+  }
+
+  private JsonNode createPage() throws IOException, InterruptedException {
+    String body =
+        String.format(
+            Locale.ROOT,
+            "{\"organizationId\":\"%s\",\"url\":\"http://localhost:3000/load\",\"referrer\":\"\","
+                + "\"doctype\":\"<!DOCTYPE html>\",\"screenWidth\":1920,\"screenHeight\":1080,"
+                + "\"width\":1920,\"height\":1080,\"compiledTs\":%d}",
+            config.getOrganizationId(),
+            System.currentTimeMillis());
+
+    HttpRequest request =
+        HttpRequest.newBuilder(URI.create(environment.getSessionApiBaseUrl() + "/v1/sessions"))
+            .timeout(REQUEST_TIMEOUT)
+            .header("Content-Type", "application/json")
+            .POST(BodyPublishers.ofString(body))
+            .build();
+
+    String response = expectSuccess(httpClient.send(request, BodyHandlers.ofString()));
+    return JacksonMapper.get().readTree(response).get("data");
+  }
+
+  private void sendBeacon(
+      UUID pageId, UUID sessionId, UUID deviceId, int seq, int lastTimestamp)
+      throws IOException, InterruptedException {
+    URI uri =
+        URI.create(
+            String.format(
+                "%s/v1/beacon/beat?organizationId=%s&sessionId=%s&deviceId=%s&pageId=%s",
+                environment.getBeaconApiBaseUrl(),
+                config.getOrganizationId(),
+                sessionId,
+                deviceId,
+                pageId));
+
+    HttpRequest request =
+        HttpRequest.newBuilder(uri)
+            .timeout(REQUEST_TIMEOUT)
+            .header("Content-Type", "application/json")
+            .POST(BodyPublishers.ofString(beacon(seq, lastTimestamp)))
+            .build();
+
+    expectSuccess(httpClient.send(request, BodyHandlers.ofString()));
+  }
+
+  /** Beacon of mouse moves whose timestamps are unique within the page and end at lastTimestamp. */
+  private String beacon(int seq, int lastTimestamp) {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    int numEvents = config.getEventsPerBeacon();
+    StringBuilder builder = new StringBuilder(numEvents * 64);
+    builder.append("{\"s\":").append(seq).append(",\"t\":").append(lastTimestamp).append(",\"e\":[");
+    for (int i = 0; i < numEvents; i++) {
+      if (i > 0) {
+        builder.append(',');
+      }
+      builder.append(
+          String.format(
+              Locale.ROOT,
+              "{\"t\":%d,\"e\":5,\"a\":[%d,%d,\"<DIV\",\":class\",\"container\"]}",
+              lastTimestamp - numEvents + 1 + i,
+              random.nextInt(1920),
+              random.nextInt(1080)));
+    }
+    return builder.append("]}").toString();
+  }
+
+  private CompletableFuture<Void> probeSearchable(UUID pageId, int timestamp, long startNanos) {
+    CountRequest countRequest =
+        new CountRequest(EventIndex.NAME)
+            .query(
+                QueryBuilders.boolQuery()
+                    .filter(QueryBuilders.termQuery("page.id", pageId.toString()))
+                    .filter(QueryBuilders.termQuery("timestamp", timestamp)));
+
+    long deadline = startNanos + config.getSearchableTimeout().toNanos();
+    CompletableFuture<Void> searchable = new CompletableFuture<>();
+    probe(countRequest, startNanos, deadline, searchable);
+    return searchable;
+  }
+
+  private void probe(
+      CountRequest countRequest,
+      long startNanos,
+      long deadline,
+      CompletableFuture<Void> searchable) {
+    probeExecutor.schedule(
+        () -> {
+          try {
+            long count =
+                environment.getElasticsearch().count(countRequest, RequestOptions.DEFAULT).getCount();
+            if (count > 0) {
+              report.record(LatencyReport.EVENT_TO_SEARCHABLE, startNanos);
+              searchable.complete(null);
+              return;
+            }
+          } catch (IOException | RuntimeException ex) {
+            log.debug("Searchable probe failed", ex);
+          }
+
+          if (System.nanoTime() > deadline) {
+            report.error(LatencyReport.EVENT_TO_SEARCHABLE);
+            searchable.complete(null);
+          } else {
+            probe(countRequest, startNanos, deadline, searchable);
+          }
+        },
+        PROBE_INTERVAL_MILLIS,
+        TimeUnit.MILLISECONDS);
+  }
+
+  private static String expectSuccess(HttpResponse<String> response)
+      throws IOException {
+    if (response.statusCode() >= 300) {
+      throw new IOException(
+          String.format(
+              "%s responded with %d: %s",
+              response.uri(), response.statusCode(), response.body()));
+    }
+    return response.body();
+  }
+}
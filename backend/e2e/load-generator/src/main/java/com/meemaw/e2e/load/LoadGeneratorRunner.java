@@ -0,0 +1,19 @@
+package com.meemaw.e2e.load;
+
+import java.io.IOException;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+public class LoadGeneratorRunner {
+
+  public static void main(String[] args) throws IOException, InterruptedException {
+    LoadConfig config = LoadConfig.fromEnvironment();
+    log.info("config: {}", config);
+
+    try (LoadEnvironment environment = LoadEnvironment.start(config)) {
+      LatencyReport report = new LoadGenerator(config, environment).run();
+      report.print();
+    }
+    System.exit(0);
+  }
+}
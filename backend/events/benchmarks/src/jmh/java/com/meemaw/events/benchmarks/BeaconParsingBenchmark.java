@@ -0,0 +1,56 @@
+package com.meemaw.events.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.meemaw.rec.beacon.model.dto.BeaconDTO;
+import com.meemaw.test.rest.mappers.JacksonMapper;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares parsing a beacon from a String payload (bytes -> String -> object tree) with parsing it
+ * straight from the request byte stream.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class BeaconParsingBenchmark {
+
+  @Param({"50", "500"})
+  int numEvents;
+
+  private ObjectMapper objectMapper;
+  private byte[] payload;
+
+  @Setup
+  public void setup() {
+    objectMapper = JacksonMapper.get();
+    payload = EventFixtures.beacon(numEvents).getBytes(StandardCharsets.UTF_8);
+  }
+
+  @Benchmark
+  public BeaconDTO fromString() throws IOException {
+    String body = new String(payload, StandardCharsets.UTF_8);
+    return objectMapper.readValue(body, BeaconDTO.class);
+  }
+
+  @Benchmark
+  public BeaconDTO fromStream() throws IOException {
+    return objectMapper.readValue(new ByteArrayInputStream(payload), BeaconDTO.class);
+  }
+}
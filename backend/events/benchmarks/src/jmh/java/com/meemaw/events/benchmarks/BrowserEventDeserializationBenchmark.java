@@ -0,0 +1,74 @@
+package com.meemaw.events.benchmarks;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.meemaw.events.model.internal.AbstractBrowserEvent;
+import com.meemaw.test.rest.mappers.JacksonMapper;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares deserializing events into typed, primitive fields with the previous representation
+ * where "a" was bound to a {@code List<Object>} of boxed values. Run with the GC profiler
+ * ({@code -prof gc}, enabled in build.gradle) and compare {@code gc.alloc.rate.norm}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class BrowserEventDeserializationBenchmark {
+
+  private static final TypeReference<List<AbstractBrowserEvent>> TYPED = new TypeReference<>() {};
+  private static final TypeReference<List<UntypedEvent>> UNTYPED = new TypeReference<>() {};
+
+  @Param({"50", "500"})
+  int numEvents;
+
+  private ObjectMapper objectMapper;
+  private byte[] payload;
+
+  @Setup
+  public void setup() {
+    objectMapper = JacksonMapper.get();
+    payload = EventFixtures.events(numEvents).getBytes(StandardCharsets.UTF_8);
+  }
+
+  @Benchmark
+  public List<AbstractBrowserEvent> typed() throws IOException {
+    return objectMapper.readValue(payload, TYPED);
+  }
+
+  @Benchmark
+  public List<UntypedEvent> untyped() throws IOException {
+    return objectMapper.readValue(payload, UNTYPED);
+  }
+
+  /** Baseline: the {"e", "t", "a"} shape with arguments bound as boxed values. */
+  public static class UntypedEvent {
+
+    @JsonProperty("e")
+    public String type;
+
+    @JsonProperty("t")
+    public int timestamp;
+
+    @JsonProperty("a")
+    public List<Object> args;
+  }
+}
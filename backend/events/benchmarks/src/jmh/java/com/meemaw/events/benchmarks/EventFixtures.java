@@ -0,0 +1,115 @@
+package com.meemaw.events.benchmarks;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.meemaw.events.model.external.UserEvent;
+import com.meemaw.events.model.internal.AbstractBrowserEvent;
+import com.meemaw.test.rest.mappers.JacksonMapper;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Deterministic payloads shaped like production traffic: mouse moves dominate, followed by clicks,
+ * resizes and performance entries. The same seed always produces the same payload, so results of
+ * different runs stay comparable.
+ */
+public final class EventFixtures {
+
+  public static final String MOUSE_MOVE =
+      "{\"t\":1306,\"e\":5,\"a\":[1167,732,\"<DIV\",\":class\",\"container\"]}";
+  public static final String PERFORMANCE =
+      "{\"t\":13097,\"e\":3,\"a\":[\"http://localhost:8081/v1/page\",\"resource\",18549.754999927245,1.9050000701099634]}";
+
+  private static final String USER_EVENT =
+      "{\"event\":%s,\"organizationId\":\"org123\",\"pageId\":\"d274c40c-357b-4357-8359-f33aed7b86df\",\"sessionId\":\"02737f08-28ba-47c4-9c13-5a2b6a133a9a\",\"deviceId\":\"14671e07-9081-4009-8752-a4d896c620c8\"}";
+
+  private EventFixtures() {}
+
+  /**
+   * @param numEvents number of events
+   * @return JSON array of events in the {"e", "t", "a"} wire format
+   */
+  public static String events(int numEvents) {
+    return "[" + String.join(",", eventList(numEvents)) + "]";
+  }
+
+  /**
+   * @param numEvents number of events in the beacon
+   * @return beacon JSON as sent by the browser
+   */
+  public static String beacon(int numEvents) {
+    return "{\"s\":1,\"t\":1,\"e\":" + events(numEvents) + "}";
+  }
+
+  /**
+   * @param event single event JSON
+   * @return user event wrapping the event
+   */
+  public static UserEvent<AbstractBrowserEvent> userEvent(String event) {
+    try {
+      return JacksonMapper.get()
+          .readValue(String.format(USER_EVENT, event), new TypeReference<>() {});
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+
+  /**
+   * @param numEvents number of user events
+   * @return user events of a single page with the mixed event distribution
+   */
+  public static List<UserEvent<AbstractBrowserEvent>> userEvents(int numEvents) {
+    List<String> events = eventList(numEvents);
+    List<UserEvent<AbstractBrowserEvent>> userEvents = new ArrayList<>(events.size());
+    for (String event : events) {
+      userEvents.add(userEvent(event));
+    }
+    return userEvents;
+  }
+
+  private static List<String> eventList(int numEvents) {
+    Random random = new Random(numEvents);
+    List<String> events = new ArrayList<>(numEvents);
+    for (int i = 0; i < numEvents; i++) {
+      int timestamp = i * 17;
+      int roll = random.nextInt(100);
+      if (roll < 75) {
+        events.add(
+            String.format(
+                Locale.ROOT,
+                "{\"t\":%d,\"e\":5,\"a\":[%d,%d,\"<DIV\",\":class\",\"container\"]}",
+                timestamp,
+                random.nextInt(1920),
+                random.nextInt(1080)));
+      } else if (roll < 85) {
+        events.add(
+            String.format(
+                Locale.ROOT,
+                "{\"t\":%d,\"e\":4,\"a\":[%d,%d,\"<BUTTON\",\":type\",\"submit\"]}",
+                timestamp,
+                random.nextInt(1920),
+                random.nextInt(1080)));
+      } else if (roll < 90) {
+        events.add(
+            String.format(
+                Locale.ROOT,
+                "{\"t\":%d,\"e\":2,\"a\":[%d,%d]}",
+                timestamp,
+                random.nextInt(1920),
+                random.nextInt(1080)));
+      } else {
+        events.add(
+            String.format(
+                Locale.ROOT,
+                "{\"t\":%d,\"e\":3,\"a\":[\"http://localhost:8081/v1/page\",\"resource\",%f,%f]}",
+                timestamp,
+                random.nextDouble() * 5000,
+                random.nextDouble() * 100));
+      }
+    }
+    return events;
+  }
+}
@@ -0,0 +1,60 @@
+package com.meemaw.events.benchmarks;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.meemaw.events.model.external.UserEvent;
+import com.meemaw.events.model.internal.AbstractBrowserEvent;
+import com.meemaw.test.rest.mappers.JacksonMapper;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Bytes allocated per indexed event: building the {@link UserEvent#index()} map and serializing
+ * it (what {@code IndexRequest.source(Map)} does), versus streaming the document with {@link
+ * UserEvent#writeIndex(JsonGenerator)}. Compare {@code gc.alloc.rate.norm} from the GC profiler.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class UserEventIndexBenchmark {
+
+  private ObjectMapper objectMapper;
+  private JsonFactory jsonFactory;
+  private UserEvent<AbstractBrowserEvent> userEvent;
+
+  @Setup
+  public void setup() {
+    objectMapper = JacksonMapper.get();
+    jsonFactory = objectMapper.getFactory();
+    userEvent = EventFixtures.userEvent(EventFixtures.MOUSE_MOVE);
+  }
+
+  @Benchmark
+  public byte[] indexMap() throws IOException {
+    return objectMapper.writeValueAsBytes(userEvent.index());
+  }
+
+  @Benchmark
+  public byte[] writeIndex() throws IOException {
+    ByteArrayOutputStream output = new ByteArrayOutputStream(256);
+    try (JsonGenerator generator = jsonFactory.createGenerator(output)) {
+      userEvent.writeIndex(generator);
+    }
+    return output.toByteArray();
+  }
+}
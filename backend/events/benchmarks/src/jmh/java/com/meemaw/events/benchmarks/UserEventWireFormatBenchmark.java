@@ -0,0 +1,67 @@
+package com.meemaw.events.benchmarks;
+
+import com.meemaw.events.model.external.UserEvent;
+import com.meemaw.events.model.external.serialization.UserEventDeserializer;
+import com.meemaw.events.model.external.serialization.UserEventSerializer;
+import com.meemaw.events.model.external.serialization.UserEventWireFormat;
+import com.meemaw.events.model.internal.AbstractBrowserEvent;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Kafka record (de)serialization throughput of JSON vs the binary wire format. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class UserEventWireFormatBenchmark {
+
+  private static final String TOPIC = "events";
+  private static final Map<String, String> EVENTS =
+      Map.of("mouseMove", EventFixtures.MOUSE_MOVE, "performance", EventFixtures.PERFORMANCE);
+
+  @Param({"mouseMove", "performance"})
+  String event;
+
+  @Param({"json", "binary"})
+  String wireFormat;
+
+  private UserEventSerializer serializer;
+  private UserEventDeserializer deserializer;
+  private UserEvent<AbstractBrowserEvent> userEvent;
+  private RecordHeaders headers;
+  private byte[] record;
+
+  @Setup
+  public void setup() {
+    userEvent = EventFixtures.userEvent(EVENTS.get(event));
+    serializer = new UserEventSerializer();
+    serializer.configure(Map.of(UserEventWireFormat.CONFIG, wireFormat), false);
+    deserializer = new UserEventDeserializer();
+    headers = new RecordHeaders();
+    record = serializer.serialize(TOPIC, headers, userEvent);
+  }
+
+  @Benchmark
+  public byte[] serialize() {
+    return serializer.serialize(TOPIC, new RecordHeaders(), userEvent);
+  }
+
+  @Benchmark
+  public UserEvent<?> deserialize() {
+    return deserializer.deserialize(TOPIC, headers, record);
+  }
+}
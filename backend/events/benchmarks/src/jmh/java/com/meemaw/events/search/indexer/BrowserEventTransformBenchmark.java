@@ -0,0 +1,65 @@
+package com.meemaw.events.search.indexer;
+
+import com.meemaw.events.benchmarks.EventFixtures;
+import com.meemaw.events.model.external.UserEvent;
+import com.meemaw.events.model.internal.AbstractBrowserEvent;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.apache.http.HttpHost;
+import org.elasticsearch.action.DocWriteRequest.OpType;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.client.RestClient;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of turning a user event into an index request (document id, daily index name and source)
+ * with {@link BrowserEventElasticsearchBatchProcessor#transform}. Nothing is sent: the client
+ * points to an unused port and the processor is never flushed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class BrowserEventTransformBenchmark {
+
+  private static final int NUM_EVENTS = 1024;
+
+  private RestHighLevelClient client;
+  private BrowserEventElasticsearchBatchProcessor processor;
+  private List<UserEvent<AbstractBrowserEvent>> userEvents;
+  private int next;
+
+  @Setup
+  public void setup() {
+    client = new RestHighLevelClient(RestClient.builder(new HttpHost("localhost", 10000, "http")));
+    processor = new BrowserEventElasticsearchBatchProcessor(client, OpType.CREATE);
+    userEvents = EventFixtures.userEvents(NUM_EVENTS);
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    processor.close();
+    client.close();
+  }
+
+  @Benchmark
+  public IndexRequest transform() {
+    IndexRequest request = new IndexRequest();
+    processor.transform(userEvents.get(next++ & (NUM_EVENTS - 1)), request);
+    return request;
+  }
+}
@@ -1,6 +1,9 @@
 package com.meemaw.events.model.external;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.meemaw.events.model.internal.AbstractBrowserEvent;
+import com.meemaw.events.model.internal.BinaryEventWriter;
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
@@ -16,12 +19,51 @@ import lombok.Value;
 @AllArgsConstructor
 public class UserEvent<T extends AbstractBrowserEvent> {
 
+  private static final int UUID_LENGTH = 36;
+  private static final int DOCUMENT_ID_BUFFER_SIZE = 64;
+  private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
   T event;
   UUID pageId;
   UUID sessionId;
   UUID deviceId;
   String organizationId;
 
+  /**
+   * Position of the event within its page, see {@link #sequence(int, int)}. Null for events that
+   * were recorded before the sequence was carried.
+   */
+  Long sequence;
+
+  /**
+   * @param beaconSequence sequence number of the beacon within its page (the beacon's {@code s})
+   * @param index position of the event within the beacon
+   * @return event sequence: beacon sequence in the high and index in the low 32 bits
+   */
+  public static long sequence(int beaconSequence, int index) {
+    return ((long) beaconSequence << 32) | (index & 0xFFFFFFFFL);
+  }
+
+  /**
+   * Deterministic document id: a name based UUID of the page id and the event sequence. Retries and
+   * replays of the same event map to the same id, so they can be indexed idempotently, while
+   * identical events of a page keep distinct ids. Events without a sequence fall back to the binary
+   * encoding of the event, under which identical events of a page share an id.
+   *
+   * @return UUID document id
+   */
+  public UUID documentId() {
+    BinaryEventWriter writer = new BinaryEventWriter(DOCUMENT_ID_BUFFER_SIZE);
+    writer.writeLong(pageId.getMostSignificantBits());
+    writer.writeLong(pageId.getLeastSignificantBits());
+    if (sequence == null) {
+      writer.writeEvent(event);
+    } else {
+      writer.writeLong(sequence);
+    }
+    return UUID.nameUUIDFromBytes(writer.toByteArray());
+  }
+
   public Map<String, Object> index() {
     Map<String, Object> eventIndex = event.index();
     Map<String, Object> index = new HashMap<>(4 + eventIndex.size());
@@ -32,4 +74,56 @@ public class UserEvent<T extends AbstractBrowserEvent> {
     index.putAll(eventIndex);
     return index;
   }
+
+  /**
+   * Stream the index document ({@link #index()}) straight into the generator. UUIDs are formatted
+   * into a single reused char buffer instead of allocating a String for each of them.
+   *
+   * @param generator JsonGenerator to write the document to
+   * @throws IOException if document can not be written
+   */
+  public void writeIndex(JsonGenerator generator) throws IOException {
+    char[] buffer = new char[UUID_LENGTH];
+    generator.writeStartObject();
+    writeUuidField(generator, "page.id", pageId, buffer);
+    writeUuidField(generator, "session.id", sessionId, buffer);
+    writeUuidField(generator, "device.id", deviceId, buffer);
+    generator.writeStringField("organization.id", organizationId);
+    event.writeIndex(generator);
+    generator.writeEndObject();
+  }
+
+  private static void writeUuidField(
+      JsonGenerator generator, String fieldName, UUID value, char[] buffer) throws IOException {
+    generator.writeFieldName(fieldName);
+    formatUuid(value, buffer);
+    generator.writeString(buffer, 0, UUID_LENGTH);
+  }
+
+  /**
+   * Format UUID into the canonical 8-4-4-4-12 representation, same as {@link UUID#toString()}.
+   *
+   * @param value UUID
+   * @param buffer char array of at least 36 chars
+   */
+  static void formatUuid(UUID value, char[] buffer) {
+    long msb = value.getMostSignificantBits();
+    long lsb = value.getLeastSignificantBits();
+    formatHex(msb >>> 32, buffer, 0, 8);
+    buffer[8] = '-';
+    formatHex(msb >>> 16, buffer, 9, 4);
+    buffer[13] = '-';
+    formatHex(msb, buffer, 14, 4);
+    buffer[18] = '-';
+    formatHex(lsb >>> 48, buffer, 19, 4);
+    buffer[23] = '-';
+    formatHex(lsb, buffer, 24, 12);
+  }
+
+  private static void formatHex(long value, char[] buffer, int offset, int digits) {
+    for (int i = offset + digits - 1; i >= offset; i--) {
+      buffer[i] = HEX_DIGITS[(int) (value & 0xF)];
+      value >>>= 4;
+    }
+  }
 }
@@ -0,0 +1,62 @@
+package com.meemaw.events.model.external;
+
+import com.meemaw.events.model.internal.AbstractBrowserEvent;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.NoArgsConstructor;
+import lombok.Value;
+
+/**
+ * Envelope of all events from a single beacon. Identity (page/session/device/organization) is sent
+ * once per beacon instead of once per event.
+ */
+@Value
+@Builder
+@NoArgsConstructor(force = true, access = AccessLevel.PRIVATE)
+@AllArgsConstructor
+public class UserEventBatch {
+
+  UUID pageId;
+  UUID sessionId;
+  UUID deviceId;
+  String organizationId;
+
+  /**
+   * Sequence of the first event, the following events are numbered consecutively. Null for batches
+   * that were recorded before the sequence was carried.
+   */
+  Long sequence;
+
+  List<AbstractBrowserEvent> events;
+
+  /** @return events from the batch, each with its own identity and sequence */
+  public List<UserEvent<AbstractBrowserEvent>> unbatch() {
+    List<UserEvent<AbstractBrowserEvent>> unbatched = new ArrayList<>(events.size());
+    for (int i = 0; i < events.size(); i++) {
+      Long eventSequence = sequence == null ? null : sequence + i;
+      unbatched.add(
+          new UserEvent<>(
+              events.get(i), pageId, sessionId, deviceId, organizationId, eventSequence));
+    }
+    return unbatched;
+  }
+
+  /**
+   * @param userEvent UserEvent single event
+   * @return batch containing only the given event
+   */
+  public static UserEventBatch of(UserEvent<? extends AbstractBrowserEvent> userEvent) {
+    return new UserEventBatch(
+        userEvent.getPageId(),
+        userEvent.getSessionId(),
+        userEvent.getDeviceId(),
+        userEvent.getOrganizationId(),
+        userEvent.getSequence(),
+        Collections.singletonList(userEvent.getEvent()));
+  }
+}
@@ -0,0 +1,11 @@
+package com.meemaw.events.model.external.serialization;
+
+import com.meemaw.events.model.external.UserEventBatch;
+import io.quarkus.kafka.client.serialization.ObjectMapperDeserializer;
+
+public class UserEventBatchDeserializer extends ObjectMapperDeserializer<UserEventBatch> {
+
+  public UserEventBatchDeserializer() {
+    super(UserEventBatch.class);
+  }
+}
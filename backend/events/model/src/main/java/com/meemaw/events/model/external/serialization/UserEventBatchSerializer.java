@@ -0,0 +1,6 @@
+package com.meemaw.events.model.external.serialization;
+
+import com.meemaw.events.model.external.UserEventBatch;
+import io.quarkus.kafka.client.serialization.ObjectMapperSerializer;
+
+public class UserEventBatchSerializer extends ObjectMapperSerializer<UserEventBatch> {}
@@ -2,10 +2,29 @@ package com.meemaw.events.model.external.serialization;
 
 import com.meemaw.events.model.external.UserEvent;
 import io.quarkus.kafka.client.serialization.ObjectMapperDeserializer;
+import java.io.IOException;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
 
+/**
+ * Deserializes user events in the wire format announced by the {@link
+ * UserEventWireFormat#HEADER} header, falling back to JSON for records without it.
+ */
 public class UserEventDeserializer extends ObjectMapperDeserializer<UserEvent> {
 
   public UserEventDeserializer() {
     super(UserEvent.class);
   }
+
+  @Override
+  public UserEvent deserialize(String topic, Headers headers, byte[] data) {
+    if (data == null || UserEventWireFormat.fromHeaders(headers) == UserEventWireFormat.JSON) {
+      return deserialize(topic, data);
+    }
+    try {
+      return UserEventWireFormat.decode(data);
+    } catch (IOException ex) {
+      throw new SerializationException(ex);
+    }
+  }
 }
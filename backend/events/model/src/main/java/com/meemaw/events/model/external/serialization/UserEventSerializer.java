@@ -2,5 +2,31 @@ package com.meemaw.events.model.external.serialization;
 
 import com.meemaw.events.model.external.UserEvent;
 import io.quarkus.kafka.client.serialization.ObjectMapperSerializer;
+import java.util.Map;
+import org.apache.kafka.common.header.Headers;
 
-public class UserEventSerializer extends ObjectMapperSerializer<UserEvent> {}
+/**
+ * Serializes user events as JSON (default) or in the compact binary format, configured with the
+ * {@link UserEventWireFormat#CONFIG} producer property. Binary records are tagged with the {@link
+ * UserEventWireFormat#HEADER} header.
+ */
+public class UserEventSerializer extends ObjectMapperSerializer<UserEvent> {
+
+  private UserEventWireFormat wireFormat = UserEventWireFormat.JSON;
+
+  @Override
+  public void configure(Map<String, ?> configs, boolean isKey) {
+    super.configure(configs, isKey);
+    wireFormat = UserEventWireFormat.fromConfig(configs.get(UserEventWireFormat.CONFIG));
+  }
+
+  @Override
+  public byte[] serialize(String topic, Headers headers, UserEvent data) {
+    if (wireFormat == UserEventWireFormat.JSON || data == null) {
+      return serialize(topic, data);
+    }
+    headers.remove(UserEventWireFormat.HEADER);
+    headers.add(UserEventWireFormat.HEADER, wireFormat.headerValue());
+    return UserEventWireFormat.encode(data);
+  }
+}
@@ -0,0 +1,109 @@
+package com.meemaw.events.model.external.serialization;
+
+import com.meemaw.events.model.external.UserEvent;
+import com.meemaw.events.model.internal.AbstractBrowserEvent;
+import com.meemaw.events.model.internal.BinaryEventReader;
+import com.meemaw.events.model.internal.BinaryEventWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.UUID;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+
+/**
+ * Wire formats of {@link UserEvent} records. The format is announced in the {@link #HEADER}
+ * record header so JSON and binary records can coexist on the same topic; records without the
+ * header are JSON.
+ *
+ * <p>Binary layout (version 2): version byte, page/session/device ids as two big-endian longs
+ * each, organization id as a length prefixed UTF-8 string, a presence byte followed by the event
+ * sequence as a big-endian long if present, followed by the event as written by {@link
+ * BinaryEventWriter}. Version 1 records have no sequence and are still decoded.
+ */
+public enum UserEventWireFormat {
+  JSON,
+  BINARY;
+
+  public static final String HEADER = "insight-wire-format";
+  public static final String CONFIG = "wire.format";
+
+  private static final byte BINARY_VERSION = 2;
+  private static final byte BINARY_VERSION_WITHOUT_SEQUENCE = 1;
+  private static final int EXPECTED_RECORD_SIZE = 128;
+
+  private final byte[] headerValue =
+      name().toLowerCase(Locale.ROOT).getBytes(StandardCharsets.UTF_8);
+
+  public byte[] headerValue() {
+    return headerValue.clone();
+  }
+
+  public static UserEventWireFormat fromConfig(Object value) {
+    return value == null ? JSON : valueOf(value.toString().trim().toUpperCase(Locale.ROOT));
+  }
+
+  /**
+   * @param headers record headers
+   * @return wire format announced by the {@link #HEADER} header, JSON if there is none
+   * @throws SerializationException if the header announces an unknown wire format
+   */
+  public static UserEventWireFormat fromHeaders(Headers headers) {
+    Header header = headers == null ? null : headers.lastHeader(HEADER);
+    if (header == null) {
+      return JSON;
+    }
+    byte[] bytes = header.value() == null ? new byte[0] : header.value();
+    String value = new String(bytes, StandardCharsets.UTF_8);
+    for (UserEventWireFormat format : values()) {
+      if (format.name().equalsIgnoreCase(value)) {
+        return format;
+      }
+    }
+    throw new SerializationException(String.format("Unknown %s header: %s", HEADER, value));
+  }
+
+  public static byte[] encode(UserEvent<?> userEvent) {
+    BinaryEventWriter writer = new BinaryEventWriter(EXPECTED_RECORD_SIZE);
+    writer.writeByte(BINARY_VERSION);
+    writeUuid(writer, userEvent.getPageId());
+    writeUuid(writer, userEvent.getSessionId());
+    writeUuid(writer, userEvent.getDeviceId());
+    writer.writeRawString(userEvent.getOrganizationId());
+    Long sequence = userEvent.getSequence();
+    writer.writeByte(sequence == null ? 0 : 1);
+    if (sequence != null) {
+      writer.writeLong(sequence);
+    }
+    writer.writeEvent(userEvent.getEvent());
+    return writer.toByteArray();
+  }
+
+  public static UserEvent<AbstractBrowserEvent> decode(byte[] data) throws IOException {
+    BinaryEventReader reader = new BinaryEventReader(data);
+    byte version = reader.readByte();
+    if (version != BINARY_VERSION && version != BINARY_VERSION_WITHOUT_SEQUENCE) {
+      throw new IOException("Unsupported binary user event version " + version);
+    }
+    UUID pageId = readUuid(reader);
+    UUID sessionId = readUuid(reader);
+    UUID deviceId = readUuid(reader);
+    String organizationId = reader.readRawString();
+    Long sequence = null;
+    if (version == BINARY_VERSION && reader.readByte() != 0) {
+      sequence = reader.readLong();
+    }
+    return new UserEvent<>(
+        reader.readEvent(), pageId, sessionId, deviceId, organizationId, sequence);
+  }
+
+  private static void writeUuid(BinaryEventWriter writer, UUID value) {
+    writer.writeLong(value.getMostSignificantBits());
+    writer.writeLong(value.getLeastSignificantBits());
+  }
+
+  private static UUID readUuid(BinaryEventReader reader) throws IOException {
+    return new UUID(reader.readLong(), reader.readLong());
+  }
+}
@@ -1,18 +1,25 @@
 package com.meemaw.events.model.internal;
 
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility;
 import com.fasterxml.jackson.annotation.JsonIgnore;
-import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonSubTypes;
 import com.fasterxml.jackson.annotation.JsonSubTypes.Type;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
 import com.fasterxml.jackson.annotation.JsonTypeInfo.Id;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.meemaw.events.model.Recorded;
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
-import lombok.Getter;
 import lombok.ToString;
 
+/**
+ * Browser event in the compact {"e", "t", "a"} wire format. Arguments ("a") are read straight into
+ * typed, primitive fields of each event (see {@link BrowserEventDeserializer}) and only turned back
+ * into a list when the event is serialized.
+ */
 @ToString(callSuper = true)
 @JsonTypeInfo(use = Id.NAME, property = "e", defaultImpl = AbstractBrowserEvent.class)
 @JsonSubTypes({
@@ -26,13 +33,51 @@ import lombok.ToString;
   @Type(value = BrowserMouseUpEvent.class, name = BrowserEventTypeConstants.MOUSEUP),
   @Type(value = BrowserLoadEvent.class, name = BrowserEventTypeConstants.LOAD),
 })
-@JsonIgnoreProperties(ignoreUnknown = true)
+@JsonAutoDetect(
+    fieldVisibility = Visibility.NONE,
+    getterVisibility = Visibility.NONE,
+    isGetterVisibility = Visibility.NONE)
 public abstract class AbstractBrowserEvent extends Recorded {
 
-  @Getter
+  /**
+   * Arguments in the compact wire format. A new list is allocated on every call.
+   *
+   * @return list of event arguments
+   */
+  @ToString.Include(name = "args")
   @JsonProperty("a")
-  List<Object> args;
+  public abstract List<Object> getArgs();
 
   @JsonIgnore
   public abstract Map<String, Object> index();
+
+  /**
+   * Write the same fields as {@link #index()} directly into an open JSON object, without building
+   * an intermediate map.
+   *
+   * @param generator JsonGenerator positioned inside an object
+   * @throws IOException if fields can not be written
+   */
+  public abstract void writeIndex(JsonGenerator generator) throws IOException;
+
+  /**
+   * Read a single argument into the event.
+   *
+   * @param index int position of the argument in the "a" array
+   * @param reader ArgumentReader positioned at the argument value
+   * @throws IOException if argument can not be read
+   */
+  abstract void readArg(int index, ArgumentReader reader) throws IOException;
+
+  /**
+   * Write all arguments in the same order as {@link #getArgs()}, without boxing them.
+   *
+   * @param writer ArgumentWriter
+   * @throws IOException if arguments can not be written
+   */
+  abstract void writeArgs(ArgumentWriter writer) throws IOException;
+
+  void setTimestamp(int timestamp) {
+    this.timestamp = timestamp;
+  }
 }
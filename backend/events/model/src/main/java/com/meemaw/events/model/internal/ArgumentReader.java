@@ -0,0 +1,13 @@
+package com.meemaw.events.model.internal;
+
+import java.io.IOException;
+
+/** Source of typed event arguments, positioned at the argument being read. */
+interface ArgumentReader {
+
+  int readInt() throws IOException;
+
+  double readDouble() throws IOException;
+
+  String readString() throws IOException;
+}
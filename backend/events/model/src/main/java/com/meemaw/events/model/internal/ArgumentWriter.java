@@ -0,0 +1,13 @@
+package com.meemaw.events.model.internal;
+
+import java.io.IOException;
+
+/** Sink for typed event arguments, written in wire order. */
+interface ArgumentWriter {
+
+  void writeInt(int value) throws IOException;
+
+  void writeDouble(double value) throws IOException;
+
+  void writeString(String value) throws IOException;
+}
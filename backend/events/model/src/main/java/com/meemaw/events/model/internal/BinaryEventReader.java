@@ -0,0 +1,140 @@
+package com.meemaw.events.model.internal;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/** Reads browser events written by {@link BinaryEventWriter}. */
+public final class BinaryEventReader implements ArgumentReader {
+
+  private final byte[] buffer;
+  private int position;
+  private byte tag;
+  private boolean consumed;
+
+  public BinaryEventReader(byte[] buffer) {
+    this.buffer = buffer;
+  }
+
+  public AbstractBrowserEvent readEvent() throws IOException {
+    AbstractBrowserEvent event = BinaryEventTypes.create(readByte());
+    event.setTimestamp(readVarInt());
+    int index = 0;
+    for (tag = readByte(); tag != BinaryEventWriter.END; tag = readByte()) {
+      consumed = false;
+      event.readArg(index++, this);
+      if (!consumed) {
+        skipArgument();
+      }
+    }
+    return event;
+  }
+
+  @Override
+  public int readInt() throws IOException {
+    consumed = true;
+    switch (tag) {
+      case BinaryEventWriter.INT:
+        int value = readVarInt();
+        return (value >>> 1) ^ -(value & 1);
+      case BinaryEventWriter.DOUBLE:
+        return (int) Double.longBitsToDouble(readLong());
+      default:
+        skipArgument();
+        return 0;
+    }
+  }
+
+  @Override
+  public double readDouble() throws IOException {
+    consumed = true;
+    switch (tag) {
+      case BinaryEventWriter.DOUBLE:
+        return Double.longBitsToDouble(readLong());
+      case BinaryEventWriter.INT:
+        int value = readVarInt();
+        return (value >>> 1) ^ -(value & 1);
+      default:
+        skipArgument();
+        return 0;
+    }
+  }
+
+  @Override
+  public String readString() throws IOException {
+    consumed = true;
+    switch (tag) {
+      case BinaryEventWriter.STRING:
+        return readRawString();
+      case BinaryEventWriter.NULL:
+        return null;
+      default:
+        skipArgument();
+        return null;
+    }
+  }
+
+  public String readRawString() throws IOException {
+    int length = readVarInt() - 1;
+    if (length < 0) {
+      return null;
+    }
+    require(length);
+    String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+    position += length;
+    return value;
+  }
+
+  public byte readByte() throws IOException {
+    require(1);
+    return buffer[position++];
+  }
+
+  public long readLong() throws IOException {
+    require(Long.BYTES);
+    long value = 0;
+    for (int i = 0; i < Long.BYTES; i++) {
+      value = (value << 8) | (buffer[position++] & 0xFF);
+    }
+    return value;
+  }
+
+  public int readVarInt() throws IOException {
+    int value = 0;
+    for (int shift = 0; shift < 35; shift += 7) {
+      byte b = readByte();
+      value |= (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IOException("Malformed varint at position " + position);
+  }
+
+  private void skipArgument() throws IOException {
+    consumed = true;
+    switch (tag) {
+      case BinaryEventWriter.INT:
+        readVarInt();
+        break;
+      case BinaryEventWriter.DOUBLE:
+        require(Long.BYTES);
+        position += Long.BYTES;
+        break;
+      case BinaryEventWriter.STRING:
+        int length = readVarInt() - 1;
+        require(Math.max(length, 0));
+        position += Math.max(length, 0);
+        break;
+      case BinaryEventWriter.NULL:
+        break;
+      default:
+        throw new IOException("Unknown argument tag " + tag + " at position " + position);
+    }
+  }
+
+  private void require(int length) throws IOException {
+    if (position + length > buffer.length) {
+      throw new IOException("Unexpected end of event at position " + position);
+    }
+  }
+}
@@ -0,0 +1,59 @@
+package com.meemaw.events.model.internal;
+
+import java.io.IOException;
+
+/** Maps browser events to the single byte type used in the binary format. */
+final class BinaryEventTypes {
+
+  private BinaryEventTypes() {}
+
+  static byte typeOf(AbstractBrowserEvent event) {
+    Class<?> type = event.getClass();
+    // exact class match, ids mirror BrowserEventTypeConstants
+    if (type == BrowserNavigateEvent.class) {
+      return 0;
+    } else if (type == BrowserUnloadEvent.class) {
+      return 1;
+    } else if (type == BrowserResizeEvent.class) {
+      return 2;
+    } else if (type == BrowserPerformanceEvent.class) {
+      return 3;
+    } else if (type == BrowserClickEvent.class) {
+      return 4;
+    } else if (type == BrowserMouseMoveEvent.class) {
+      return 5;
+    } else if (type == BrowserMouseDownEvent.class) {
+      return 6;
+    } else if (type == BrowserMouseUpEvent.class) {
+      return 7;
+    } else if (type == BrowserLoadEvent.class) {
+      return 8;
+    }
+    throw new IllegalArgumentException("Unsupported browser event " + type.getName());
+  }
+
+  static AbstractBrowserEvent create(byte type) throws IOException {
+    switch (type) {
+      case 0:
+        return new BrowserNavigateEvent();
+      case 1:
+        return new BrowserUnloadEvent();
+      case 2:
+        return new BrowserResizeEvent();
+      case 3:
+        return new BrowserPerformanceEvent();
+      case 4:
+        return new BrowserClickEvent();
+      case 5:
+        return new BrowserMouseMoveEvent();
+      case 6:
+        return new BrowserMouseDownEvent();
+      case 7:
+        return new BrowserMouseUpEvent();
+      case 8:
+        return new BrowserLoadEvent();
+      default:
+        throw new IOException("Unknown browser event type " + type);
+    }
+  }
+}
@@ -0,0 +1,114 @@
+package com.meemaw.events.model.internal;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Compact binary encoding of browser events: the event type as a single byte, the timestamp as a
+ * varint and every argument as a tag byte followed by its value (zig-zag varint for ints, 8 bytes
+ * for doubles, varint length prefixed UTF-8 for strings). Arguments are terminated by {@link
+ * #END}.
+ */
+public final class BinaryEventWriter implements ArgumentWriter {
+
+  static final byte END = 0;
+  static final byte INT = 1;
+  static final byte DOUBLE = 2;
+  static final byte STRING = 3;
+  static final byte NULL = 4;
+
+  private byte[] buffer;
+  private int position;
+
+  public BinaryEventWriter(int initialCapacity) {
+    this.buffer = new byte[initialCapacity];
+  }
+
+  public void writeEvent(AbstractBrowserEvent event) {
+    writeByte(BinaryEventTypes.typeOf(event));
+    writeVarInt(event.getTimestamp());
+    try {
+      event.writeArgs(this);
+    } catch (IOException ex) {
+      // writing into a byte array never fails
+      throw new IllegalStateException(ex);
+    }
+    writeByte(END);
+  }
+
+  @Override
+  public void writeInt(int value) {
+    writeByte(INT);
+    writeVarInt((value << 1) ^ (value >> 31));
+  }
+
+  @Override
+  public void writeDouble(double value) {
+    writeByte(DOUBLE);
+    writeLong(Double.doubleToRawLongBits(value));
+  }
+
+  @Override
+  public void writeString(String value) {
+    if (value == null) {
+      writeByte(NULL);
+      return;
+    }
+    writeByte(STRING);
+    writeRawString(value);
+  }
+
+  /**
+   * Write a string without a tag; null is encoded as length 0, every other string as length + 1.
+   *
+   * @param value String
+   */
+  public void writeRawString(String value) {
+    if (value == null) {
+      writeVarInt(0);
+      return;
+    }
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    writeVarInt(bytes.length + 1);
+    ensureCapacity(bytes.length);
+    System.arraycopy(bytes, 0, buffer, position, bytes.length);
+    position += bytes.length;
+  }
+
+  public void writeByte(int value) {
+    ensureCapacity(1);
+    buffer[position++] = (byte) value;
+  }
+
+  public void writeLong(long value) {
+    ensureCapacity(Long.BYTES);
+    for (int shift = 56; shift >= 0; shift -= 8) {
+      buffer[position++] = (byte) (value >>> shift);
+    }
+  }
+
+  /**
+   * Write an unsigned varint (7 bits per byte, least significant group first).
+   *
+   * @param value int
+   */
+  public void writeVarInt(int value) {
+    ensureCapacity(5);
+    while ((value & ~0x7F) != 0) {
+      buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    buffer[position++] = (byte) value;
+  }
+
+  public byte[] toByteArray() {
+    return Arrays.copyOf(buffer, position);
+  }
+
+  private void ensureCapacity(int length) {
+    if (position + length > buffer.length) {
+      buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + length));
+    }
+  }
+}
@@ -1,51 +1,74 @@
 package com.meemaw.events.model.internal;
 
-import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import lombok.Getter;
 
+@JsonDeserialize(using = BrowserClickEvent.Deserializer.class)
 public class BrowserClickEvent extends AbstractBrowserEvent {
 
   private static final int NODE_INDEX_START = 2;
   private static final int ATTRIBUTES_INDEX_START = NODE_INDEX_START + 1;
 
-  @JsonIgnore
-  public int getClientX() {
-    return (int) args.get(0);
+  @Getter int clientX;
+  @Getter int clientY;
+  List<String> nodeWithAttributes = Collections.emptyList();
+
+  public List<String> getAttributes() {
+    int size = nodeWithAttributes.size();
+    if (size <= 1) {
+      return Collections.emptyList();
+    }
+    return nodeWithAttributes.subList(1, size);
   }
 
-  @JsonIgnore
-  public int getClientY() {
-    return (int) args.get(1);
+  public List<String> getNodeWithAttributes() {
+    return nodeWithAttributes;
   }
 
-  @JsonIgnore
-  public List<Object> getAttributes() {
-    int size = args.size();
-    if (size <= ATTRIBUTES_INDEX_START) {
-      return Collections.emptyList();
+  public Optional<String> getNode() {
+    if (nodeWithAttributes.isEmpty()) {
+      return Optional.empty();
     }
-    return args.subList(ATTRIBUTES_INDEX_START, size);
+    return Optional.of(nodeWithAttributes.get(0).substring(1));
   }
 
-  @JsonIgnore
-  public List<Object> getNodeWithAttributes() {
-    int size = args.size();
-    if (size <= NODE_INDEX_START) {
-      return Collections.emptyList();
+  @Override
+  public List<Object> getArgs() {
+    List<Object> args = new ArrayList<>(NODE_INDEX_START + nodeWithAttributes.size());
+    args.add(clientX);
+    args.add(clientY);
+    args.addAll(nodeWithAttributes);
+    return args;
+  }
+
+  @Override
+  void writeArgs(ArgumentWriter writer) throws IOException {
+    writer.writeInt(clientX);
+    writer.writeInt(clientY);
+    for (String value : nodeWithAttributes) {
+      writer.writeString(value);
     }
-    return args.subList(NODE_INDEX_START, size);
   }
 
-  @JsonIgnore
-  public Optional<String> getNode() {
-    if (args.size() <= NODE_INDEX_START) {
-      return Optional.empty();
+  @Override
+  void readArg(int index, ArgumentReader reader) throws IOException {
+    if (index == 0) {
+      clientX = reader.readInt();
+    } else if (index == 1) {
+      clientY = reader.readInt();
+    } else {
+      if (index == NODE_INDEX_START) {
+        nodeWithAttributes = new ArrayList<>(ATTRIBUTES_INDEX_START);
+      }
+      nodeWithAttributes.add(reader.readString());
     }
-    String node = (String) args.get(NODE_INDEX_START);
-    return Optional.of(node.substring(1));
   }
 
   @Override
@@ -56,8 +79,27 @@ public class BrowserClickEvent extends AbstractBrowserEvent {
         "timestamp",
         timestamp,
         "clientX",
-        getClientX(),
+        clientX,
         "clientY",
-        getClientY());
+        clientY);
+  }
+
+  @Override
+  public void writeIndex(JsonGenerator generator) throws IOException {
+    writeIndex(generator, BrowserEventTypeConstants.CLICK);
+  }
+
+  void writeIndex(JsonGenerator generator, String type) throws IOException {
+    generator.writeStringField("type", type);
+    generator.writeNumberField("timestamp", timestamp);
+    generator.writeNumberField("clientX", clientX);
+    generator.writeNumberField("clientY", clientY);
+  }
+
+  static final class Deserializer extends BrowserEventDeserializer<BrowserClickEvent> {
+
+    Deserializer() {
+      super(BrowserClickEvent.class, BrowserClickEvent::new);
+    }
   }
 }
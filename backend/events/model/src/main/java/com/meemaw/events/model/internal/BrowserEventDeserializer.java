@@ -0,0 +1,85 @@
+package com.meemaw.events.model.internal;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import java.io.IOException;
+import java.util.function.Supplier;
+
+/**
+ * Streams the compact {"t", "a"} event representation straight into typed event fields, without
+ * materializing "a" as a list of boxed values. Unknown fields are skipped, a non-numeric "t" is
+ * rejected.
+ *
+ * @param <T> browser event type
+ */
+class BrowserEventDeserializer<T extends AbstractBrowserEvent> extends StdDeserializer<T> {
+
+  private static final String TIMESTAMP = "t";
+  private static final String ARGS = "a";
+
+  private final transient Supplier<T> factory;
+
+  BrowserEventDeserializer(Class<T> type, Supplier<T> factory) {
+    super(type);
+    this.factory = factory;
+  }
+
+  @Override
+  public T deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+    T event = factory.get();
+    JsonToken token = parser.currentToken();
+    if (token == JsonToken.START_OBJECT) {
+      token = parser.nextToken();
+    }
+
+    for (; token == JsonToken.FIELD_NAME; token = parser.nextToken()) {
+      String field = parser.getCurrentName();
+      token = parser.nextToken();
+      if (TIMESTAMP.equals(field)) {
+        if (!token.isNumeric()) {
+          // a structured value would be walked as if its fields were the event's own
+          return context.reportInputMismatch(
+              int.class, "Expected number for browser event \"%s\", got %s", TIMESTAMP, token);
+        }
+        event.setTimestamp(parser.getValueAsInt());
+      } else if (ARGS.equals(field) && token == JsonToken.START_ARRAY) {
+        ArgumentReader reader = new JsonArgumentReader(parser);
+        int index = 0;
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+          event.readArg(index++, reader);
+          parser.skipChildren();
+        }
+      } else {
+        parser.skipChildren();
+      }
+    }
+
+    return event;
+  }
+
+  private static final class JsonArgumentReader implements ArgumentReader {
+
+    private final JsonParser parser;
+
+    private JsonArgumentReader(JsonParser parser) {
+      this.parser = parser;
+    }
+
+    @Override
+    public int readInt() throws IOException {
+      return parser.getValueAsInt();
+    }
+
+    @Override
+    public double readDouble() throws IOException {
+      return parser.getValueAsDouble();
+    }
+
+    @Override
+    public String readString() throws IOException {
+      return parser.getValueAsString();
+    }
+  }
+}
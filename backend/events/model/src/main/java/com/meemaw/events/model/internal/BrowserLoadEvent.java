@@ -1,14 +1,28 @@
 package com.meemaw.events.model.internal;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import java.io.IOException;
 import java.util.Map;
-import lombok.Builder;
 
-@Builder
+@JsonDeserialize(using = BrowserLoadEvent.Deserializer.class)
 public class BrowserLoadEvent extends BrowserUnloadEvent {
 
   @Override
   public Map<String, Object> index() {
     return Map.of(
-        "type", BrowserEventTypeConstants.LOAD, "timestamp", timestamp, "location", getLocation());
+        "type", BrowserEventTypeConstants.LOAD, "timestamp", timestamp, "location", location);
+  }
+
+  @Override
+  public void writeIndex(JsonGenerator generator) throws IOException {
+    writeIndex(generator, BrowserEventTypeConstants.LOAD);
+  }
+
+  static final class Deserializer extends BrowserEventDeserializer<BrowserLoadEvent> {
+
+    Deserializer() {
+      super(BrowserLoadEvent.class, BrowserLoadEvent::new);
+    }
   }
 }
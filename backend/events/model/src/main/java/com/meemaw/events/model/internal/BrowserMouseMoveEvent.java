@@ -1,9 +1,24 @@
 package com.meemaw.events.model.internal;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import java.io.IOException;
 import java.util.Map;
 
+@JsonDeserialize(using = BrowserMouseMoveEvent.Deserializer.class)
 public class BrowserMouseMoveEvent extends BrowserClickEvent {
 
+  /**
+   * Mouse down/up extend mouse move, but carry user intent: only plain mouse moves may be
+   * downsampled or dropped.
+   *
+   * @param event AbstractBrowserEvent
+   * @return true if event is a plain mouse move
+   */
+  public static boolean isMouseMove(AbstractBrowserEvent event) {
+    return event.getClass() == BrowserMouseMoveEvent.class;
+  }
+
   @Override
   public Map<String, Object> index() {
     return Map.of(
@@ -12,8 +27,20 @@ public class BrowserMouseMoveEvent extends BrowserClickEvent {
         "timestamp",
         timestamp,
         "clientX",
-        getClientX(),
+        clientX,
         "clientY",
-        getClientY());
+        clientY);
+  }
+
+  @Override
+  public void writeIndex(JsonGenerator generator) throws IOException {
+    writeIndex(generator, BrowserEventTypeConstants.MOUSEMOVE);
+  }
+
+  static final class Deserializer extends BrowserEventDeserializer<BrowserMouseMoveEvent> {
+
+    Deserializer() {
+      super(BrowserMouseMoveEvent.class, BrowserMouseMoveEvent::new);
+    }
   }
 }
@@ -1,7 +1,11 @@
 package com.meemaw.events.model.internal;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import java.io.IOException;
 import java.util.Map;
 
+@JsonDeserialize(using = BrowserMouseUpEvent.Deserializer.class)
 public class BrowserMouseUpEvent extends BrowserMouseMoveEvent {
 
   @Override
@@ -12,8 +16,20 @@ public class BrowserMouseUpEvent extends BrowserMouseMoveEvent {
         "timestamp",
         timestamp,
         "clientX",
-        getClientX(),
+        clientX,
         "clientY",
-        getClientY());
+        clientY);
+  }
+
+  @Override
+  public void writeIndex(JsonGenerator generator) throws IOException {
+    writeIndex(generator, BrowserEventTypeConstants.MOUSEUP);
+  }
+
+  static final class Deserializer extends BrowserEventDeserializer<BrowserMouseUpEvent> {
+
+    Deserializer() {
+      super(BrowserMouseUpEvent.class, BrowserMouseUpEvent::new);
+    }
   }
 }
@@ -1,15 +1,37 @@
 package com.meemaw.events.model.internal;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
+import lombok.Getter;
 
+@JsonDeserialize(using = BrowserNavigateEvent.Deserializer.class)
 public class BrowserNavigateEvent extends AbstractBrowserEvent {
 
-  public String getLocation() {
-    return (String) args.get(0);
+  @Getter String location;
+  @Getter String title;
+
+  @Override
+  public List<Object> getArgs() {
+    return Arrays.asList(location, title);
+  }
+
+  @Override
+  void writeArgs(ArgumentWriter writer) throws IOException {
+    writer.writeString(location);
+    writer.writeString(title);
   }
 
-  public String getTitle() {
-    return (String) args.get(1);
+  @Override
+  void readArg(int index, ArgumentReader reader) throws IOException {
+    if (index == 0) {
+      location = reader.readString();
+    } else if (index == 1) {
+      title = reader.readString();
+    }
   }
 
   @Override
@@ -20,8 +42,23 @@ public class BrowserNavigateEvent extends AbstractBrowserEvent {
         "timestamp",
         timestamp,
         "location",
-        getLocation(),
+        location,
         "title",
-        getTitle());
+        title);
+  }
+
+  @Override
+  public void writeIndex(JsonGenerator generator) throws IOException {
+    generator.writeStringField("type", BrowserEventTypeConstants.NAVIGATE);
+    generator.writeNumberField("timestamp", timestamp);
+    generator.writeStringField("location", location);
+    generator.writeStringField("title", title);
+  }
+
+  static final class Deserializer extends BrowserEventDeserializer<BrowserNavigateEvent> {
+
+    Deserializer() {
+      super(BrowserNavigateEvent.class, BrowserNavigateEvent::new);
+    }
   }
 }
@@ -1,32 +1,72 @@
 package com.meemaw.events.model.internal;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import lombok.Getter;
 
+@JsonDeserialize(using = BrowserPerformanceEvent.Deserializer.class)
 public class BrowserPerformanceEvent extends AbstractBrowserEvent {
 
-  public String getName() {
-    return (String) args.get(0);
-  }
+  /** Known PerformanceEntry.entryType values; reused instead of allocating a String per event. */
+  private static final Map<String, String> ENTRY_TYPES =
+      Stream.of(
+              "element",
+              "event",
+              "first-input",
+              "frame",
+              "largest-contentful-paint",
+              "layout-shift",
+              "longtask",
+              "mark",
+              "measure",
+              "navigation",
+              "paint",
+              "resource")
+          .collect(Collectors.toUnmodifiableMap(Function.identity(), Function.identity()));
+
+  @Getter String name;
+  @Getter String entryType;
+  @Getter double startTime;
+  @Getter double duration;
 
-  public String getEntryType() {
-    return (String) args.get(1);
+  @Override
+  public List<Object> getArgs() {
+    return Arrays.asList(name, entryType, startTime, duration);
   }
 
-  public double getStartTime() {
-    Object startTime = args.get(2);
-    if (startTime instanceof Integer) {
-      return (int) startTime;
-    } else {
-      return (Double) startTime;
-    }
+  @Override
+  void writeArgs(ArgumentWriter writer) throws IOException {
+    writer.writeString(name);
+    writer.writeString(entryType);
+    writer.writeDouble(startTime);
+    writer.writeDouble(duration);
   }
 
-  public double getDuration() {
-    Object duration = args.get(3);
-    if (duration instanceof Integer) {
-      return (int) duration;
-    } else {
-      return (Double) duration;
+  @Override
+  void readArg(int index, ArgumentReader reader) throws IOException {
+    switch (index) {
+      case 0:
+        name = reader.readString();
+        break;
+      case 1:
+        String value = reader.readString();
+        entryType = value == null ? null : ENTRY_TYPES.getOrDefault(value, value);
+        break;
+      case 2:
+        startTime = reader.readDouble();
+        break;
+      case 3:
+        duration = reader.readDouble();
+        break;
+      default:
+        break;
     }
   }
 
@@ -38,12 +78,29 @@ public class BrowserPerformanceEvent extends AbstractBrowserEvent {
         "timestamp",
         timestamp,
         "name",
-        getName(),
+        name,
         "entryType",
-        getEntryType(),
+        entryType,
         "startTime",
-        getStartTime(),
+        startTime,
         "duration",
-        getDuration());
+        duration);
+  }
+
+  @Override
+  public void writeIndex(JsonGenerator generator) throws IOException {
+    generator.writeStringField("type", BrowserEventTypeConstants.PERFORMANCE);
+    generator.writeNumberField("timestamp", timestamp);
+    generator.writeStringField("name", name);
+    generator.writeStringField("entryType", entryType);
+    generator.writeNumberField("startTime", startTime);
+    generator.writeNumberField("duration", duration);
+  }
+
+  static final class Deserializer extends BrowserEventDeserializer<BrowserPerformanceEvent> {
+
+    Deserializer() {
+      super(BrowserPerformanceEvent.class, BrowserPerformanceEvent::new);
+    }
   }
 }
@@ -1,15 +1,37 @@
 package com.meemaw.events.model.internal;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
+import lombok.Getter;
 
+@JsonDeserialize(using = BrowserResizeEvent.Deserializer.class)
 public class BrowserResizeEvent extends AbstractBrowserEvent {
 
-  public int getInnerWidth() {
-    return (int) args.get(0);
+  @Getter int innerWidth;
+  @Getter int innerHeight;
+
+  @Override
+  public List<Object> getArgs() {
+    return Arrays.asList(innerWidth, innerHeight);
+  }
+
+  @Override
+  void writeArgs(ArgumentWriter writer) throws IOException {
+    writer.writeInt(innerWidth);
+    writer.writeInt(innerHeight);
   }
 
-  public int getInnerHeight() {
-    return (int) args.get(1);
+  @Override
+  void readArg(int index, ArgumentReader reader) throws IOException {
+    if (index == 0) {
+      innerWidth = reader.readInt();
+    } else if (index == 1) {
+      innerHeight = reader.readInt();
+    }
   }
 
   @Override
@@ -20,8 +42,23 @@ public class BrowserResizeEvent extends AbstractBrowserEvent {
         "timestamp",
         timestamp,
         "innerWidth",
-        getInnerWidth(),
+        innerWidth,
         "innerHeight",
-        getInnerHeight());
+        innerHeight);
+  }
+
+  @Override
+  public void writeIndex(JsonGenerator generator) throws IOException {
+    generator.writeStringField("type", BrowserEventTypeConstants.RESIZE);
+    generator.writeNumberField("timestamp", timestamp);
+    generator.writeNumberField("innerWidth", innerWidth);
+    generator.writeNumberField("innerHeight", innerHeight);
+  }
+
+  static final class Deserializer extends BrowserEventDeserializer<BrowserResizeEvent> {
+
+    Deserializer() {
+      super(BrowserResizeEvent.class, BrowserResizeEvent::new);
+    }
   }
 }
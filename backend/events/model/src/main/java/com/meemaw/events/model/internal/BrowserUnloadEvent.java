@@ -1,13 +1,33 @@
 package com.meemaw.events.model.internal;
 
-import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import lombok.Getter;
 
+@JsonDeserialize(using = BrowserUnloadEvent.Deserializer.class)
 public class BrowserUnloadEvent extends AbstractBrowserEvent {
 
-  @JsonIgnore
-  public String getLocation() {
-    return (String) args.get(0);
+  @Getter String location;
+
+  @Override
+  public List<Object> getArgs() {
+    return Collections.singletonList(location);
+  }
+
+  @Override
+  void writeArgs(ArgumentWriter writer) throws IOException {
+    writer.writeString(location);
+  }
+
+  @Override
+  void readArg(int index, ArgumentReader reader) throws IOException {
+    if (index == 0) {
+      location = reader.readString();
+    }
   }
 
   @Override
@@ -18,6 +38,24 @@ public class BrowserUnloadEvent extends AbstractBrowserEvent {
         "timestamp",
         timestamp,
         "location",
-        getLocation());
+        location);
+  }
+
+  @Override
+  public void writeIndex(JsonGenerator generator) throws IOException {
+    writeIndex(generator, BrowserEventTypeConstants.UNLOAD);
+  }
+
+  void writeIndex(JsonGenerator generator, String type) throws IOException {
+    generator.writeStringField("type", type);
+    generator.writeNumberField("timestamp", timestamp);
+    generator.writeStringField("location", location);
+  }
+
+  static final class Deserializer extends BrowserEventDeserializer<BrowserUnloadEvent> {
+
+    Deserializer() {
+      super(BrowserUnloadEvent.class, BrowserUnloadEvent::new);
+    }
   }
 }
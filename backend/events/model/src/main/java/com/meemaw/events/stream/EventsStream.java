@@ -4,6 +4,7 @@ public final class EventsStream {
 
   public static final String ALL = "events";
   public static final String UNLOAD = "events-unload";
+  public static final String BATCH = "events-batch";
 
   private EventsStream() {}
 }
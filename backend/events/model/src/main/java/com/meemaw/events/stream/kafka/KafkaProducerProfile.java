@@ -0,0 +1,55 @@
+package com.meemaw.events.stream.kafka;
+
+import java.util.Optional;
+import java.util.Properties;
+import java.util.function.Function;
+import org.apache.kafka.clients.producer.ProducerConfig;
+
+/**
+ * High throughput producer profile shared by all events producers: large, lingering, compressed
+ * batches with idempotent, fully acknowledged writes. Every setting can be overridden through the
+ * environment. Quarkus services expose the profile to smallrye-kafka through a config source.
+ */
+public final class KafkaProducerProfile {
+
+  public static final String BATCH_SIZE = "KAFKA_PRODUCER_BATCH_SIZE";
+  public static final String LINGER_MS = "KAFKA_PRODUCER_LINGER_MS";
+  public static final String COMPRESSION_TYPE = "KAFKA_PRODUCER_COMPRESSION_TYPE";
+  public static final String ACKS = "KAFKA_PRODUCER_ACKS";
+  public static final String ENABLE_IDEMPOTENCE = "KAFKA_PRODUCER_ENABLE_IDEMPOTENCE";
+
+  public static final String DEFAULT_BATCH_SIZE = "131072";
+  public static final String DEFAULT_LINGER_MS = "20";
+  public static final String DEFAULT_COMPRESSION_TYPE = "lz4";
+  public static final String DEFAULT_ACKS = "all";
+  public static final String DEFAULT_ENABLE_IDEMPOTENCE = "true";
+
+  private KafkaProducerProfile() {}
+
+  public static Properties highThroughput() {
+    return highThroughput(System::getenv);
+  }
+
+  /**
+   * @param environment lookup of environment variables
+   * @return producer properties of the high throughput profile
+   */
+  public static Properties highThroughput(Function<String, String> environment) {
+    Properties properties = new Properties();
+    properties.put(
+        ProducerConfig.BATCH_SIZE_CONFIG, get(environment, BATCH_SIZE, DEFAULT_BATCH_SIZE));
+    properties.put(ProducerConfig.LINGER_MS_CONFIG, get(environment, LINGER_MS, DEFAULT_LINGER_MS));
+    properties.put(
+        ProducerConfig.COMPRESSION_TYPE_CONFIG,
+        get(environment, COMPRESSION_TYPE, DEFAULT_COMPRESSION_TYPE));
+    properties.put(ProducerConfig.ACKS_CONFIG, get(environment, ACKS, DEFAULT_ACKS));
+    properties.put(
+        ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG,
+        get(environment, ENABLE_IDEMPOTENCE, DEFAULT_ENABLE_IDEMPOTENCE));
+    return properties;
+  }
+
+  private static String get(Function<String, String> environment, String name, String fallback) {
+    return Optional.ofNullable(environment.apply(name)).orElse(fallback);
+  }
+}
@@ -1,10 +1,23 @@
 package com.meemaw.events.stream.kafka;
 
 import com.meemaw.events.stream.processor.BatchProcessor;
+import com.meemaw.events.stream.processor.BatchProcessorAcknowledgement;
+import com.meemaw.events.stream.processor.CircuitBreaker;
+import com.meemaw.events.stream.processor.ProcessorUnavailableException;
+import java.time.Duration;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
@@ -17,12 +30,36 @@ public class KafkaSourcedBatchProcessor<K, V> {
 
   private final RetryQueueStandaloneKafkaConsumer<K, V> consumer;
   private final BatchProcessor<V> processor;
+  private final PartitionOffsetTracker offsetTracker;
+  private final long delayMillis;
+  private final Map<TopicPartition, Long> pausedUntil = new HashMap<>();
+  private final Queue<HandOver<V>> handOvers = new ConcurrentLinkedQueue<>();
+  private final AtomicBoolean handOverFailed = new AtomicBoolean();
+  private final CircuitBreaker circuitBreaker = new CircuitBreaker();
+  private boolean pausedByCircuitBreaker;
+  private long numFailedHandOverRewinds;
 
   public KafkaSourcedBatchProcessor(
       RetryQueueStandaloneKafkaConsumer<K, V> consumer, BatchProcessor<V> processor) {
+    this(consumer, processor, Duration.ZERO);
+  }
+
+  /**
+   * @param consumer RetryQueueStandaloneKafkaConsumer
+   * @param processor BatchProcessor
+   * @param delay minimum age of a record before it is processed, used by retry tiers. Partitions
+   *     whose next record is too young are paused until it is due instead of sleeping, so the poll
+   *     loop keeps serving the other partitions and the consumer group heartbeat.
+   */
+  public KafkaSourcedBatchProcessor(
+      RetryQueueStandaloneKafkaConsumer<K, V> consumer,
+      BatchProcessor<V> processor,
+      Duration delay) {
     this.consumer = Objects.requireNonNull(consumer);
     this.processor = Objects.requireNonNull(processor);
     this.processor.onFailure(this::handleFailures);
+    this.offsetTracker = new PartitionOffsetTracker();
+    this.delayMillis = Objects.requireNonNull(delay).toMillis();
   }
 
   public void start() {
@@ -42,22 +79,49 @@ public class KafkaSourcedBatchProcessor<K, V> {
 
   private void startPolling() {
     while (true) {
+      if (circuitBreaker.isOpen() || pausedByCircuitBreaker) {
+        checkCircuitBreaker();
+      }
+      if (!pausedByCircuitBreaker) {
+        resumeDuePartitions();
+      }
+      sendHandOvers();
+      if (handOverFailed.getAndSet(false)) {
+        rewindFailedHandOvers();
+      }
       ConsumerRecords<K, V> records = consumer.poll();
       int numRecords = records.count();
       if (numRecords == 0) {
         log.debug("No records received during this poll");
+        commitAcknowledged();
         continue;
       }
 
       Collection<V> batchingFailures = new LinkedList<>();
+      Collection<BatchProcessorAcknowledgement> batchingFailureAcknowledgements =
+          new LinkedList<>();
       Set<TopicPartition> partitions = records.partitions();
       boolean isFirstRecordInPool = true;
       long poolStartMillis = 0L;
+      long pollMillis = System.currentTimeMillis();
+      Set<TopicPartition> delayed = new HashSet<>();
 
       for (ConsumerRecord<K, V> record : records) {
         int partition = record.partition();
         long offset = record.offset();
         V value = record.value();
+        TopicPartition topicPartition = new TopicPartition(record.topic(), partition);
+
+        if (delayed.contains(topicPartition)) {
+          // rest of the partition is redelivered once it is resumed
+          continue;
+        }
+        if (delayMillis > 0 && record.timestamp() + delayMillis > pollMillis) {
+          pauseUntil(topicPartition, offset, record.timestamp() + delayMillis);
+          delayed.add(topicPartition);
+          continue;
+        }
+
         log.debug(
             "received record: partition: {}, offset: {}, value: {}", partition, offset, value);
 
@@ -67,12 +131,16 @@ public class KafkaSourcedBatchProcessor<K, V> {
           poolStartMillis = System.currentTimeMillis();
         }
 
+        offsetTracker.track(topicPartition, offset);
         try {
-          processor.batch(value);
+          processor.batch(value, () -> offsetTracker.acknowledge(topicPartition, offset));
           log.debug("Successfully batched record {}", record);
         } catch (Exception ex) {
           log.error("Failed to batch record: {}", record, ex);
           batchingFailures.add(value);
+          // acknowledged once handed over to the dead letter queue below
+          batchingFailureAcknowledgements.add(
+              () -> offsetTracker.acknowledge(topicPartition, offset));
         }
       }
 
@@ -81,29 +149,188 @@ public class KafkaSourcedBatchProcessor<K, V> {
       long timeToProcessLoopMillis = endOfPollLoopMillis - poolStartMillis;
 
       log.info(
-          "Last poll snapshot: numRecords: {}, numBatchingFailures: {}, timeToProcessLoop: {}ms, partitions: {}",
+          "Last poll snapshot: numRecords: {}, numBatchingFailures: {}, timeToProcessLoop: {}ms, partitions: {}, inFlight: {}, paused: {}",
           numRecords,
           numBatchingFailures,
           timeToProcessLoopMillis,
-          partitions);
+          partitions,
+          offsetTracker.inFlight(),
+          pausedUntil.keySet());
 
       if (numBatchingFailures > 0) {
-        log.info("Sending {} records to dead letter queue", numBatchingFailures);
-        consumer.sendToDeadLetterQueue(batchingFailures);
+        consumer
+            .sendToDeadLetterQueue(batchingFailures)
+            .whenComplete(
+                (sent, ex) -> {
+                  if (ex == null) {
+                    batchingFailureAcknowledgements.forEach(
+                        BatchProcessorAcknowledgement::acknowledge);
+                  } else {
+                    log.error(
+                        "Failed to send {} records to dead letter queue", numBatchingFailures, ex);
+                    handOverFailed.set(true);
+                  }
+                });
       }
 
-      consumer.commit(partitions);
+      commitAcknowledged();
+    }
+  }
+
+  /**
+   * Rewind the partition to the record that is not due yet and stop fetching it until then.
+   *
+   * @param topicPartition TopicPartition
+   * @param offset offset of the first record that is not due
+   * @param dueMillis time the record becomes due
+   */
+  private void pauseUntil(TopicPartition topicPartition, long offset, long dueMillis) {
+    log.debug("Pausing partition {} at offset {} until {}", topicPartition, offset, dueMillis);
+    consumer.seek(topicPartition, offset);
+    consumer.pause(Collections.singletonList(topicPartition));
+    pausedUntil.put(topicPartition, dueMillis);
+  }
+
+  /**
+   * While the circuit breaker is open all assigned partitions stay paused: polling continues (so
+   * the consumer keeps its partitions) but no records are fetched, and only the lag grows. Once the
+   * processor is available again every partition is rewound to its first unacknowledged record.
+   * Retry tier partitions that became due in the meantime are resumed afterwards, the ones that are
+   * still not due stay paused.
+   */
+  private void checkCircuitBreaker() {
+    if (!pausedByCircuitBreaker) {
+      log.warn("Processor unavailable, pausing partitions {}", consumer.assignment());
+      pausedByCircuitBreaker = true;
+    }
+    // also covers partitions assigned by a rebalance in the meantime
+    consumer.pause(consumer.assignment());
+
+    long now = System.currentTimeMillis();
+    if (circuitBreaker.shouldProbe(now)) {
+      circuitBreaker.onProbe(processor.isAvailable(), System.currentTimeMillis());
+    }
+    if (circuitBreaker.isOpen()) {
+      return;
+    }
+
+    Set<TopicPartition> assignment = consumer.assignment();
+    offsetTracker.retain(assignment);
+    offsetTracker.rewind().forEach(consumer::seek);
+    pausedUntil.keySet().retainAll(assignment);
+    Set<TopicPartition> resumed = new HashSet<>(assignment);
+    resumed.removeAll(pausedUntil.keySet());
+    log.info("Processor available again, resuming partitions {}", resumed);
+    consumer.resume(resumed);
+    pausedByCircuitBreaker = false;
+  }
+
+  /**
+   * Records whose hand-over failed stay unacknowledged, but they are never polled again: their
+   * offsets would pin the committed offsets until the next rebalance. Rewind every partition to its
+   * first unacknowledged record instead, so they are consumed and handed over again. Records that
+   * are still in flight are consumed again too, just like after a rebalance.
+   */
+  private void rewindFailedHandOvers() {
+    numFailedHandOverRewinds++;
+    offsetTracker.retain(consumer.assignment());
+    Map<TopicPartition, Long> positions = offsetTracker.rewind();
+    log.warn(
+        "Hand-over failed, rewinding partitions to {}, failed hand-over rewinds: {}",
+        positions,
+        numFailedHandOverRewinds);
+    positions.forEach(consumer::seek);
+  }
+
+  private void resumeDuePartitions() {
+    if (pausedUntil.isEmpty()) {
+      return;
+    }
+    // pause state of revoked partitions is dropped by the consumer
+    pausedUntil.keySet().retainAll(consumer.assignment());
+    long now = System.currentTimeMillis();
+    List<TopicPartition> due =
+        pausedUntil.entrySet().stream()
+            .filter(entry -> entry.getValue() <= now)
+            .map(Map.Entry::getKey)
+            .collect(Collectors.toList());
+    if (!due.isEmpty()) {
+      log.debug("Resuming partitions {}", due);
+      consumer.resume(due);
+      due.forEach(pausedUntil::remove);
     }
   }
 
+  /**
+   * Commit offsets up to the first record that was not acknowledged by the processor yet, so a
+   * crash before the processor flushed can only cause records to be processed again, never lost.
+   */
+  private void commitAcknowledged() {
+    offsetTracker.retain(consumer.assignment());
+    consumer.commit(offsetTracker.committable());
+  }
+
   public void shutdown() {
     log.info("Shutting down ...");
     processor.shutdown();
     consumer.shutdown();
   }
 
-  public void handleFailures(Collection<V> failures, Throwable cause) {
-    log.info("Handling {} failures", failures.size(), cause);
-    consumer.sendToRetryQueue(failures);
+  /**
+   * Send failures queued by {@link #handleFailures} to the retry queue. They are acknowledged from
+   * the producer callback once all of them were written, so their offsets get committed only after
+   * they are safe.
+   */
+  private void sendHandOvers() {
+    HandOver<V> handOver;
+    while ((handOver = handOvers.poll()) != null) {
+      Collection<V> failures = handOver.failures;
+      BatchProcessorAcknowledgement acknowledgement = handOver.acknowledgement;
+      consumer
+          .sendToRetryQueue(failures)
+          .whenComplete(
+              (sent, ex) -> {
+                if (ex == null) {
+                  acknowledgement.acknowledge();
+                } else {
+                  log.error("Failed to send {} records to retry queue", failures.size(), ex);
+                  handOverFailed.set(true);
+                }
+              });
+    }
+  }
+
+  /**
+   * Queue failures for the retry queue. Invoked from the processor's I/O threads, so the failures
+   * are only queued here and sent from the poll loop without blocking either of them.
+   *
+   * <p>Failures caused by the processor being unavailable are not retried: they open the circuit
+   * breaker and stay unacknowledged, so they are consumed again from the source topic once the
+   * processor recovers, instead of multiplying retry topic traffic during an outage.
+   *
+   * @param failures values that could not be processed
+   * @param cause of the failure
+   * @param acknowledgement invoked once the failures were written to the retry queue
+   */
+  public void handleFailures(
+      Collection<V> failures, Throwable cause, BatchProcessorAcknowledgement acknowledgement) {
+    if (cause instanceof ProcessorUnavailableException) {
+      circuitBreaker.trip(cause, System.currentTimeMillis());
+      log.debug("Processor unavailable, leaving {} failures unacknowledged", failures.size());
+      return;
+    }
+    log.info("Handling {} failures: {}", failures.size(), String.valueOf(cause));
+    handOvers.add(new HandOver<>(failures, acknowledgement));
+  }
+
+  private static final class HandOver<V> {
+
+    private final Collection<V> failures;
+    private final BatchProcessorAcknowledgement acknowledgement;
+
+    private HandOver(Collection<V> failures, BatchProcessorAcknowledgement acknowledgement) {
+      this.failures = failures;
+      this.acknowledgement = acknowledgement;
+    }
   }
 }
@@ -0,0 +1,75 @@
+package com.meemaw.events.stream.kafka;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Runs several {@link KafkaSourcedBatchProcessor}s side by side, each with its own consumer and
+ * processor on a dedicated thread. All workers join the same consumer group so Kafka spreads the
+ * partitions between them: every partition is owned by exactly one worker at a time, which keeps
+ * per-partition ordering and offset commits as safe as with a single worker.
+ *
+ * @param <K> record key type
+ * @param <V> record value type
+ */
+@Slf4j
+public class KafkaSourcedBatchProcessorPool<K, V> {
+
+  private final List<KafkaSourcedBatchProcessor<K, V>> workers;
+  private final ExecutorService executor;
+
+  /**
+   * @param name String used as thread name prefix
+   * @param numWorkers int number of workers (consumers) to run
+   * @param workerFactory supplier creating a new worker with its own consumer and processor
+   */
+  public KafkaSourcedBatchProcessorPool(
+      String name, int numWorkers, Supplier<KafkaSourcedBatchProcessor<K, V>> workerFactory) {
+    if (numWorkers < 1) {
+      throw new IllegalArgumentException("numWorkers must be positive, got " + numWorkers);
+    }
+    Objects.requireNonNull(workerFactory);
+    List<KafkaSourcedBatchProcessor<K, V>> created = new ArrayList<>(numWorkers);
+    for (int i = 0; i < numWorkers; i++) {
+      created.add(workerFactory.get());
+    }
+    this.workers = Collections.unmodifiableList(created);
+
+    AtomicInteger threadCounter = new AtomicInteger();
+    this.executor =
+        Executors.newFixedThreadPool(
+            numWorkers,
+            runnable -> new Thread(runnable, name + "-" + threadCounter.getAndIncrement()));
+  }
+
+  /** Start all workers and block until every one of them stopped. */
+  public void start() {
+    log.info("Starting {} workers ...", workers.size());
+    CompletableFuture<?>[] running =
+        workers.stream()
+            .map(worker -> CompletableFuture.runAsync(worker::start, executor))
+            .toArray(CompletableFuture[]::new);
+    try {
+      CompletableFuture.allOf(running).join();
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  public void shutdown() {
+    log.info("Shutting down {} workers ...", workers.size());
+    workers.forEach(KafkaSourcedBatchProcessor::shutdown);
+  }
+
+  public int size() {
+    return workers.size();
+  }
+}
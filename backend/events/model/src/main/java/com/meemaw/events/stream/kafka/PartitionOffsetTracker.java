@@ -0,0 +1,120 @@
+package com.meemaw.events.stream.kafka;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+
+/**
+ * Tracks records that were polled but not yet acknowledged by the processor. The committable
+ * offset of a partition is the lowest offset still in flight (or the one after the last polled
+ * record once everything was acknowledged), so offsets never move past a record that could still
+ * be lost.
+ *
+ * <p>Records are tracked from the poll thread and acknowledged from processor threads.
+ */
+public class PartitionOffsetTracker {
+
+  private final Map<TopicPartition, PartitionOffsets> partitions = new ConcurrentHashMap<>();
+
+  public void track(TopicPartition topicPartition, long offset) {
+    partitions.computeIfAbsent(topicPartition, key -> new PartitionOffsets()).track(offset);
+  }
+
+  public void acknowledge(TopicPartition topicPartition, long offset) {
+    PartitionOffsets offsets = partitions.get(topicPartition);
+    if (offsets != null) {
+      offsets.acknowledge(offset);
+    }
+  }
+
+  /**
+   * Offsets that advanced since the previous call.
+   *
+   * @return map of committable offsets per partition
+   */
+  public Map<TopicPartition, OffsetAndMetadata> committable() {
+    Map<TopicPartition, OffsetAndMetadata> committable = new HashMap<>(partitions.size());
+    partitions.forEach(
+        (topicPartition, offsets) -> {
+          long offset = offsets.nextCommittable();
+          if (offset >= 0) {
+            committable.put(topicPartition, new OffsetAndMetadata(offset));
+          }
+        });
+    return committable;
+  }
+
+  /**
+   * Forget partitions that are no longer assigned to this consumer.
+   *
+   * @param assignment currently assigned partitions
+   */
+  public void retain(Collection<TopicPartition> assignment) {
+    partitions.keySet().retainAll(assignment);
+  }
+
+  /**
+   * Forget everything in flight and return the position each partition has to be consumed from
+   * again: the lowest unacknowledged offset, or the one after the last polled record.
+   *
+   * @return map of positions per partition
+   */
+  public Map<TopicPartition, Long> rewind() {
+    Map<TopicPartition, Long> positions = new HashMap<>(partitions.size());
+    partitions.forEach(
+        (topicPartition, offsets) -> {
+          long position = offsets.rewind();
+          if (position >= 0) {
+            positions.put(topicPartition, position);
+          }
+        });
+    return positions;
+  }
+
+  public int inFlight() {
+    return partitions.values().stream().mapToInt(offsets -> offsets.pending.size()).sum();
+  }
+
+  private static final class PartitionOffsets {
+
+    private final ConcurrentSkipListSet<Long> pending = new ConcurrentSkipListSet<>();
+    private volatile long nextOffset = -1;
+    private long lastCommitted = -1;
+
+    private void track(long offset) {
+      pending.add(offset);
+      nextOffset = offset + 1;
+    }
+
+    private void acknowledge(long offset) {
+      pending.remove(offset);
+    }
+
+    /** @return position to consume from again or -1 if nothing was polled */
+    private long rewind() {
+      long next = nextOffset;
+      Long lowestPending = pending.ceiling(0L);
+      long position = lowestPending == null ? next : Math.min(lowestPending, next);
+      pending.clear();
+      // nothing is committed past the rewound position until records are polled again
+      nextOffset = position;
+      return position;
+    }
+
+    /** @return offset to commit or -1 when it did not advance since last call */
+    private long nextCommittable() {
+      long next = nextOffset;
+      Long lowestPending = pending.ceiling(0L);
+      long committable = lowestPending == null ? next : Math.min(lowestPending, next);
+      if (committable <= lastCommitted) {
+        return -1;
+      }
+      lastCommitted = committable;
+      return committable;
+    }
+  }
+}
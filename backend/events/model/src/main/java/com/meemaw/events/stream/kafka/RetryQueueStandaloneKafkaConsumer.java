@@ -1,22 +1,55 @@
 package com.meemaw.events.stream.kafka;
 
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Properties;
-import java.util.concurrent.Future;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.management.JMException;
+import javax.management.ObjectName;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
 import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.producer.Callback;
 import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.Producer;
 import org.apache.kafka.clients.producer.ProducerRecord;
-import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.errors.TimeoutException;
 
+/**
+ * Consumer that hands failed values over to a retry or dead letter topic.
+ *
+ * <p>Send totals are exposed as a JMX MBean ({@code
+ * com.meemaw.events.stream.kafka:type=RetryQueueStandaloneKafkaConsumer,name=...}) once {@link
+ * #register()} was called.
+ */
 @Slf4j
-public class RetryQueueStandaloneKafkaConsumer<K, V> extends StandaloneKafkaConsumer<K, V> {
+public class RetryQueueStandaloneKafkaConsumer<K, V> extends StandaloneKafkaConsumer<K, V>
+    implements RetryQueueStandaloneKafkaConsumerMBean {
 
-  private final KafkaProducer<K, V> producer;
+  private static final AtomicInteger INSTANCES = new AtomicInteger();
+
+  private static final Duration DEFAULT_CLOSE_TIMEOUT =
+      Duration.ofMillis(
+          Optional.ofNullable(System.getenv("RETRY_QUEUE_CLOSE_TIMEOUT_MS"))
+              .map(Long::parseLong)
+              .orElse(30_000L));
+
+  private final Producer<K, V> producer;
+  private final String sourceTopicName;
   private final String retryTopicName;
   private final String deadLetterTopicName;
+  private final Duration closeTimeout;
+  private final SendCounters retryCounters = new SendCounters();
+  private final SendCounters deadLetterCounters = new SendCounters();
+  private ObjectName objectName;
 
   public RetryQueueStandaloneKafkaConsumer(
       Properties consumerProperties,
@@ -24,50 +57,186 @@ public class RetryQueueStandaloneKafkaConsumer<K, V> extends StandaloneKafkaCons
       String sourceTopicName,
       String retryTopicName,
       String deadLetterTopicName) {
-    super(
+    this(
         new KafkaConsumer<>(Objects.requireNonNull(consumerProperties)),
-        new StandaloneKafkaCommitCallback());
+        new KafkaProducer<>(Objects.requireNonNull(producerProperties)),
+        sourceTopicName,
+        retryTopicName,
+        deadLetterTopicName,
+        DEFAULT_CLOSE_TIMEOUT);
+  }
+
+  public RetryQueueStandaloneKafkaConsumer(
+      Consumer<K, V> consumer,
+      Producer<K, V> producer,
+      String sourceTopicName,
+      String retryTopicName,
+      String deadLetterTopicName,
+      Duration closeTimeout) {
+    super(consumer, new StandaloneKafkaCommitCallback());
+    this.sourceTopicName = Objects.requireNonNull(sourceTopicName);
     subscribe(Collections.singletonList(sourceTopicName));
-    this.producer = new KafkaProducer<>(Objects.requireNonNull(producerProperties));
+    this.producer = Objects.requireNonNull(producer);
     this.retryTopicName = Objects.requireNonNull(retryTopicName);
     this.deadLetterTopicName = Objects.requireNonNull(deadLetterTopicName);
+    this.closeTimeout = Objects.requireNonNull(closeTimeout);
   }
 
-  public Future<RecordMetadata> sendToRetryQueue(V value) {
-    ProducerRecord<K, V> record = new ProducerRecord<>(retryTopicName, value);
-    return producer.send(
-        record,
-        (metadata, ex) -> {
-          if (ex == null) {
-            log.info("Written record {} to retry topic {}", record, retryTopicName);
-          } else {
-            log.error("Failed to send record {} to retry topic {}", record, retryTopicName, ex);
-          }
-        });
+  /**
+   * Send values to the retry topic without waiting for them to be written.
+   *
+   * @param values to retry
+   * @return completed once all values were written, or exceptionally with a {@link KafkaException}
+   *     if any of them was not, in which case none of them should be considered handed over
+   */
+  public CompletableFuture<Void> sendToRetryQueue(Collection<V> values) {
+    return send(retryTopicName, values, retryCounters);
   }
 
-  public Future<RecordMetadata> sendToDeadLetterQueue(V value) {
-    ProducerRecord<K, V> record = new ProducerRecord<>(deadLetterTopicName, value);
-    return producer.send(
-        record,
+  /**
+   * Send values to the dead letter topic without waiting for them to be written.
+   *
+   * @param values to give up on
+   * @return completed once all values were written, or exceptionally with a {@link KafkaException}
+   *     if any of them was not, in which case none of them should be considered handed over
+   */
+  public CompletableFuture<Void> sendToDeadLetterQueue(Collection<V> values) {
+    return send(deadLetterTopicName, values, deadLetterCounters);
+  }
+
+  /**
+   * Queue all values at once and complete a single aggregated future from the producer callbacks
+   * instead of logging and handling each record on its own. Nothing blocks on the send: the
+   * returned future completes on the producer I/O thread, at the latest once the producer's {@code
+   * delivery.timeout.ms} expired.
+   */
+  private CompletableFuture<Void> send(
+      String topicName, Collection<V> values, SendCounters counters) {
+    CompletableFuture<Void> sent = new CompletableFuture<>();
+    if (values.isEmpty()) {
+      sent.complete(null);
+      return sent;
+    }
+
+    AtomicInteger pending = new AtomicInteger(values.size());
+    AtomicReference<Exception> firstFailure = new AtomicReference<>();
+    Callback callback =
         (metadata, ex) -> {
           if (ex == null) {
-            log.info("Written record {} to dead letter queue {}", record, deadLetterTopicName);
+            counters.sent.incrementAndGet();
           } else {
-            log.error(
-                "Failed to send record {} to dead letter queue {}",
-                record,
-                deadLetterTopicName,
-                ex);
+            (ex instanceof TimeoutException ? counters.timedOut : counters.failed)
+                .incrementAndGet();
+            firstFailure.compareAndSet(null, ex);
           }
-        });
+          if (pending.decrementAndGet() > 0) {
+            return;
+          }
+          Exception failure = firstFailure.get();
+          if (failure == null) {
+            log.info("Sent {} records to {}, totals: {}", values.size(), topicName, counters);
+            sent.complete(null);
+          } else {
+            sent.completeExceptionally(
+                new KafkaException(
+                    String.format(
+                        "Failed to send %d records to %s, totals: %s",
+                        values.size(), topicName, counters),
+                    failure));
+          }
+        };
+
+    for (V value : values) {
+      try {
+        producer.send(new ProducerRecord<>(topicName, value), callback);
+      } catch (KafkaException ex) {
+        // e.g. a closed producer, errors of accepted records are reported through the callback
+        callback.onCompletion(null, ex);
+      }
+    }
+    return sent;
   }
 
-  public void sendToRetryQueue(Collection<V> values) {
-    values.forEach(this::sendToRetryQueue);
+  @Override
+  public long getRetryQueueSent() {
+    return retryCounters.sent.get();
   }
 
-  public void sendToDeadLetterQueue(Collection<V> values) {
-    values.forEach(this::sendToDeadLetterQueue);
+  @Override
+  public long getRetryQueueFailed() {
+    return retryCounters.failed.get();
+  }
+
+  @Override
+  public long getRetryQueueTimedOut() {
+    return retryCounters.timedOut.get();
+  }
+
+  @Override
+  public long getDeadLetterQueueSent() {
+    return deadLetterCounters.sent.get();
+  }
+
+  @Override
+  public long getDeadLetterQueueFailed() {
+    return deadLetterCounters.failed.get();
+  }
+
+  @Override
+  public long getDeadLetterQueueTimedOut() {
+    return deadLetterCounters.timedOut.get();
+  }
+
+  /**
+   * Register the send totals in the platform MBean server.
+   *
+   * @return this consumer
+   */
+  public RetryQueueStandaloneKafkaConsumer<K, V> register() {
+    try {
+      objectName =
+          new ObjectName(
+              "com.meemaw.events.stream.kafka:type=RetryQueueStandaloneKafkaConsumer,name="
+                  + sourceTopicName
+                  + "-"
+                  + INSTANCES.getAndIncrement());
+      ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+    } catch (JMException ex) {
+      log.warn("Failed to register RetryQueueStandaloneKafkaConsumer MBean", ex);
+      objectName = null;
+    }
+    return this;
+  }
+
+  public void unregister() {
+    if (objectName == null) {
+      return;
+    }
+    try {
+      ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+    } catch (JMException ex) {
+      log.warn("Failed to unregister RetryQueueStandaloneKafkaConsumer MBean", ex);
+    }
+    objectName = null;
+  }
+
+  @Override
+  public void close() {
+    unregister();
+    super.close();
+    producer.close(closeTimeout);
+  }
+
+  private static final class SendCounters {
+
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong timedOut = new AtomicLong();
+
+    @Override
+    public String toString() {
+      return String.format(
+          "sent=%d, failed=%d, timedOut=%d", sent.get(), failed.get(), timedOut.get());
+    }
   }
 }
@@ -0,0 +1,17 @@
+package com.meemaw.events.stream.kafka;
+
+/** JMX view of the {@link RetryQueueStandaloneKafkaConsumer} send totals. */
+public interface RetryQueueStandaloneKafkaConsumerMBean {
+
+  long getRetryQueueSent();
+
+  long getRetryQueueFailed();
+
+  long getRetryQueueTimedOut();
+
+  long getDeadLetterQueueSent();
+
+  long getDeadLetterQueueFailed();
+
+  long getDeadLetterQueueTimedOut();
+}
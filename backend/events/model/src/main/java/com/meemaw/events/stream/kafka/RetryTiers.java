@@ -0,0 +1,118 @@
+package com.meemaw.events.stream.kafka;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Chain of retry topics with increasing delays: a record failing in the source topic goes to tier
+ * 0, failing in tier 0 goes to tier 1 and so on, until the last tier hands it over to the dead
+ * letter queue. Tier topics are named after the first retry topic, e.g. events-retry-0,
+ * events-retry-1, events-retry-2.
+ */
+public final class RetryTiers {
+
+  private static final String FIRST_TIER_SUFFIX = "-0";
+
+  private final String topicPrefix;
+  private final String deadLetterTopicName;
+  private final int numTiers;
+  private final Duration initialDelay;
+  private final int multiplier;
+
+  /**
+   * @param firstTopicName name of the tier 0 topic; a trailing "-0" is used as the tier counter
+   * @param deadLetterTopicName topic records are sent to after the last tier failed
+   * @param numTiers number of retry topics
+   * @param initialDelay delay of tier 0
+   * @param multiplier factor the delay grows by with every tier
+   */
+  public RetryTiers(
+      String firstTopicName,
+      String deadLetterTopicName,
+      int numTiers,
+      Duration initialDelay,
+      int multiplier) {
+    if (numTiers < 1) {
+      throw new IllegalArgumentException("numTiers must be positive, got " + numTiers);
+    }
+    if (multiplier < 1) {
+      throw new IllegalArgumentException("multiplier must be positive, got " + multiplier);
+    }
+    Objects.requireNonNull(firstTopicName);
+    this.topicPrefix =
+        firstTopicName.endsWith(FIRST_TIER_SUFFIX)
+            ? firstTopicName.substring(0, firstTopicName.length() - FIRST_TIER_SUFFIX.length())
+            : firstTopicName;
+    this.deadLetterTopicName = Objects.requireNonNull(deadLetterTopicName);
+    this.numTiers = numTiers;
+    this.initialDelay = Objects.requireNonNull(initialDelay);
+    this.multiplier = multiplier;
+  }
+
+  /**
+   * Retry tiers configured by RETRY_TIERS (default 3), RETRY_INITIAL_DELAY_MS (default 5000) and
+   * RETRY_DELAY_MULTIPLIER (default 6): 5s, 30s and 3min with the defaults.
+   *
+   * @param firstTopicName name of the tier 0 topic
+   * @param deadLetterTopicName dead letter topic name
+   * @return RetryTiers
+   */
+  public static RetryTiers fromEnvironment(String firstTopicName, String deadLetterTopicName) {
+    return new RetryTiers(
+        firstTopicName,
+        deadLetterTopicName,
+        intFromEnvironment("RETRY_TIERS", 3),
+        Duration.ofMillis(intFromEnvironment("RETRY_INITIAL_DELAY_MS", 5000)),
+        intFromEnvironment("RETRY_DELAY_MULTIPLIER", 6));
+  }
+
+  private static int intFromEnvironment(String name, int defaultValue) {
+    return Optional.ofNullable(System.getenv(name)).map(Integer::parseInt).orElse(defaultValue);
+  }
+
+  public int size() {
+    return numTiers;
+  }
+
+  public String topic(int tier) {
+    checkTier(tier);
+    return topicPrefix + "-" + tier;
+  }
+
+  /**
+   * Topic records failing in the given tier are forwarded to.
+   *
+   * @param tier int
+   * @return next tier topic or dead letter topic after the last tier
+   */
+  public String nextTopic(int tier) {
+    checkTier(tier);
+    return tier + 1 < numTiers ? topic(tier + 1) : deadLetterTopicName;
+  }
+
+  /**
+   * Minimum age of a record before it is processed in the given tier.
+   *
+   * @param tier int
+   * @return delay
+   */
+  public Duration delay(int tier) {
+    checkTier(tier);
+    Duration delay = initialDelay;
+    for (int i = 0; i < tier; i++) {
+      delay = delay.multipliedBy(multiplier);
+    }
+    return delay;
+  }
+
+  public String getDeadLetterTopicName() {
+    return deadLetterTopicName;
+  }
+
+  private void checkTier(int tier) {
+    if (tier < 0 || tier >= numTiers) {
+      throw new IndexOutOfBoundsException("tier " + tier + " out of [0, " + numTiers + ")");
+    }
+  }
+}
@@ -8,8 +8,8 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
-import org.apache.kafka.clients.consumer.KafkaConsumer;
 import org.apache.kafka.clients.consumer.OffsetAndMetadata;
 import org.apache.kafka.common.TopicPartition;
 
@@ -18,11 +18,11 @@ public class StandaloneKafkaConsumer<K, V>
     implements StandaloneConsumer<
         ConsumerRecords<K, V>, Set<TopicPartition>, Map<TopicPartition, OffsetAndMetadata>> {
 
-  private final KafkaConsumer<K, V> consumer;
+  private final Consumer<K, V> consumer;
   private final StandaloneKafkaCommitCallback commitCallback;
 
   public StandaloneKafkaConsumer(
-      KafkaConsumer<K, V> consumer, StandaloneKafkaCommitCallback commitCallback) {
+      Consumer<K, V> consumer, StandaloneKafkaCommitCallback commitCallback) {
     this.consumer = Objects.requireNonNull(consumer);
     this.commitCallback = Objects.requireNonNull(commitCallback);
   }
@@ -43,6 +43,36 @@ public class StandaloneKafkaConsumer<K, V>
     consumer.commitAsync(offsets, commitCallback);
   }
 
+  /**
+   * Asynchronously commit explicit offsets, e.g. the ones tracked by {@link
+   * PartitionOffsetTracker}.
+   *
+   * @param offsets map of offsets per partition
+   */
+  public void commit(Map<TopicPartition, OffsetAndMetadata> offsets) {
+    if (offsets.isEmpty()) {
+      return;
+    }
+    log.debug("Committing offsets {}", offsets);
+    consumer.commitAsync(offsets, commitCallback);
+  }
+
+  public Set<TopicPartition> assignment() {
+    return consumer.assignment();
+  }
+
+  public void pause(Collection<TopicPartition> partitions) {
+    consumer.pause(partitions);
+  }
+
+  public void resume(Collection<TopicPartition> partitions) {
+    consumer.resume(partitions);
+  }
+
+  public void seek(TopicPartition partition, long offset) {
+    consumer.seek(partition, offset);
+  }
+
   @Override
   public Map<TopicPartition, OffsetAndMetadata> getOffsets(Set<TopicPartition> partitions) {
     Map<TopicPartition, OffsetAndMetadata> nextCommitableOffset = new HashMap<>(partitions.size());
@@ -2,10 +2,23 @@ package com.meemaw.events.stream.processor;
 
 public interface BatchProcessor<V> {
 
-  void batch(V value);
+  default void batch(V value) {
+    batch(value, BatchProcessorAcknowledgement.NOOP);
+  }
+
+  void batch(V value, BatchProcessorAcknowledgement acknowledgement);
 
   void onFailure(BatchProcessorFailureCallback<V> callback);
 
+  /**
+   * Health probe used while the circuit breaker is open.
+   *
+   * @return true if the backend the processor writes to is available
+   */
+  default boolean isAvailable() {
+    return true;
+  }
+
   void shutdown();
 
   void close();
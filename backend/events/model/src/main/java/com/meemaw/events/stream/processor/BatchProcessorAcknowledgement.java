@@ -0,0 +1,13 @@
+package com.meemaw.events.stream.processor;
+
+/**
+ * Invoked once a batched value has been fully handled: either written by the processor or handed
+ * over by the {@link BatchProcessorFailureCallback}.
+ */
+@FunctionalInterface
+public interface BatchProcessorAcknowledgement {
+
+  BatchProcessorAcknowledgement NOOP = () -> {};
+
+  void acknowledge();
+}
@@ -5,5 +5,15 @@ import java.util.Collection;
 @FunctionalInterface
 public interface BatchProcessorFailureCallback<V> {
 
-  void execute(Collection<V> failures, Throwable cause);
+  /**
+   * Take over values that could not be processed. Invoked from the processor's I/O threads, so it
+   * must not block on the hand-over itself.
+   *
+   * @param failures values that could not be processed
+   * @param cause of the failure
+   * @param acknowledgement invoked once the failures were handed over, never invoked if they
+   *     should stay unacknowledged so they are processed again
+   */
+  void execute(
+      Collection<V> failures, Throwable cause, BatchProcessorAcknowledgement acknowledgement);
 }
@@ -0,0 +1,106 @@
+package com.meemaw.events.stream.processor;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Optional;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Opens when the processor reports that its backend is unavailable, and tells the consumer when to
+ * probe the backend again. The probe backoff doubles with every failed probe, from the initial up
+ * to the max backoff. A breaker tripped again within one backoff of closing resumes from that
+ * backoff (doubled) instead of the initial one, so a backend that passes the probe but keeps
+ * failing writes is not hammered at the initial backoff.
+ *
+ * <p>Tripped from processor threads, probed and closed from the poll thread.
+ */
+@Slf4j
+public class CircuitBreaker {
+
+  private final long initialBackoffMillis;
+  private final long maxBackoffMillis;
+
+  private boolean open;
+  private long backoffMillis;
+  private long nextProbeMillis;
+  private long closedMillis;
+
+  public CircuitBreaker() {
+    this(
+        Duration.ofMillis(longFromEnvironment("CIRCUIT_BREAKER_INITIAL_BACKOFF_MS", 1000)),
+        Duration.ofMillis(longFromEnvironment("CIRCUIT_BREAKER_MAX_BACKOFF_MS", 10_000)));
+  }
+
+  /**
+   * @param initialBackoff delay before the first probe
+   * @param maxBackoff upper bound of the delay between two probes
+   */
+  public CircuitBreaker(Duration initialBackoff, Duration maxBackoff) {
+    this.initialBackoffMillis = Objects.requireNonNull(initialBackoff).toMillis();
+    this.maxBackoffMillis = Objects.requireNonNull(maxBackoff).toMillis();
+    if (initialBackoffMillis <= 0 || maxBackoffMillis < initialBackoffMillis) {
+      throw new IllegalArgumentException(
+          String.format("Invalid backoff: initial=%s, max=%s", initialBackoff, maxBackoff));
+    }
+  }
+
+  private static long longFromEnvironment(String name, long defaultValue) {
+    return Optional.ofNullable(System.getenv(name)).map(Long::parseLong).orElse(defaultValue);
+  }
+
+  /**
+   * Open the breaker. Tripping an already open breaker keeps its probe schedule.
+   *
+   * <p>Tripping within one backoff of the last close doubles that backoff, otherwise the backoff
+   * starts over from the initial one.
+   *
+   * @param cause of the unavailability
+   * @param nowMillis current time
+   */
+  public synchronized void trip(Throwable cause, long nowMillis) {
+    if (open) {
+      return;
+    }
+    backoffMillis =
+        nowMillis - closedMillis < backoffMillis
+            ? Math.min(backoffMillis * 2, maxBackoffMillis)
+            : initialBackoffMillis;
+    log.warn("Opening circuit breaker, probing again in {}ms", backoffMillis, cause);
+    open = true;
+    nextProbeMillis = nowMillis + backoffMillis;
+  }
+
+  public synchronized boolean isOpen() {
+    return open;
+  }
+
+  /**
+   * @param nowMillis current time
+   * @return true if the breaker is open and the backend should be probed
+   */
+  public synchronized boolean shouldProbe(long nowMillis) {
+    return open && nowMillis >= nextProbeMillis;
+  }
+
+  /**
+   * Record the probe result: close the breaker if the backend is available again, otherwise back
+   * off before the next probe.
+   *
+   * @param available probe result
+   * @param nowMillis current time
+   */
+  public synchronized void onProbe(boolean available, long nowMillis) {
+    if (!open) {
+      return;
+    }
+    if (available) {
+      log.info("Closing circuit breaker");
+      open = false;
+      closedMillis = nowMillis;
+      return;
+    }
+    backoffMillis = Math.min(backoffMillis * 2, maxBackoffMillis);
+    nextProbeMillis = nowMillis + backoffMillis;
+    log.info("Backend still unavailable, probing again in {}ms", backoffMillis);
+  }
+}
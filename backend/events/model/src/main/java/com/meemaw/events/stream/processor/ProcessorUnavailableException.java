@@ -5,4 +5,8 @@ public class ProcessorUnavailableException extends Exception {
   public ProcessorUnavailableException(String message) {
     super(message);
   }
+
+  public ProcessorUnavailableException(String message, Throwable cause) {
+    super(message, cause);
+  }
 }
@@ -1,8 +1,10 @@
 package com.meemaw.shared.model;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
 import com.meemaw.events.model.internal.AbstractBrowserEvent;
 import com.meemaw.events.model.internal.BrowserClickEvent;
 import com.meemaw.events.model.internal.BrowserLoadEvent;
@@ -158,4 +160,14 @@ public class AbstractBrowserEventSerializationTest {
             "__debug-3 as at au av aw ax ay az b0 b1 b2 b3 b4 b5 b6 ak b7 b8 b9 ba bb bc bd be bf bg bh bi an ci ao c8 d8 d9 d7 da ek el em df en eo ep eq bw"),
         browserMouseMoveEvent.getNodeWithAttributes());
   }
+
+  @Test
+  public void nonNumericTimestampDeserialization() {
+    for (String timestamp : List.of("{\"e\": 5}", "[1306]", "\"1306\"")) {
+      String payload = "{\"t\": " + timestamp + ", \"e\": 4, \"a\": [1167, 732]}";
+      assertThrows(
+          JsonMappingException.class,
+          () -> JacksonMapper.get().readValue(payload, AbstractBrowserEvent.class));
+    }
+  }
 }
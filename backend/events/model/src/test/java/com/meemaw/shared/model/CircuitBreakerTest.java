@@ -0,0 +1,58 @@
+package com.meemaw.shared.model;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.meemaw.events.stream.processor.CircuitBreaker;
+import com.meemaw.events.stream.processor.ProcessorUnavailableException;
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+public class CircuitBreakerTest {
+
+  private static final Throwable CAUSE = new ProcessorUnavailableException("SERVICE_UNAVAILABLE");
+
+  private final CircuitBreaker circuitBreaker =
+      new CircuitBreaker(Duration.ofMillis(1000), Duration.ofMillis(8000));
+
+  @Test
+  public void shouldDoubleBackoffOnFailedProbes() {
+    circuitBreaker.trip(CAUSE, 0);
+    assertFalse(circuitBreaker.shouldProbe(999));
+    assertTrue(circuitBreaker.shouldProbe(1000));
+
+    circuitBreaker.onProbe(false, 1000);
+    assertFalse(circuitBreaker.shouldProbe(2999));
+    assertTrue(circuitBreaker.shouldProbe(3000));
+
+    circuitBreaker.onProbe(true, 3000);
+    assertFalse(circuitBreaker.isOpen());
+  }
+
+  @Test
+  public void shouldKeepBackoffWhenTrippedShortlyAfterClosing() {
+    circuitBreaker.trip(CAUSE, 0);
+    circuitBreaker.onProbe(true, 1000);
+
+    // probe passed but writes keep failing: 2s, 4s, 8s and capped at 8s
+    long now = 1100;
+    for (long backoff : new long[] {2000, 4000, 8000, 8000}) {
+      circuitBreaker.trip(CAUSE, now);
+      assertFalse(circuitBreaker.shouldProbe(now + backoff - 1));
+      assertTrue(circuitBreaker.shouldProbe(now + backoff));
+      circuitBreaker.onProbe(true, now + backoff);
+      now += backoff + 100;
+    }
+  }
+
+  @Test
+  public void shouldResetBackoffWhenTrippedLongAfterClosing() {
+    circuitBreaker.trip(CAUSE, 0);
+    circuitBreaker.onProbe(false, 1000);
+    circuitBreaker.onProbe(true, 3000);
+
+    circuitBreaker.trip(CAUSE, 3000 + 2000);
+    assertFalse(circuitBreaker.shouldProbe(5999));
+    assertTrue(circuitBreaker.shouldProbe(6000));
+  }
+}
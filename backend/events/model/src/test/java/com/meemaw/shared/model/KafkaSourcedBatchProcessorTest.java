@@ -0,0 +1,150 @@
+package com.meemaw.shared.model;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.meemaw.events.stream.kafka.KafkaSourcedBatchProcessor;
+import com.meemaw.events.stream.kafka.RetryQueueStandaloneKafkaConsumer;
+import com.meemaw.events.stream.processor.BatchProcessor;
+import com.meemaw.events.stream.processor.BatchProcessorAcknowledgement;
+import com.meemaw.events.stream.processor.BatchProcessorFailureCallback;
+import com.meemaw.events.stream.processor.ProcessorUnavailableException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.record.TimestampType;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.Test;
+
+public class KafkaSourcedBatchProcessorTest {
+
+  private static final String TIER_TOPIC_NAME = "events-retry-0";
+  private static final TopicPartition DELAYED_PARTITION = new TopicPartition(TIER_TOPIC_NAME, 0);
+  private static final TopicPartition DUE_PARTITION = new TopicPartition(TIER_TOPIC_NAME, 1);
+
+  private final MockConsumer<String, String> mockConsumer =
+      new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+  private final MockProducer<String, String> mockProducer =
+      new MockProducer<>(true, new StringSerializer(), new StringSerializer());
+
+  private static ConsumerRecord<String, String> record(
+      TopicPartition topicPartition, long timestamp, String value) {
+    return new ConsumerRecord<>(
+        topicPartition.topic(),
+        topicPartition.partition(),
+        0,
+        timestamp,
+        TimestampType.CREATE_TIME,
+        0L,
+        0,
+        0,
+        null,
+        value);
+  }
+
+  @Test
+  public void shouldKeepDueTierPartitionPausedWhileCircuitBreakerIsOpen() {
+    TestBatchProcessor processor = new TestBatchProcessor();
+    KafkaSourcedBatchProcessor<String, String> batchProcessor =
+        new KafkaSourcedBatchProcessor<>(
+            new RetryQueueStandaloneKafkaConsumer<>(
+                mockConsumer,
+                mockProducer,
+                TIER_TOPIC_NAME,
+                "events-retry-1",
+                "events-dlq",
+                Duration.ofSeconds(30)),
+            processor,
+            Duration.ofMillis(500));
+    mockConsumer.rebalance(List.of(DELAYED_PARTITION, DUE_PARTITION));
+    mockConsumer.updateBeginningOffsets(Map.of(DELAYED_PARTITION, 0L, DUE_PARTITION, 0L));
+
+    // the due record trips the breaker, the young one pauses its partition for 500ms
+    long now = System.currentTimeMillis();
+    ConsumerRecord<String, String> young = record(DELAYED_PARTITION, now, "young");
+    ConsumerRecord<String, String> old = record(DUE_PARTITION, now - 60_000, "old");
+    mockConsumer.addRecord(young);
+    mockConsumer.addRecord(old);
+    CompletableFuture<Void> polling = CompletableFuture.runAsync(batchProcessor::start);
+
+    await()
+        .atMost(5, TimeUnit.SECONDS)
+        .until(
+            () ->
+                processor.unavailable.contains("old")
+                    && mockConsumer.paused().contains(DELAYED_PARTITION)
+                    && mockConsumer.paused().contains(DUE_PARTITION));
+    // both partitions were rewound, the mock consumer only delivers what is added again
+    mockConsumer.addRecord(young);
+    mockConsumer.addRecord(old);
+
+    // the young record becomes due long before the breaker closes, but must not be fetched
+    await()
+        .during(1500, TimeUnit.MILLISECONDS)
+        .atMost(5, TimeUnit.SECONDS)
+        .until(
+            () ->
+                !processor.batched.contains("young")
+                    && !processor.unavailable.contains("young")
+                    && mockConsumer.paused().contains(DELAYED_PARTITION));
+
+    processor.available = true;
+    await()
+        .atMost(10, TimeUnit.SECONDS)
+        .until(() -> processor.batched.containsAll(List.of("young", "old")));
+    assertTrue(mockConsumer.paused().isEmpty());
+
+    batchProcessor.shutdown();
+    polling.orTimeout(5, TimeUnit.SECONDS).join();
+  }
+
+  /** Reports every value as unavailable until the backend is available again. */
+  private static final class TestBatchProcessor implements BatchProcessor<String> {
+
+    private final List<String> batched = new CopyOnWriteArrayList<>();
+    private final List<String> unavailable = new CopyOnWriteArrayList<>();
+    private BatchProcessorFailureCallback<String> onFailure;
+    private volatile boolean available;
+
+    @Override
+    public void batch(String value, BatchProcessorAcknowledgement acknowledgement) {
+      if (available) {
+        batched.add(value);
+        acknowledgement.acknowledge();
+      } else {
+        unavailable.add(value);
+        onFailure.execute(
+            List.of(value),
+            new ProcessorUnavailableException("SERVICE_UNAVAILABLE"),
+            acknowledgement);
+      }
+    }
+
+    @Override
+    public boolean isAvailable() {
+      return available;
+    }
+
+    @Override
+    public void onFailure(BatchProcessorFailureCallback<String> callback) {
+      this.onFailure = callback;
+    }
+
+    @Override
+    public void shutdown() {}
+
+    @Override
+    public void close() {}
+
+    @Override
+    public void flush() {}
+  }
+}
@@ -0,0 +1,73 @@
+package com.meemaw.shared.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.meemaw.events.stream.kafka.PartitionOffsetTracker;
+import java.util.List;
+import java.util.Map;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+
+public class PartitionOffsetTrackerTest {
+
+  private static final TopicPartition PARTITION = new TopicPartition("events", 0);
+
+  @Test
+  public void shouldOnlyCommitAcknowledgedOffsets() {
+    PartitionOffsetTracker tracker = new PartitionOffsetTracker();
+    tracker.track(PARTITION, 10);
+    tracker.track(PARTITION, 11);
+    tracker.track(PARTITION, 12);
+
+    // nothing acknowledged yet: commit up to (excluding) the first in-flight record
+    assertEquals(Map.of(PARTITION, new OffsetAndMetadata(10)), tracker.committable());
+
+    // out of order acknowledgement must not move the offset past 10
+    tracker.acknowledge(PARTITION, 11);
+    assertTrue(tracker.committable().isEmpty());
+
+    tracker.acknowledge(PARTITION, 10);
+    assertEquals(Map.of(PARTITION, new OffsetAndMetadata(12)), tracker.committable());
+
+    tracker.acknowledge(PARTITION, 12);
+    assertEquals(Map.of(PARTITION, new OffsetAndMetadata(13)), tracker.committable());
+    assertEquals(0, tracker.inFlight());
+    assertTrue(tracker.committable().isEmpty());
+  }
+
+  @Test
+  public void shouldForgetRevokedPartitions() {
+    PartitionOffsetTracker tracker = new PartitionOffsetTracker();
+    TopicPartition other = new TopicPartition("events", 1);
+    tracker.track(PARTITION, 1);
+    tracker.track(other, 1);
+
+    tracker.retain(List.of(other));
+    assertEquals(Map.of(other, new OffsetAndMetadata(1)), tracker.committable());
+  }
+
+  @Test
+  public void shouldRewindToLowestUnacknowledgedOffset() {
+    PartitionOffsetTracker tracker = new PartitionOffsetTracker();
+    TopicPartition other = new TopicPartition("events", 1);
+    tracker.track(PARTITION, 10);
+    tracker.track(PARTITION, 11);
+    tracker.track(PARTITION, 12);
+    tracker.track(other, 5);
+    tracker.acknowledge(PARTITION, 10);
+    tracker.acknowledge(other, 5);
+
+    assertEquals(Map.of(PARTITION, 11L, other, 6L), tracker.rewind());
+    assertEquals(0, tracker.inFlight());
+    // offsets do not move past the rewound position
+    assertEquals(
+        Map.of(PARTITION, new OffsetAndMetadata(11), other, new OffsetAndMetadata(6)),
+        tracker.committable());
+
+    tracker.track(PARTITION, 11);
+    tracker.acknowledge(PARTITION, 11);
+    assertEquals(Map.of(PARTITION, new OffsetAndMetadata(12)), tracker.committable());
+  }
+}
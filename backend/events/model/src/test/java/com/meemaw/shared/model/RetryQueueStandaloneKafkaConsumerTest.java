@@ -0,0 +1,174 @@
+package com.meemaw.shared.model;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.meemaw.events.stream.kafka.KafkaSourcedBatchProcessor;
+import com.meemaw.events.stream.kafka.RetryQueueStandaloneKafkaConsumer;
+import com.meemaw.events.stream.processor.BatchProcessor;
+import com.meemaw.events.stream.processor.BatchProcessorAcknowledgement;
+import com.meemaw.events.stream.processor.BatchProcessorFailureCallback;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.Test;
+
+public class RetryQueueStandaloneKafkaConsumerTest {
+
+  private static final String SOURCE_TOPIC_NAME = "events";
+  private static final TopicPartition PARTITION = new TopicPartition(SOURCE_TOPIC_NAME, 0);
+
+  private final MockConsumer<String, String> mockConsumer =
+      new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+  private final MockProducer<String, String> mockProducer =
+      new MockProducer<>(false, new StringSerializer(), new StringSerializer());
+
+  private RetryQueueStandaloneKafkaConsumer<String, String> consumer() {
+    return new RetryQueueStandaloneKafkaConsumer<>(
+        mockConsumer,
+        mockProducer,
+        SOURCE_TOPIC_NAME,
+        "events-retry-0",
+        "events-dlq",
+        Duration.ofSeconds(30));
+  }
+
+  @Test
+  public void shouldCompleteOnceAllRecordsAreSent() {
+    RetryQueueStandaloneKafkaConsumer<String, String> consumer = consumer();
+
+    CompletableFuture<Void> send = consumer.sendToRetryQueue(List.of("a", "b"));
+    assertEquals(2, mockProducer.history().size());
+
+    mockProducer.completeNext();
+    assertFalse(send.isDone());
+
+    mockProducer.completeNext();
+    send.orTimeout(5, TimeUnit.SECONDS).join();
+    assertEquals(2, consumer.getRetryQueueSent());
+    assertEquals(0, consumer.getRetryQueueFailed());
+    assertEquals(0, consumer.getRetryQueueTimedOut());
+  }
+
+  @Test
+  public void shouldFailOnceDeliveryTimedOut() {
+    RetryQueueStandaloneKafkaConsumer<String, String> consumer = consumer();
+
+    CompletableFuture<Void> send = consumer.sendToDeadLetterQueue(List.of("a"));
+    mockProducer.errorNext(new TimeoutException("Expiring 1 record(s)"));
+
+    CompletionException exception = assertThrows(CompletionException.class, send::join);
+    assertTrue(exception.getCause() instanceof KafkaException);
+    assertEquals(1, consumer.getDeadLetterQueueTimedOut());
+    assertEquals(0, consumer.getDeadLetterQueueSent());
+  }
+
+  @Test
+  public void shouldQueueFailuresInsteadOfSendingFromProcessorThread() {
+    KafkaSourcedBatchProcessor<String, String> batchProcessor =
+        new KafkaSourcedBatchProcessor<>(consumer(), new TestBatchProcessor());
+    AtomicBoolean acknowledged = new AtomicBoolean();
+
+    batchProcessor.handleFailures(
+        List.of("a"), new IllegalStateException("rejected"), () -> acknowledged.set(true));
+    assertTrue(mockProducer.history().isEmpty());
+
+    CompletableFuture<Void> polling = CompletableFuture.runAsync(batchProcessor::start);
+    await().atMost(5, TimeUnit.SECONDS).until(() -> mockProducer.history().size() == 1);
+    assertFalse(acknowledged.get());
+
+    mockProducer.completeNext();
+    await().atMost(5, TimeUnit.SECONDS).untilTrue(acknowledged);
+
+    batchProcessor.shutdown();
+    polling.orTimeout(5, TimeUnit.SECONDS).join();
+  }
+
+  @Test
+  public void shouldConsumeRecordAgainAfterFailedHandOver() {
+    TestBatchProcessor processor = new TestBatchProcessor();
+    KafkaSourcedBatchProcessor<String, String> batchProcessor =
+        new KafkaSourcedBatchProcessor<>(consumer(), processor);
+    mockConsumer.rebalance(Collections.singletonList(PARTITION));
+    mockConsumer.updateBeginningOffsets(Map.of(PARTITION, 0L));
+    ConsumerRecord<String, String> record =
+        new ConsumerRecord<>(SOURCE_TOPIC_NAME, 0, 0, null, "a");
+    mockConsumer.addRecord(record);
+    CompletableFuture<Void> polling = CompletableFuture.runAsync(batchProcessor::start);
+
+    await().atMost(5, TimeUnit.SECONDS).until(() -> mockProducer.history().size() == 1);
+    mockProducer.errorNext(new KafkaException("broker down"));
+
+    // the unacknowledged record is rewound instead of pinning the committed offset
+    await().atMost(5, TimeUnit.SECONDS).until(() -> mockConsumer.position(PARTITION) == 0);
+    assertEquals(0, processor.numAcknowledged.get());
+    assertTrue(committedOffset() <= 0);
+
+    // the mock consumer only delivers what is added again
+    mockConsumer.addRecord(record);
+    await().atMost(5, TimeUnit.SECONDS).until(() -> mockProducer.history().size() == 2);
+    mockProducer.completeNext();
+
+    await().atMost(5, TimeUnit.SECONDS).until(() -> processor.numAcknowledged.get() == 1);
+    await().atMost(5, TimeUnit.SECONDS).until(() -> committedOffset() == 1);
+
+    batchProcessor.shutdown();
+    polling.orTimeout(5, TimeUnit.SECONDS).join();
+  }
+
+  private long committedOffset() {
+    OffsetAndMetadata committed = mockConsumer.committed(Set.of(PARTITION)).get(PARTITION);
+    return committed == null ? -1 : committed.offset();
+  }
+
+  /** Fails every value and acknowledges it only once it was handed over, like the indexer. */
+  private static final class TestBatchProcessor implements BatchProcessor<String> {
+
+    private final AtomicInteger numAcknowledged = new AtomicInteger();
+    private BatchProcessorFailureCallback<String> onFailure;
+
+    @Override
+    public void batch(String value, BatchProcessorAcknowledgement acknowledgement) {
+      onFailure.execute(
+          List.of(value),
+          new IllegalStateException("rejected"),
+          () -> {
+            acknowledgement.acknowledge();
+            numAcknowledged.incrementAndGet();
+          });
+    }
+
+    @Override
+    public void onFailure(BatchProcessorFailureCallback<String> callback) {
+      this.onFailure = callback;
+    }
+
+    @Override
+    public void shutdown() {}
+
+    @Override
+    public void close() {}
+
+    @Override
+    public void flush() {}
+  }
+}
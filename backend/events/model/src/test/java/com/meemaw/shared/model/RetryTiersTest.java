@@ -0,0 +1,32 @@
+package com.meemaw.shared.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.meemaw.events.stream.kafka.RetryTiers;
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+public class RetryTiersTest {
+
+  @Test
+  public void shouldChainTiersIntoDeadLetterQueue() {
+    RetryTiers tiers = new RetryTiers("events-retry-0", "events-dlq", 3, Duration.ofSeconds(5), 6);
+
+    assertEquals("events-retry-0", tiers.topic(0));
+    assertEquals("events-retry-1", tiers.nextTopic(0));
+    assertEquals("events-retry-2", tiers.nextTopic(1));
+    assertEquals("events-dlq", tiers.nextTopic(2));
+    assertThrows(IndexOutOfBoundsException.class, () -> tiers.topic(3));
+  }
+
+  @Test
+  public void shouldGrowDelayExponentially() {
+    RetryTiers tiers = new RetryTiers("events-retry", "events-dlq", 3, Duration.ofSeconds(5), 6);
+
+    assertEquals("events-retry-0", tiers.topic(0));
+    assertEquals(Duration.ofSeconds(5), tiers.delay(0));
+    assertEquals(Duration.ofSeconds(30), tiers.delay(1));
+    assertEquals(Duration.ofMinutes(3), tiers.delay(2));
+  }
+}
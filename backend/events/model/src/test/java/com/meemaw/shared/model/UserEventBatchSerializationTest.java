@@ -0,0 +1,74 @@
+package com.meemaw.shared.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.meemaw.events.model.external.UserEvent;
+import com.meemaw.events.model.external.UserEventBatch;
+import com.meemaw.events.model.internal.AbstractBrowserEvent;
+import com.meemaw.events.model.internal.BrowserClickEvent;
+import com.meemaw.events.model.internal.BrowserUnloadEvent;
+import com.meemaw.test.rest.mappers.JacksonMapper;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+public class UserEventBatchSerializationTest {
+
+  @Test
+  public void userEventBatchRoundTrip() throws JsonProcessingException {
+    String payload =
+        "{\"pageId\":\"d274c40c-357b-4357-8359-f33aed7b86df\",\"sessionId\":\"02737f08-28ba-47c4-9c13-5a2b6a133a9a\",\"deviceId\":\"14671e07-9081-4009-8752-a4d896c620c8\",\"organizationId\":\"org123\",\"events\":[{\"t\":1306,\"e\":4,\"a\":[1167,732]},{\"t\":1400,\"e\":1,\"a\":[\"http://localhost:8080\"]}]}";
+    UserEventBatch deserialized = JacksonMapper.get().readValue(payload, UserEventBatch.class);
+    assertEquals(2, deserialized.getEvents().size());
+
+    UserEventBatch roundTrip =
+        JacksonMapper.get()
+            .readValue(JacksonMapper.get().writeValueAsString(deserialized), UserEventBatch.class);
+    assertEquals(deserialized.getPageId(), roundTrip.getPageId());
+    assertEquals(BrowserClickEvent.class, roundTrip.getEvents().get(0).getClass());
+    assertEquals(BrowserUnloadEvent.class, roundTrip.getEvents().get(1).getClass());
+  }
+
+  @Test
+  public void userEventBatchUnbatch() throws JsonProcessingException {
+    String payload =
+        "{\"pageId\":\"d274c40c-357b-4357-8359-f33aed7b86df\",\"sessionId\":\"02737f08-28ba-47c4-9c13-5a2b6a133a9a\",\"deviceId\":\"14671e07-9081-4009-8752-a4d896c620c8\",\"organizationId\":\"org123\",\"events\":[{\"t\":1306,\"e\":4,\"a\":[1167,732]},{\"t\":1400,\"e\":1,\"a\":[\"http://localhost:8080\"]}]}";
+    UserEventBatch batch = JacksonMapper.get().readValue(payload, UserEventBatch.class);
+
+    List<UserEvent<AbstractBrowserEvent>> unbatched = batch.unbatch();
+    assertEquals(2, unbatched.size());
+    unbatched.forEach(
+        userEvent -> {
+          assertEquals("org123", userEvent.getOrganizationId());
+          assertEquals(
+              UUID.fromString("d274c40c-357b-4357-8359-f33aed7b86df"), userEvent.getPageId());
+          assertEquals(
+              UUID.fromString("14671e07-9081-4009-8752-a4d896c620c8"), userEvent.getDeviceId());
+        });
+
+    UserEventBatch single = UserEventBatch.of(unbatched.get(1));
+    assertEquals(1, single.getEvents().size());
+    assertEquals(batch.getSessionId(), single.getSessionId());
+  }
+
+  @Test
+  public void userEventBatchUnbatchShouldNumberEvents() throws JsonProcessingException {
+    long sequence = UserEvent.sequence(4, 0);
+    String payload =
+        String.format(
+            "{\"pageId\":\"d274c40c-357b-4357-8359-f33aed7b86df\",\"sessionId\":\"02737f08-28ba-47c4-9c13-5a2b6a133a9a\",\"deviceId\":\"14671e07-9081-4009-8752-a4d896c620c8\",\"organizationId\":\"org123\",\"sequence\":%d,\"events\":[{\"t\":1306,\"e\":4,\"a\":[1167,732]},{\"t\":1306,\"e\":4,\"a\":[1167,732]}]}",
+            sequence);
+    UserEventBatch batch = JacksonMapper.get().readValue(payload, UserEventBatch.class);
+
+    List<UserEvent<AbstractBrowserEvent>> unbatched = batch.unbatch();
+    assertEquals(sequence, unbatched.get(0).getSequence());
+    assertEquals(UserEvent.sequence(4, 1), unbatched.get(1).getSequence());
+    assertNotEquals(unbatched.get(0).documentId(), unbatched.get(1).documentId());
+
+    UserEventBatch single = UserEventBatch.of(unbatched.get(1));
+    assertEquals(UserEvent.sequence(4, 1), single.getSequence());
+    assertEquals(unbatched.get(1).documentId(), single.unbatch().get(0).documentId());
+  }
+}
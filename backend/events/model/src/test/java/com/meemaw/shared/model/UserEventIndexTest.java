@@ -0,0 +1,85 @@
+package com.meemaw.shared.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.meemaw.events.model.external.UserEvent;
+import com.meemaw.events.model.internal.AbstractBrowserEvent;
+import com.meemaw.test.rest.mappers.JacksonMapper;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class UserEventIndexTest {
+
+  private static final String EVENTS =
+      "[{\"t\":17,\"e\":0,\"a\":[\"http://localhost:8080\",\"Insight\"]},{\"t\":18,\"e\":1,\"a\":[\"http://localhost:8080\"]},{\"t\":19,\"e\":2,\"a\":[1920,1080]},{\"t\":20,\"e\":3,\"a\":[\"http://localhost:3002/\",\"navigation\",0,5478.304999996908]},{\"t\":21,\"e\":4,\"a\":[1167,732,\"<BUTTON\",\":type\",\"submit\"]},{\"t\":22,\"e\":5,\"a\":[1168,733]},{\"t\":23,\"e\":6,\"a\":[1169,734]},{\"t\":24,\"e\":7,\"a\":[1170,735]},{\"t\":25,\"e\":8,\"a\":[\"http://localhost:8080\"]}]";
+
+  @Test
+  public void writeIndexShouldMatchIndexMap() throws IOException {
+    ObjectMapper objectMapper = JacksonMapper.get();
+    List<AbstractBrowserEvent> events = objectMapper.readValue(EVENTS, new TypeReference<>() {});
+    assertEquals(9, events.size());
+
+    for (AbstractBrowserEvent event : events) {
+      UserEvent<AbstractBrowserEvent> userEvent =
+          objectMapper.readValue(
+              String.format(
+                  "{\"event\":%s,\"organizationId\":\"org123\",\"pageId\":\"d274c40c-357b-4357-8359-f33aed7b86df\",\"sessionId\":\"02737f08-28ba-47c4-9c13-5a2b6a133a9a\",\"deviceId\":\"14671e07-9081-4009-8752-a4d896c620c8\"}",
+                  objectMapper.writeValueAsString(event)),
+              new TypeReference<>() {});
+
+      ByteArrayOutputStream output = new ByteArrayOutputStream();
+      try (JsonGenerator generator = objectMapper.getFactory().createGenerator(output)) {
+        userEvent.writeIndex(generator);
+      }
+
+      assertEquals(
+          objectMapper.valueToTree(userEvent.index()), objectMapper.readTree(output.toByteArray()));
+    }
+  }
+
+  @Test
+  public void documentIdShouldBeDeterministic() throws IOException {
+    ObjectMapper objectMapper = JacksonMapper.get();
+    String payload =
+        "{\"event\":{\"t\":1306,\"e\":5,\"a\":[1167,732]},\"organizationId\":\"org123\",\"pageId\":\"d274c40c-357b-4357-8359-f33aed7b86df\",\"sessionId\":\"02737f08-28ba-47c4-9c13-5a2b6a133a9a\",\"deviceId\":\"14671e07-9081-4009-8752-a4d896c620c8\"}";
+    UserEvent<AbstractBrowserEvent> first =
+        objectMapper.readValue(payload, new TypeReference<>() {});
+    UserEvent<AbstractBrowserEvent> replay =
+        objectMapper.readValue(payload, new TypeReference<>() {});
+    UserEvent<AbstractBrowserEvent> other =
+        objectMapper.readValue(payload.replace("1306", "1307"), new TypeReference<>() {});
+
+    assertEquals(first.documentId(), replay.documentId());
+    assertNotEquals(first.documentId(), other.documentId());
+  }
+
+  @Test
+  public void documentIdShouldDistinguishIdenticalEventsBySequence() throws IOException {
+    ObjectMapper objectMapper = JacksonMapper.get();
+    String payload =
+        "{\"event\":{\"t\":1306,\"e\":5,\"a\":[1167,732]},\"organizationId\":\"org123\",\"pageId\":\"d274c40c-357b-4357-8359-f33aed7b86df\",\"sessionId\":\"02737f08-28ba-47c4-9c13-5a2b6a133a9a\",\"deviceId\":\"14671e07-9081-4009-8752-a4d896c620c8\",\"sequence\":%d}";
+    UserEvent<AbstractBrowserEvent> first =
+        objectMapper.readValue(
+            String.format(payload, UserEvent.sequence(1, 0)), new TypeReference<>() {});
+    UserEvent<AbstractBrowserEvent> replay =
+        objectMapper.readValue(
+            String.format(payload, UserEvent.sequence(1, 0)), new TypeReference<>() {});
+    UserEvent<AbstractBrowserEvent> sameBeacon =
+        objectMapper.readValue(
+            String.format(payload, UserEvent.sequence(1, 1)), new TypeReference<>() {});
+    UserEvent<AbstractBrowserEvent> nextBeacon =
+        objectMapper.readValue(
+            String.format(payload, UserEvent.sequence(2, 0)), new TypeReference<>() {});
+
+    assertEquals(first.documentId(), replay.documentId());
+    assertNotEquals(first.documentId(), sameBeacon.documentId());
+    assertNotEquals(first.documentId(), nextBeacon.documentId());
+    assertNotEquals(sameBeacon.documentId(), nextBeacon.documentId());
+  }
+}
@@ -0,0 +1,125 @@
+package com.meemaw.shared.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.meemaw.events.model.external.UserEvent;
+import com.meemaw.events.model.external.serialization.UserEventDeserializer;
+import com.meemaw.events.model.external.serialization.UserEventSerializer;
+import com.meemaw.events.model.external.serialization.UserEventWireFormat;
+import com.meemaw.events.model.internal.AbstractBrowserEvent;
+import com.meemaw.test.rest.mappers.JacksonMapper;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.Test;
+
+public class UserEventWireFormatTest {
+
+  private static final String EVENTS =
+      "[{\"t\":17,\"e\":0,\"a\":[\"http://localhost:8080\",\"Insight\"]},{\"t\":18,\"e\":1,\"a\":[\"http://localhost:8080\"]},{\"t\":19,\"e\":2,\"a\":[1920,1080]},{\"t\":20,\"e\":3,\"a\":[\"⚛ FormControl [update]\",\"measure\",18549.754999927245,-1]},{\"t\":21,\"e\":4,\"a\":[1167,732,\"<BUTTON\",\":type\",\"submit\"]},{\"t\":22,\"e\":5,\"a\":[-5,733]},{\"t\":23,\"e\":6,\"a\":[1169,734]},{\"t\":24,\"e\":7,\"a\":[1170,735]},{\"t\":25,\"e\":8,\"a\":[\"http://localhost:8080\"]}]";
+
+  private static UserEvent<AbstractBrowserEvent> userEvent(AbstractBrowserEvent event)
+      throws IOException {
+    return JacksonMapper.get()
+        .readValue(
+            String.format(
+                "{\"event\":%s,\"organizationId\":\"org123\",\"pageId\":\"d274c40c-357b-4357-8359-f33aed7b86df\",\"sessionId\":\"02737f08-28ba-47c4-9c13-5a2b6a133a9a\",\"deviceId\":\"14671e07-9081-4009-8752-a4d896c620c8\"}",
+                JacksonMapper.get().writeValueAsString(event)),
+            new TypeReference<>() {});
+  }
+
+  @Test
+  public void binaryRoundTrip() throws IOException {
+    List<AbstractBrowserEvent> events =
+        JacksonMapper.get().readValue(EVENTS, new TypeReference<>() {});
+
+    for (AbstractBrowserEvent event : events) {
+      UserEvent<AbstractBrowserEvent> userEvent = userEvent(event);
+      UserEvent<AbstractBrowserEvent> decoded =
+          UserEventWireFormat.decode(UserEventWireFormat.encode(userEvent));
+
+      assertEquals(userEvent.getPageId(), decoded.getPageId());
+      assertEquals(userEvent.getSessionId(), decoded.getSessionId());
+      assertEquals(userEvent.getDeviceId(), decoded.getDeviceId());
+      assertEquals(userEvent.getOrganizationId(), decoded.getOrganizationId());
+      assertNull(decoded.getSequence());
+      assertEquals(event.getClass(), decoded.getEvent().getClass());
+      assertEquals(event.getTimestamp(), decoded.getEvent().getTimestamp());
+      assertEquals(event.getArgs(), decoded.getEvent().getArgs());
+    }
+  }
+
+  @Test
+  public void binaryRoundTripWithSequence() throws IOException {
+    List<AbstractBrowserEvent> events =
+        JacksonMapper.get().readValue(EVENTS, new TypeReference<>() {});
+    UserEvent<AbstractBrowserEvent> userEvent = userEvent(events.get(4));
+    UserEvent<AbstractBrowserEvent> sequenced =
+        new UserEvent<>(
+            userEvent.getEvent(),
+            userEvent.getPageId(),
+            userEvent.getSessionId(),
+            userEvent.getDeviceId(),
+            userEvent.getOrganizationId(),
+            UserEvent.sequence(3, 7));
+
+    UserEvent<AbstractBrowserEvent> decoded =
+        UserEventWireFormat.decode(UserEventWireFormat.encode(sequenced));
+
+    assertEquals(sequenced.getSequence(), decoded.getSequence());
+    assertEquals(sequenced.documentId(), decoded.documentId());
+  }
+
+  @Test
+  public void deserializerShouldDispatchOnHeader() throws IOException {
+    List<AbstractBrowserEvent> events =
+        JacksonMapper.get().readValue(EVENTS, new TypeReference<>() {});
+    UserEvent<AbstractBrowserEvent> userEvent = userEvent(events.get(4));
+
+    UserEventSerializer jsonSerializer = new UserEventSerializer();
+    jsonSerializer.configure(Map.of(), false);
+    UserEventSerializer binarySerializer = new UserEventSerializer();
+    binarySerializer.configure(Map.of(UserEventWireFormat.CONFIG, "binary"), false);
+    UserEventDeserializer deserializer = new UserEventDeserializer();
+
+    RecordHeaders jsonHeaders = new RecordHeaders();
+    byte[] json = jsonSerializer.serialize("events", jsonHeaders, userEvent);
+    assertNull(jsonHeaders.lastHeader(UserEventWireFormat.HEADER));
+
+    RecordHeaders binaryHeaders = new RecordHeaders();
+    byte[] binary = binarySerializer.serialize("events", binaryHeaders, userEvent);
+    assertNotNull(binaryHeaders.lastHeader(UserEventWireFormat.HEADER));
+    assertTrue(binary.length < json.length);
+
+    assertEquals(
+        userEvent.getEvent().getArgs(),
+        deserializer.deserialize("events", jsonHeaders, json).getEvent().getArgs());
+    assertEquals(
+        userEvent.getEvent().getArgs(),
+        deserializer.deserialize("events", binaryHeaders, binary).getEvent().getArgs());
+  }
+
+  @Test
+  public void deserializerShouldRejectUnknownWireFormat() throws IOException {
+    List<AbstractBrowserEvent> events =
+        JacksonMapper.get().readValue(EVENTS, new TypeReference<>() {});
+    UserEventSerializer serializer = new UserEventSerializer();
+    serializer.configure(Map.of(), false);
+    UserEventDeserializer deserializer = new UserEventDeserializer();
+
+    RecordHeaders headers = new RecordHeaders();
+    byte[] json = serializer.serialize("events", headers, userEvent(events.get(4)));
+    headers.add(UserEventWireFormat.HEADER, "avro".getBytes(StandardCharsets.UTF_8));
+
+    assertThrows(
+        SerializationException.class, () -> deserializer.deserialize("events", headers, json));
+  }
+}
@@ -0,0 +1,159 @@
+package com.meemaw.events.search.indexer;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * AIMD controller for bulk size and concurrency. Bulks that come back faster than the target
+ * latency grow the bulk size additively (and, once the bulk size is maxed out, the number of
+ * concurrent requests); slow bulks shrink it a little, while rejections (429) and unavailable
+ * responses halve it and drop a concurrent request.
+ *
+ * <p>Current setpoints are exposed as a JMX MBean ({@code
+ * com.meemaw.events.search.indexer:type=AdaptiveBulkController,name=...}).
+ */
+@Slf4j
+public class AdaptiveBulkController implements AdaptiveBulkControllerMBean {
+
+  public static final int MIN_BULK_ACTIONS = 100;
+  public static final int MAX_BULK_ACTIONS = 10_000;
+  public static final int INITIAL_BULK_ACTIONS = 1000;
+  public static final int BULK_ACTIONS_STEP = 250;
+  public static final int MIN_CONCURRENT_REQUESTS = 1;
+  public static final int MAX_CONCURRENT_REQUESTS = 4;
+  public static final long TARGET_TOOK_MILLIS = 500;
+
+  private static final AtomicInteger INSTANCES = new AtomicInteger();
+
+  private final int minBulkActions;
+  private final int maxBulkActions;
+  private final int maxConcurrentRequests;
+  private final long targetTookMillis;
+
+  private volatile int bulkActions;
+  private volatile int concurrentRequests;
+  private volatile long lastTookMillis;
+  private volatile long rejections;
+  private volatile long unavailable;
+  private ObjectName objectName;
+
+  public AdaptiveBulkController() {
+    this(MIN_BULK_ACTIONS, MAX_BULK_ACTIONS, MAX_CONCURRENT_REQUESTS, TARGET_TOOK_MILLIS);
+  }
+
+  public AdaptiveBulkController(
+      int minBulkActions, int maxBulkActions, int maxConcurrentRequests, long targetTookMillis) {
+    this.minBulkActions = minBulkActions;
+    this.maxBulkActions = maxBulkActions;
+    this.maxConcurrentRequests = maxConcurrentRequests;
+    this.targetTookMillis = targetTookMillis;
+    this.bulkActions = Math.max(minBulkActions, Math.min(INITIAL_BULK_ACTIONS, maxBulkActions));
+    this.concurrentRequests = MIN_CONCURRENT_REQUESTS;
+  }
+
+  /**
+   * Feedback from a completed bulk.
+   *
+   * @param tookMillis time Elasticsearch took to execute the bulk
+   * @param rejected number of items rejected with 429
+   * @param unavailable whether Elasticsearch reported itself unavailable
+   */
+  public synchronized void onBulkCompleted(long tookMillis, int rejected, boolean unavailable) {
+    lastTookMillis = tookMillis;
+    if (rejected > 0 || unavailable) {
+      rejections += rejected;
+      this.unavailable += unavailable ? 1 : 0;
+      backOff();
+    } else if (tookMillis <= targetTookMillis) {
+      if (bulkActions < maxBulkActions) {
+        bulkActions = Math.min(maxBulkActions, bulkActions + BULK_ACTIONS_STEP);
+      } else if (concurrentRequests < maxConcurrentRequests) {
+        concurrentRequests++;
+      }
+    } else if (tookMillis > 2 * targetTookMillis) {
+      bulkActions = Math.max(minBulkActions, bulkActions * 3 / 4);
+    }
+  }
+
+  /** Feedback from a bulk that failed as a whole (e.g. connection refused). */
+  public synchronized void onBulkFailed() {
+    unavailable++;
+    backOff();
+  }
+
+  private void backOff() {
+    bulkActions = Math.max(minBulkActions, bulkActions / 2);
+    concurrentRequests = Math.max(MIN_CONCURRENT_REQUESTS, concurrentRequests - 1);
+    log.info(
+        "Backing off: bulkActions={}, concurrentRequests={}", bulkActions, concurrentRequests);
+  }
+
+  public int getMaxConcurrentRequests() {
+    return maxConcurrentRequests;
+  }
+
+  public int getMaxBulkActions() {
+    return maxBulkActions;
+  }
+
+  @Override
+  public int getBulkActions() {
+    return bulkActions;
+  }
+
+  @Override
+  public int getConcurrentRequests() {
+    return concurrentRequests;
+  }
+
+  @Override
+  public long getLastTookMillis() {
+    return lastTookMillis;
+  }
+
+  @Override
+  public long getRejections() {
+    return rejections;
+  }
+
+  @Override
+  public long getUnavailable() {
+    return unavailable;
+  }
+
+  /**
+   * Register the controller in the platform MBean server.
+   *
+   * @return this controller
+   */
+  public AdaptiveBulkController register() {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    try {
+      objectName =
+          new ObjectName(
+              "com.meemaw.events.search.indexer:type=AdaptiveBulkController,name=bulk-"
+                  + INSTANCES.getAndIncrement());
+      server.registerMBean(this, objectName);
+    } catch (JMException ex) {
+      log.warn("Failed to register AdaptiveBulkController MBean", ex);
+      objectName = null;
+    }
+    return this;
+  }
+
+  public void unregister() {
+    if (objectName == null) {
+      return;
+    }
+    try {
+      ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+    } catch (JMException ex) {
+      log.warn("Failed to unregister AdaptiveBulkController MBean", ex);
+    }
+    objectName = null;
+  }
+}
@@ -0,0 +1,15 @@
+package com.meemaw.events.search.indexer;
+
+/** JMX view of the {@link AdaptiveBulkController} setpoints. */
+public interface AdaptiveBulkControllerMBean {
+
+  int getBulkActions();
+
+  int getConcurrentRequests();
+
+  long getLastTookMillis();
+
+  long getRejections();
+
+  long getUnavailable();
+}
@@ -1,26 +1,81 @@
 package com.meemaw.events.search.indexer;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.meemaw.events.model.external.UserEvent;
 import com.meemaw.events.model.internal.AbstractBrowserEvent;
-import java.util.Map;
-import java.util.UUID;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Clock;
+import java.util.Objects;
 import lombok.extern.slf4j.Slf4j;
-import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.DocWriteRequest.OpType;
 import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.xcontent.XContentType;
 
 @Slf4j
 public class BrowserEventElasticsearchBatchProcessor
     extends ElasticsearchBatchProcessor<UserEvent<AbstractBrowserEvent>> {
 
+  private static final int EXPECTED_DOCUMENT_SIZE = 256;
+  private static final JsonFactory JSON_FACTORY =
+      new JsonFactory().disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+  private final OpType opType;
+  private final Clock clock;
+
   public BrowserEventElasticsearchBatchProcessor(RestHighLevelClient client) {
+    this(client, EventIndex.opTypeFromEnvironment());
+  }
+
+  /**
+   * @param client RestHighLevelClient
+   * @param opType {@link OpType#CREATE} to skip documents that were already indexed, {@link
+   *     OpType#INDEX} to overwrite them
+   */
+  public BrowserEventElasticsearchBatchProcessor(RestHighLevelClient client, OpType opType) {
+    this(client, opType, Clock.systemUTC());
+  }
+
+  /**
+   * @param client RestHighLevelClient
+   * @param opType OpType
+   * @param clock Clock deciding which daily index a document is written to
+   */
+  public BrowserEventElasticsearchBatchProcessor(
+      RestHighLevelClient client, OpType opType, Clock clock) {
     super(client);
+    this.opType = Objects.requireNonNull(opType);
+    this.clock = Objects.requireNonNull(clock);
   }
 
   @Override
-  public DocWriteRequest<?> transform(UserEvent<AbstractBrowserEvent> value) {
-    Map<String, Object> index = value.index();
-    String id = UUID.randomUUID().toString();
-    return new IndexRequest(EventIndex.NAME).id(id).source(index);
+  protected void transform(UserEvent<AbstractBrowserEvent> value, IndexRequest request) {
+    String id = value.documentId().toString();
+    request
+        .index(EventIndex.writeIndex(clock))
+        .id(id)
+        .opType(opType)
+        .source(source(value), XContentType.JSON);
+  }
+
+  /**
+   * Stream the index document straight into the buffer the bulk request is built from, instead of
+   * building a map that Elasticsearch serializes again.
+   *
+   * @param value user event
+   * @return document source
+   */
+  private static BytesReference source(UserEvent<AbstractBrowserEvent> value) {
+    BytesStreamOutput output = new BytesStreamOutput(EXPECTED_DOCUMENT_SIZE);
+    try (JsonGenerator generator = JSON_FACTORY.createGenerator(output)) {
+      value.writeIndex(generator);
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+    return output.bytes();
   }
 }
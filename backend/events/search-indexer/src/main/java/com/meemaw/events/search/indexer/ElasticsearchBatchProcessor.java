@@ -1,48 +1,90 @@
 package com.meemaw.events.search.indexer;
 
 import com.meemaw.events.stream.processor.BatchProcessor;
+import com.meemaw.events.stream.processor.BatchProcessorAcknowledgement;
 import com.meemaw.events.stream.processor.BatchProcessorFailureCallback;
 import com.meemaw.events.stream.processor.ProcessorUnavailableException;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
-import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
 import lombok.extern.slf4j.Slf4j;
+import org.elasticsearch.ElasticsearchException;
 import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.DocWriteRequest.OpType;
+import org.elasticsearch.action.admin.cluster.health.ClusterHealthRequest;
 import org.elasticsearch.action.bulk.BulkItemResponse;
 import org.elasticsearch.action.bulk.BulkProcessor;
 import org.elasticsearch.action.bulk.BulkProcessor.Listener;
 import org.elasticsearch.action.bulk.BulkRequest;
 import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.client.RequestOptions;
 import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.cluster.health.ClusterHealthStatus;
+import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.rest.RestStatus;
 
+/**
+ * Batches values into Elasticsearch bulk requests. Every value travels inside its own index
+ * request, so the bulk request handed back to the listener is the only in-flight state: results
+ * are routed per execution without any map shared between the batching thread and the listener
+ * threads, which keeps failure routing correct with concurrent bulk requests.
+ *
+ * @param <V> value type
+ */
 @Slf4j
 public abstract class ElasticsearchBatchProcessor<V> implements BatchProcessor<V> {
 
   private static final TimeValue FLUSH_INTERVAL = TimeValue.timeValueSeconds(5);
+  private static final TimeValue HEALTH_PROBE_TIMEOUT = TimeValue.timeValueSeconds(5);
   private static final String INTERNAL_SERVER_ERROR = RestStatus.INTERNAL_SERVER_ERROR.name();
   private static final String SERVICE_UNAVAILABLE = RestStatus.SERVICE_UNAVAILABLE.name();
+  private static final ByteSizeValue MAX_BULK_SIZE = new ByteSizeValue(10, ByteSizeUnit.MB);
 
+  private final AdaptiveBulkController controller;
+  private final AtomicInteger pendingActions = new AtomicInteger();
+  private final AtomicInteger executingBulks = new AtomicInteger();
+  private final RestHighLevelClient client;
   private final BulkProcessor processor;
-  private final Map<String, V> values;
-  private BatchProcessorFailureCallback<V> onFailure;
+  private volatile BatchProcessorFailureCallback<V> onFailure;
 
   public ElasticsearchBatchProcessor(RestHighLevelClient client) {
-    this.processor = createProcessor(client);
-    this.values = new HashMap<>();
+    this(client, new AdaptiveBulkController().register());
   }
 
-  private BulkProcessor createProcessor(RestHighLevelClient client) {
+  /**
+   * @param client RestHighLevelClient
+   * @param controller AdaptiveBulkController deciding when bulks are flushed and how many may
+   *     execute concurrently
+   */
+  public ElasticsearchBatchProcessor(
+      RestHighLevelClient client, AdaptiveBulkController controller) {
+    this.controller = Objects.requireNonNull(controller);
+    this.client = Objects.requireNonNull(client);
+    this.processor = createProcessor(client, controller.getMaxConcurrentRequests());
+  }
+
+  /**
+   * Size based flushing of the BulkProcessor is replaced by {@link #maybeFlush()} driven by the
+   * controller; the byte size limit stays as a safety net and the flush interval drains slow
+   * traffic.
+   */
+  private BulkProcessor createProcessor(RestHighLevelClient client, int concurrentRequests) {
     return BulkProcessor.builder(
             (request, bulkListener) ->
                 client.bulkAsync(request, RequestOptions.DEFAULT, bulkListener),
             new Listener() {
               @Override
               public void beforeBulk(long executionId, BulkRequest request) {
+                pendingActions.addAndGet(-request.numberOfActions());
+                executingBulks.incrementAndGet();
                 log.info(
                     "beforeBulk: executionId={}, numberOfActions={}, estimatedSizeInBytes={}",
                     executionId,
@@ -52,7 +94,8 @@ public abstract class ElasticsearchBatchProcessor<V> implements BatchProcessor<V
 
               @Override
               public void afterBulk(long executionId, BulkRequest request, BulkResponse response) {
-                long tookMillis = response.getIngestTookInMillis();
+                executingBulks.decrementAndGet();
+                long tookMillis = response.getTook().millis();
                 if (!response.hasFailures()) {
                   log.info(
                       "afterBulk: successfully processed executionId={} after {}ms",
@@ -61,52 +104,135 @@ public abstract class ElasticsearchBatchProcessor<V> implements BatchProcessor<V
                 }
 
                 Throwable cause = null;
-                Collection<V> failures = new LinkedList<>();
+                Throwable unavailableCause = null;
+                int rejected = 0;
+                InFlightRequests<V> inFlight = new InFlightRequests<>(request);
+                List<InFlightRequest<V>> failed = new ArrayList<>();
+                List<InFlightRequest<V>> unavailable = new ArrayList<>();
 
                 for (BulkItemResponse bulkItemResponse : response) {
-                  String id = bulkItemResponse.getId();
-                  int itemId = bulkItemResponse.getItemId();
-                  if (bulkItemResponse.isFailed()) {
-                    failures.add(values.get(id));
+                  InFlightRequest<V> item = inFlight.get(bulkItemResponse);
+                  if (item == null) {
+                    log.warn(
+                        "afterBulk: unknown item executionId={}, itemId={}, id={}",
+                        executionId,
+                        bulkItemResponse.getItemId(),
+                        bulkItemResponse.getId());
+                    continue;
+                  }
+
+                  if (isAlreadyCreated(item, bulkItemResponse)) {
+                    log.debug("Document {} already indexed", bulkItemResponse.getId());
+                    item.acknowledgement.acknowledge();
+                  } else if (bulkItemResponse.isFailed()) {
                     String errorMessage = bulkItemResponse.getFailure().getMessage();
-                    String restResponse = bulkItemResponse.getFailure().getStatus().name();
+                    RestStatus status = bulkItemResponse.getFailure().getStatus();
+                    String restResponse = status.name();
+                    if (status == RestStatus.TOO_MANY_REQUESTS) {
+                      rejected++;
+                    }
 
                     log.error(
                         "Failed Message #{}, REST response:{}; errorMessage:{}",
-                        itemId,
+                        bulkItemResponse.getItemId(),
                         restResponse,
                         errorMessage);
 
+                    // classified per item: an unavailable shard must not keep e.g. a mapping
+                    // error (400) in the same bulk out of the retry queue
                     if (SERVICE_UNAVAILABLE.equals(restResponse)
                         || INTERNAL_SERVER_ERROR.equals(restResponse)) {
-                      cause = new ProcessorUnavailableException(restResponse);
+                      unavailable.add(item);
+                      if (unavailableCause == null) {
+                        unavailableCause = new ProcessorUnavailableException(restResponse);
+                      }
+                    } else {
+                      failed.add(item);
+                      if (cause == null) {
+                        cause = bulkItemResponse.getFailure().getCause();
+                      }
                     }
+                  } else {
+                    item.acknowledgement.acknowledge();
                   }
-                  values.remove(id);
                 }
 
-                if (failures.size() > 0) {
-                  log.info("onFailure.execute count: {}", failures.size(), cause);
-                  onFailure.execute(failures, cause);
+                controller.onBulkCompleted(tookMillis, rejected, !unavailable.isEmpty());
+                if (failed.size() > 0) {
+                  log.info("onFailure.execute count: {}", failed.size(), cause);
+                  fail(failed, cause);
+                }
+                if (unavailable.size() > 0) {
+                  log.info("onFailure.execute unavailable count: {}", unavailable.size());
+                  fail(unavailable, unavailableCause);
                 }
               }
 
               @Override
               public void afterBulk(long executionId, BulkRequest request, Throwable failure) {
+                executingBulks.decrementAndGet();
+                controller.onBulkFailed();
                 log.info("afterBulk: failed executionId={}", executionId, failure);
-                onFailure.execute(values.values(), failure);
-                values.clear();
+                Throwable cause =
+                    failure instanceof IOException
+                        ? new ProcessorUnavailableException(failure.getMessage(), failure)
+                        : failure;
+                fail(new InFlightRequests<V>(request).all(), cause);
               }
             })
         .setFlushInterval(FLUSH_INTERVAL)
+        .setConcurrentRequests(concurrentRequests)
+        .setBulkActions(-1)
+        .setBulkSize(MAX_BULK_SIZE)
         .build();
   }
 
+  /**
+   * A conflict on create means an earlier attempt (retry or replay) already indexed the document.
+   */
+  private static boolean isAlreadyCreated(IndexRequest request, BulkItemResponse response) {
+    return response.isFailed()
+        && request.opType() == OpType.CREATE
+        && response.getFailure().getStatus() == RestStatus.CONFLICT;
+  }
+
+  @SuppressWarnings("PMD.AvoidCatchingGenericException")
+  private void fail(List<InFlightRequest<V>> failed, Throwable cause) {
+    List<V> values = new ArrayList<>(failed.size());
+    for (InFlightRequest<V> item : failed) {
+      values.add(item.value);
+    }
+    // not acknowledged until handed over: offsets stay behind the failed values until then
+    BatchProcessorAcknowledgement acknowledgement =
+        () -> failed.forEach(item -> item.acknowledgement.acknowledge());
+    try {
+      onFailure.execute(values, cause, acknowledgement);
+    } catch (RuntimeException ex) {
+      log.error("Failed to hand over {} failed values", values.size(), ex);
+    }
+  }
+
   @Override
-  public void batch(V value) {
-    DocWriteRequest<?> writeRequest = transform(value);
-    values.put(writeRequest.id(), value);
-    processor.add(writeRequest);
+  public void batch(V value, BatchProcessorAcknowledgement acknowledgement) {
+    InFlightRequest<V> request = new InFlightRequest<>(value, acknowledgement);
+    transform(value, request);
+    processor.add(request);
+    pendingActions.incrementAndGet();
+    maybeFlush();
+  }
+
+  /**
+   * Flush once the pending bulk reaches the controller's bulk size, as long as fewer bulks than
+   * the controller allows are executing. Otherwise keep accumulating up to the maximum bulk size,
+   * at which point the BulkProcessor blocks on its own concurrency limit.
+   */
+  private void maybeFlush() {
+    int pending = pendingActions.get();
+    if (pending >= controller.getMaxBulkActions()
+        || (pending >= controller.getBulkActions()
+            && executingBulks.get() < controller.getConcurrentRequests())) {
+      processor.flush();
+    }
   }
 
   @Override
@@ -114,17 +240,43 @@ public abstract class ElasticsearchBatchProcessor<V> implements BatchProcessor<V
     this.close();
   }
 
-  public abstract DocWriteRequest<?> transform(V value);
+  /**
+   * Populate the index request for value (index, id, source, ...).
+   *
+   * @param value to be indexed
+   * @param request IndexRequest to populate
+   */
+  protected abstract void transform(V value, IndexRequest request);
 
   @Override
   public void onFailure(BatchProcessorFailureCallback<V> onFailure) {
     this.onFailure = Objects.requireNonNull(onFailure);
   }
 
+  /**
+   * Elasticsearch is available when the cluster answers a health request and is not red.
+   *
+   * @return boolean
+   */
+  @Override
+  public boolean isAvailable() {
+    ClusterHealthRequest request = new ClusterHealthRequest().timeout(HEALTH_PROBE_TIMEOUT);
+    try {
+      ClusterHealthStatus status =
+          client.cluster().health(request, RequestOptions.DEFAULT).getStatus();
+      log.info("Elasticsearch health probe: {}", status);
+      return status != ClusterHealthStatus.RED;
+    } catch (IOException | ElasticsearchException ex) {
+      log.info("Elasticsearch health probe failed: {}", ex.getMessage());
+      return false;
+    }
+  }
+
   @Override
   public void close() {
     log.info("Closing ...");
     processor.close();
+    controller.unregister();
   }
 
   @Override
@@ -132,4 +284,66 @@ public abstract class ElasticsearchBatchProcessor<V> implements BatchProcessor<V
     log.info("Flushing ...");
     processor.flush();
   }
+
+  /** Index request carrying the value it was created from. */
+  private static final class InFlightRequest<V> extends IndexRequest {
+
+    private final V value;
+    private final BatchProcessorAcknowledgement acknowledgement;
+
+    private InFlightRequest(V value, BatchProcessorAcknowledgement acknowledgement) {
+      this.value = value;
+      this.acknowledgement = acknowledgement;
+    }
+  }
+
+  /**
+   * Requests of a single bulk execution. Item ids are positions in the bulk request; when a retried
+   * bulk reports positions that no longer line up, items are matched by document id instead.
+   */
+  private static final class InFlightRequests<V> {
+
+    private final List<DocWriteRequest<?>> requests;
+    private Map<String, InFlightRequest<V>> byId;
+
+    private InFlightRequests(BulkRequest request) {
+      this.requests = request.requests();
+    }
+
+    @SuppressWarnings("unchecked")
+    private InFlightRequest<V> get(BulkItemResponse response) {
+      int itemId = response.getItemId();
+      if (itemId >= 0 && itemId < requests.size()) {
+        DocWriteRequest<?> request = requests.get(itemId);
+        if (request instanceof InFlightRequest && Objects.equals(request.id(), response.getId())) {
+          return (InFlightRequest<V>) request;
+        }
+      }
+      return byId().get(response.getId());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, InFlightRequest<V>> byId() {
+      if (byId == null) {
+        byId = new HashMap<>(requests.size());
+        for (DocWriteRequest<?> request : requests) {
+          if (request instanceof InFlightRequest) {
+            byId.put(request.id(), (InFlightRequest<V>) request);
+          }
+        }
+      }
+      return byId;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<InFlightRequest<V>> all() {
+      List<InFlightRequest<V>> all = new ArrayList<>(requests.size());
+      for (DocWriteRequest<?> request : requests) {
+        if (request instanceof InFlightRequest) {
+          all.add((InFlightRequest<V>) request);
+        }
+      }
+      return all;
+    }
+  }
 }
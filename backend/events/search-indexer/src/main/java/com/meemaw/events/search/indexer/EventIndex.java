@@ -1,8 +1,210 @@
 package com.meemaw.events.search.indexer;
 
+import java.io.IOException;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import lombok.extern.slf4j.Slf4j;
+import org.elasticsearch.ElasticsearchStatusException;
+import org.elasticsearch.action.DocWriteRequest.OpType;
+import org.elasticsearch.action.admin.indices.alias.Alias;
+import org.elasticsearch.action.admin.indices.alias.IndicesAliasesRequest;
+import org.elasticsearch.action.admin.indices.alias.IndicesAliasesRequest.AliasActions;
+import org.elasticsearch.action.admin.indices.alias.get.GetAliasesRequest;
+import org.elasticsearch.action.admin.indices.settings.put.UpdateSettingsRequest;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.client.indices.CreateIndexRequest;
+import org.elasticsearch.client.indices.GetIndexRequest;
+import org.elasticsearch.client.indices.PutIndexTemplateRequest;
+import org.elasticsearch.client.indices.ResizeRequest;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.rest.RestStatus;
+
+/**
+ * Events are written to daily indices (events-yyyy.MM.dd) and searched through the {@link #NAME}
+ * alias, which the index template attaches to every daily index. Dropping an expired day is a
+ * cheap index delete instead of a delete-by-query.
+ */
+@Slf4j
 public final class EventIndex {
 
+  /** Search alias covering all daily event indices. */
   public static final String NAME = "events";
 
+  public static final String TEMPLATE_NAME = "events-template";
+  public static final String INDEX_PREFIX = NAME + "-";
+
+  /** Events written to the single concrete index before daily indices, kept read-only. */
+  public static final String LEGACY_INDEX = INDEX_PREFIX + "legacy";
+
+  private static final DateTimeFormatter DAILY_SUFFIX = DateTimeFormatter.ofPattern("yyyy.MM.dd");
+  private static final String OP_TYPE = "ES_DOCUMENT_OP_TYPE";
+  private static final String NUMBER_OF_SHARDS = "ES_EVENTS_NUMBER_OF_SHARDS";
+  private static final String NUMBER_OF_REPLICAS = "ES_EVENTS_NUMBER_OF_REPLICAS";
+
   private EventIndex() {}
+
+  /**
+   * Op type used to write event documents: "create" (default) keeps the first write of a document
+   * id, "index" overwrites it.
+   *
+   * @return OpType
+   */
+  public static OpType opTypeFromEnvironment() {
+    return OpType.fromString(Optional.ofNullable(System.getenv(OP_TYPE)).orElse("create"));
+  }
+
+  /**
+   * Name of the daily index that events ingested on the given UTC date are written to.
+   *
+   * @param date LocalDate
+   * @return index name
+   */
+  public static String dailyIndex(LocalDate date) {
+    return INDEX_PREFIX + DAILY_SUFFIX.format(date);
+  }
+
+  /**
+   * Name of the daily index that events ingested right now are written to.
+   *
+   * @param clock Clock
+   * @return index name
+   */
+  public static String writeIndex(Clock clock) {
+    return dailyIndex(LocalDate.now(clock.withZone(ZoneOffset.UTC)));
+  }
+
+  /**
+   * Put the events index template (explicit mappings + search alias) and create today's index, so
+   * the search alias resolves before the first event is indexed. A concrete index left over from
+   * before daily indices is migrated first. Safe to call on every startup.
+   *
+   * @param client RestHighLevelClient
+   * @throws IOException if Elasticsearch could not be reached
+   */
+  public static void bootstrap(RestHighLevelClient client) throws IOException {
+    migrateLegacyIndex(client);
+
+    PutIndexTemplateRequest templateRequest =
+        new PutIndexTemplateRequest(TEMPLATE_NAME)
+            .patterns(List.of(INDEX_PREFIX + "*"))
+            .settings(settings())
+            .mapping(mappings())
+            .alias(new Alias(NAME));
+    client.indices().putTemplate(templateRequest, RequestOptions.DEFAULT);
+    log.info("Put index template {}", TEMPLATE_NAME);
+
+    String index = writeIndex(Clock.systemUTC());
+    try {
+      client.indices().create(new CreateIndexRequest(index), RequestOptions.DEFAULT);
+      log.info("Created index {}", index);
+    } catch (ElasticsearchStatusException ex) {
+      if (!isAlreadyExists(ex)) {
+        throw ex;
+      }
+      log.debug("Index {} already exists", index);
+    }
+  }
+
+  /**
+   * Events used to be written to a concrete index named like the search alias, which makes adding
+   * the alias fail. Clone that index to {@link #LEGACY_INDEX} and swap the concrete index for the
+   * alias in one atomic aliases request, so searches see the old events throughout. No-op once
+   * migrated; indexers starting concurrently may both attempt it.
+   */
+  private static void migrateLegacyIndex(RestHighLevelClient client) throws IOException {
+    if (!isConcreteIndex(client, NAME)) {
+      return;
+    }
+    log.info("Migrating concrete index {} to {}", NAME, LEGACY_INDEX);
+
+    // cloning requires a write block, which the clone keeps
+    client
+        .indices()
+        .putSettings(
+            new UpdateSettingsRequest(NAME)
+                .settings(Settings.builder().put("index.blocks.write", true)),
+            RequestOptions.DEFAULT);
+    try {
+      client.indices().clone(new ResizeRequest(LEGACY_INDEX, NAME), RequestOptions.DEFAULT);
+    } catch (ElasticsearchStatusException ex) {
+      if (!isAlreadyExists(ex)) {
+        throw ex;
+      }
+      log.debug("Index {} already exists", LEGACY_INDEX);
+    }
+
+    IndicesAliasesRequest aliasesRequest =
+        new IndicesAliasesRequest()
+            .addAliasAction(AliasActions.add().index(LEGACY_INDEX).alias(NAME))
+            .addAliasAction(AliasActions.removeIndex().index(NAME));
+    try {
+      client.indices().updateAliases(aliasesRequest, RequestOptions.DEFAULT);
+    } catch (ElasticsearchStatusException ex) {
+      if (ex.status() != RestStatus.NOT_FOUND || isConcreteIndex(client, NAME)) {
+        throw ex;
+      }
+      log.debug("Index {} already migrated", NAME);
+      return;
+    }
+    log.info("Migrated concrete index {} to {}", NAME, LEGACY_INDEX);
+  }
+
+  private static boolean isConcreteIndex(RestHighLevelClient client, String name)
+      throws IOException {
+    // exists resolves aliases too
+    return client.indices().exists(new GetIndexRequest(name), RequestOptions.DEFAULT)
+        && !client.indices().existsAlias(new GetAliasesRequest(name), RequestOptions.DEFAULT);
+  }
+
+  private static boolean isAlreadyExists(ElasticsearchStatusException ex) {
+    return ex.status() == RestStatus.BAD_REQUEST
+        && ex.getDetailedMessage().contains("resource_already_exists_exception");
+  }
+
+  private static Settings settings() {
+    return Settings.builder()
+        .put("index.number_of_shards", intFromEnvironment(NUMBER_OF_SHARDS, 1))
+        .put("index.number_of_replicas", intFromEnvironment(NUMBER_OF_REPLICAS, 1))
+        .build();
+  }
+
+  private static int intFromEnvironment(String name, int defaultValue) {
+    return Optional.ofNullable(System.getenv(name)).map(Integer::parseInt).orElse(defaultValue);
+  }
+
+  private static Map<String, Object> mappings() {
+    Map<String, Object> keyword = Map.of("type", "keyword");
+    Map<String, Object> integer = Map.of("type", "integer");
+    Map<String, Object> decimal = Map.of("type", "double");
+
+    Map<String, Object> id = Map.of("properties", Map.of("id", keyword));
+
+    // document layout as written by UserEvent#writeIndex
+    Map<String, Object> properties =
+        Map.ofEntries(
+            Map.entry("page", id),
+            Map.entry("session", id),
+            Map.entry("device", id),
+            Map.entry("organization", id),
+            Map.entry("type", keyword),
+            Map.entry("timestamp", integer),
+            Map.entry("location", keyword),
+            Map.entry("title", Map.of("type", "text")),
+            Map.entry("clientX", integer),
+            Map.entry("clientY", integer),
+            Map.entry("innerWidth", integer),
+            Map.entry("innerHeight", integer),
+            Map.entry("name", keyword),
+            Map.entry("entryType", keyword),
+            Map.entry("startTime", decimal),
+            Map.entry("duration", decimal));
+
+    return Map.of("dynamic", true, "properties", properties);
+  }
 }
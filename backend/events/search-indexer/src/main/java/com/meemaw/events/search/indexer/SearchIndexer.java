@@ -1,15 +1,29 @@
 package com.meemaw.events.search.indexer;
 
 import com.meemaw.events.model.external.UserEvent;
+import com.meemaw.events.model.external.UserEventBatch;
+import com.meemaw.events.model.external.serialization.UserEventBatchDeserializer;
+import com.meemaw.events.model.external.serialization.UserEventBatchSerializer;
 import com.meemaw.events.model.external.serialization.UserEventDeserializer;
 import com.meemaw.events.model.external.serialization.UserEventSerializer;
 import com.meemaw.events.model.internal.AbstractBrowserEvent;
+import com.meemaw.events.stream.kafka.KafkaProducerProfile;
 import com.meemaw.events.stream.kafka.KafkaSourcedBatchProcessor;
+import com.meemaw.events.stream.kafka.KafkaSourcedBatchProcessorPool;
 import com.meemaw.events.stream.kafka.RetryQueueStandaloneKafkaConsumer;
+import com.meemaw.events.stream.kafka.RetryTiers;
+import com.meemaw.events.stream.processor.BatchProcessor;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
 import java.util.Properties;
+import java.util.function.Supplier;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.elasticsearch.client.RestHighLevelClient;
@@ -18,8 +32,9 @@ import org.elasticsearch.client.RestHighLevelClient;
 public class SearchIndexer {
 
   private static final String CONSUMER_GROUP_ID = "search-indexer";
+  private static final String BATCH_CONSUMER_GROUP_ID = CONSUMER_GROUP_ID + "-batch";
 
-  private final KafkaSourcedBatchProcessor<String, UserEvent<AbstractBrowserEvent>> processor;
+  private final List<KafkaSourcedBatchProcessorPool<String, ?>> pools;
 
   /**
    * @param sourceTopicName
@@ -34,49 +49,194 @@ public class SearchIndexer {
       String deadLetterTopicName,
       String bootstrapServers,
       RestHighLevelClient client) {
-    Properties consumerProps = SearchIndexer.consumerProperties(bootstrapServers);
-    Properties producerProperties = SearchIndexer.retryQueueProducerProperties(bootstrapServers);
-
-    this.processor =
-        new KafkaSourcedBatchProcessor<>(
-            new RetryQueueStandaloneKafkaConsumer<>(
-                consumerProps,
-                producerProperties,
-                sourceTopicName,
-                retryTopicName,
-                deadLetterTopicName),
-            new BrowserEventElasticsearchBatchProcessor(client));
+    this(sourceTopicName, retryTopicName, deadLetterTopicName, bootstrapServers, client, 1);
+  }
+
+  /**
+   * @param sourceTopicName
+   * @param retryTopicName name of the first retry tier topic
+   * @param deadLetterTopicName
+   * @param bootstrapServers
+   * @param client
+   * @param numWorkers number of consumer threads, each indexing its own share of partitions
+   */
+  public SearchIndexer(
+      String sourceTopicName,
+      String retryTopicName,
+      String deadLetterTopicName,
+      String bootstrapServers,
+      RestHighLevelClient client,
+      int numWorkers) {
+    this(
+        sourceTopicName,
+        RetryTiers.fromEnvironment(retryTopicName, deadLetterTopicName),
+        bootstrapServers,
+        client,
+        numWorkers);
+  }
+
+  /**
+   * @param sourceTopicName
+   * @param retryTiers retry topics consumed by this indexer, each by a single worker
+   * @param bootstrapServers
+   * @param client
+   * @param numWorkers number of consumer threads, each indexing its own share of partitions
+   */
+  public SearchIndexer(
+      String sourceTopicName,
+      RetryTiers retryTiers,
+      String bootstrapServers,
+      RestHighLevelClient client,
+      int numWorkers) {
+    this(
+        SearchIndexer.<UserEvent<AbstractBrowserEvent>>pools(
+            sourceTopicName,
+            retryTiers,
+            numWorkers,
+            SearchIndexer.consumerProperties(bootstrapServers),
+            SearchIndexer.retryQueueProducerProperties(bootstrapServers),
+            () -> new BrowserEventElasticsearchBatchProcessor(client)));
+  }
+
+  private SearchIndexer(List<KafkaSourcedBatchProcessorPool<String, ?>> pools) {
+    this.pools = Objects.requireNonNull(pools);
+  }
+
+  /**
+   * Search indexer consuming {@link UserEventBatch} envelopes (one record per beacon) and fanning
+   * them out into single event documents. Uses its own consumer group, so its rebalances and lag
+   * are independent of the per-event indexer.
+   *
+   * @param sourceTopicName
+   * @param retryTopicName name of the first retry tier topic
+   * @param deadLetterTopicName
+   * @param bootstrapServers
+   * @param client
+   * @param numWorkers number of consumer threads, each indexing its own share of partitions
+   * @return batch search indexer
+   */
+  public static SearchIndexer batched(
+      String sourceTopicName,
+      String retryTopicName,
+      String deadLetterTopicName,
+      String bootstrapServers,
+      RestHighLevelClient client,
+      int numWorkers) {
+    Properties consumerProps =
+        SearchIndexer.consumerProperties(bootstrapServers, UserEventBatchDeserializer.class);
+    consumerProps.put(ConsumerConfig.GROUP_ID_CONFIG, BATCH_CONSUMER_GROUP_ID);
+    return new SearchIndexer(
+        SearchIndexer.<UserEventBatch>pools(
+            sourceTopicName,
+            RetryTiers.fromEnvironment(retryTopicName, deadLetterTopicName),
+            numWorkers,
+            consumerProps,
+            SearchIndexer.retryQueueProducerProperties(
+                bootstrapServers, UserEventBatchSerializer.class),
+            () ->
+                new UserEventBatchProcessor(new BrowserEventElasticsearchBatchProcessor(client))));
+  }
+
+  /**
+   * Pool indexing the source topic, followed by one single worker pool per retry tier. Failures of
+   * a tier are forwarded to the next one and only the last tier gives up to the dead letter queue.
+   * Every tier uses its own consumer group so its rebalances and lag are independent of the source
+   * topic.
+   */
+  private static <V> List<KafkaSourcedBatchProcessorPool<String, ?>> pools(
+      String sourceTopicName,
+      RetryTiers retryTiers,
+      int numWorkers,
+      Properties consumerProps,
+      Properties producerProperties,
+      Supplier<BatchProcessor<V>> processorFactory) {
+    List<KafkaSourcedBatchProcessorPool<String, ?>> pools = new ArrayList<>(retryTiers.size() + 1);
+    pools.add(
+        new KafkaSourcedBatchProcessorPool<String, V>(
+            sourceTopicName,
+            numWorkers,
+            () ->
+                new KafkaSourcedBatchProcessor<>(
+                    new RetryQueueStandaloneKafkaConsumer<String, V>(
+                            consumerProps,
+                            producerProperties,
+                            sourceTopicName,
+                            retryTiers.topic(0),
+                            retryTiers.getDeadLetterTopicName())
+                        .register(),
+                    processorFactory.get())));
+
+    for (int tier = 0; tier < retryTiers.size(); tier++) {
+      String tierTopicName = retryTiers.topic(tier);
+      String nextTopicName = retryTiers.nextTopic(tier);
+      Duration delay = retryTiers.delay(tier);
+      Properties tierConsumerProps = new Properties();
+      tierConsumerProps.putAll(consumerProps);
+      tierConsumerProps.put(
+          ConsumerConfig.GROUP_ID_CONFIG, CONSUMER_GROUP_ID + "-" + tierTopicName);
+      log.info("Retry tier {}: {} -> {} after {}", tier, tierTopicName, nextTopicName, delay);
+
+      pools.add(
+          new KafkaSourcedBatchProcessorPool<String, V>(
+              tierTopicName,
+              1,
+              () ->
+                  new KafkaSourcedBatchProcessor<>(
+                      new RetryQueueStandaloneKafkaConsumer<String, V>(
+                              tierConsumerProps,
+                              producerProperties,
+                              tierTopicName,
+                              nextTopicName,
+                              retryTiers.getDeadLetterTopicName())
+                          .register(),
+                      processorFactory.get(),
+                      delay)));
+    }
+    return pools;
   }
 
   public void shutdown() {
     log.info("Shutting down ...");
-    processor.shutdown();
+    pools.forEach(KafkaSourcedBatchProcessorPool::shutdown);
   }
 
+  /** Start indexing and block until the source topic pool stopped. */
   public void start() {
     Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown));
     log.info("Starting search indexer ...");
-    processor.start();
+    for (int tier = 0; tier < pools.size() - 1; tier++) {
+      new Thread(pools.get(tier + 1)::start, "retry-tier-" + tier).start();
+    }
+    pools.get(0).start();
   }
 
   public static Properties retryQueueProducerProperties(String bootstrapServers) {
-    Properties producerProperties = new Properties();
+    return retryQueueProducerProperties(bootstrapServers, UserEventSerializer.class);
+  }
+
+  public static Properties retryQueueProducerProperties(
+      String bootstrapServers, Class<? extends Serializer<?>> valueSerializer) {
+    Properties producerProperties = KafkaProducerProfile.highThroughput();
     producerProperties.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
     producerProperties.put(
         ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class.getName());
-    producerProperties.put(
-        ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, UserEventSerializer.class.getName());
+    producerProperties.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, valueSerializer.getName());
     return producerProperties;
   }
 
   public static Properties consumerProperties(String bootstrapServers) {
+    return consumerProperties(bootstrapServers, UserEventDeserializer.class);
+  }
+
+  public static Properties consumerProperties(
+      String bootstrapServers, Class<? extends Deserializer<?>> valueDeserializer) {
     Properties consumerProps = new Properties();
     consumerProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
     consumerProps.put(ConsumerConfig.GROUP_ID_CONFIG, CONSUMER_GROUP_ID);
     consumerProps.put(
         ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class.getName());
     consumerProps.put(
-        ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, UserEventDeserializer.class.getName());
+        ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, valueDeserializer.getName());
     consumerProps.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
     consumerProps.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
     return consumerProps;
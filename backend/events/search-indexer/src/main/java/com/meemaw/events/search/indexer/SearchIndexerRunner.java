@@ -2,6 +2,7 @@ package com.meemaw.events.search.indexer;
 
 import com.meemaw.events.stream.EventsStream;
 import com.meemaw.shared.elasticsearch.ElasticsearchUtils;
+import java.io.IOException;
 import java.util.Optional;
 import lombok.extern.slf4j.Slf4j;
 import org.elasticsearch.client.RestHighLevelClient;
@@ -9,19 +10,43 @@ import org.elasticsearch.client.RestHighLevelClient;
 @Slf4j
 public class SearchIndexerRunner {
 
-  public static void main(String[] args) {
+  public static void main(String[] args) throws IOException {
     RestHighLevelClient client = ElasticsearchUtils.restClient();
     String bootstrapServers = KafkaUtils.fromEnvironment();
     String retryQueue = Optional.ofNullable(System.getenv("RETRY_QUEUE")).orElse("events-retry-0");
     String deadLetterQueue =
-        Optional.ofNullable(System.getenv("RETRY_QUEUE")).orElse("events-dead-letter-queue");
+        Optional.ofNullable(System.getenv("DEAD_LETTER_QUEUE")).orElse("events-dead-letter-queue");
+    int numWorkers =
+        Optional.ofNullable(System.getenv("SEARCH_INDEXER_WORKERS"))
+            .map(Integer::parseInt)
+            .orElse(Runtime.getRuntime().availableProcessors());
+    boolean batchEnabled =
+        Boolean.parseBoolean(
+            Optional.ofNullable(System.getenv("EVENTS_BATCH_ENABLED")).orElse("false"));
 
     log.info("kafkaBootstrapServers: {}", bootstrapServers);
     log.info("retryQueue: {}", retryQueue);
     log.info("deadLetterQueue: {}", deadLetterQueue);
+    log.info("numWorkers: {}", numWorkers);
+    log.info("batchEnabled: {}", batchEnabled);
+
+    EventIndex.bootstrap(client);
+
+    if (batchEnabled) {
+      SearchIndexer batchSearchIndexer =
+          SearchIndexer.batched(
+              EventsStream.BATCH,
+              EventsStream.BATCH + "-retry-0",
+              EventsStream.BATCH + "-dead-letter-queue",
+              bootstrapServers,
+              client,
+              numWorkers);
+      new Thread(batchSearchIndexer::start, "batch-search-indexer").start();
+    }
 
     SearchIndexer searchIndexer =
-        new SearchIndexer(EventsStream.ALL, retryQueue, deadLetterQueue, bootstrapServers, client);
+        new SearchIndexer(
+            EventsStream.ALL, retryQueue, deadLetterQueue, bootstrapServers, client, numWorkers);
 
     searchIndexer.start();
   }
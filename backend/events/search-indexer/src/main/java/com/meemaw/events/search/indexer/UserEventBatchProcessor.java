@@ -0,0 +1,77 @@
+package com.meemaw.events.search.indexer;
+
+import com.meemaw.events.model.external.UserEvent;
+import com.meemaw.events.model.external.UserEventBatch;
+import com.meemaw.events.model.internal.AbstractBrowserEvent;
+import com.meemaw.events.stream.processor.BatchProcessor;
+import com.meemaw.events.stream.processor.BatchProcessorAcknowledgement;
+import com.meemaw.events.stream.processor.BatchProcessorFailureCallback;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Fans {@link UserEventBatch} envelopes back out into single events. Failed events are wrapped into
+ * single event batches, so they can be sent to the batch retry topic.
+ */
+public class UserEventBatchProcessor implements BatchProcessor<UserEventBatch> {
+
+  private final BatchProcessor<UserEvent<AbstractBrowserEvent>> delegate;
+
+  public UserEventBatchProcessor(BatchProcessor<UserEvent<AbstractBrowserEvent>> delegate) {
+    this.delegate = Objects.requireNonNull(delegate);
+  }
+
+  @Override
+  public void batch(UserEventBatch value, BatchProcessorAcknowledgement acknowledgement) {
+    List<UserEvent<AbstractBrowserEvent>> userEvents = value.unbatch();
+    if (userEvents.isEmpty()) {
+      acknowledgement.acknowledge();
+      return;
+    }
+
+    // the envelope is done once every event in it is
+    AtomicInteger remaining = new AtomicInteger(userEvents.size());
+    BatchProcessorAcknowledgement eventAcknowledgement =
+        () -> {
+          if (remaining.decrementAndGet() == 0) {
+            acknowledgement.acknowledge();
+          }
+        };
+    for (UserEvent<AbstractBrowserEvent> userEvent : userEvents) {
+      delegate.batch(userEvent, eventAcknowledgement);
+    }
+  }
+
+  @Override
+  public void onFailure(BatchProcessorFailureCallback<UserEventBatch> callback) {
+    delegate.onFailure(
+        (failures, cause, acknowledgement) -> {
+          Collection<UserEventBatch> batches =
+              failures.stream().map(UserEventBatch::of).collect(Collectors.toList());
+          callback.execute(batches, cause, acknowledgement);
+        });
+  }
+
+  @Override
+  public boolean isAvailable() {
+    return delegate.isAvailable();
+  }
+
+  @Override
+  public void shutdown() {
+    delegate.shutdown();
+  }
+
+  @Override
+  public void close() {
+    delegate.close();
+  }
+
+  @Override
+  public void flush() {
+    delegate.flush();
+  }
+}
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.meemaw.events.model.external.UserEvent;
 import com.meemaw.events.model.external.serialization.UserEventSerializer;
 import com.meemaw.events.model.internal.AbstractBrowserEvent;
+import com.meemaw.events.stream.kafka.RetryTiers;
 import com.meemaw.test.rest.mappers.JacksonMapper;
 import com.meemaw.test.testconainers.elasticsearch.ElasticsearchTestExtension;
 import com.meemaw.test.testconainers.kafka.KafkaTestExtension;
@@ -16,12 +17,20 @@ import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Objects;
+import java.util.Map;
 import java.util.Properties;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.http.HttpHost;
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.admin.ConsumerGroupDescription;
+import org.apache.kafka.clients.admin.NewPartitions;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.consumer.KafkaConsumer;
 import org.apache.kafka.clients.producer.KafkaProducer;
 import org.apache.kafka.clients.producer.ProducerConfig;
@@ -29,11 +38,8 @@ import org.apache.kafka.clients.producer.ProducerRecord;
 import org.apache.kafka.clients.producer.RecordMetadata;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.elasticsearch.action.search.SearchRequest;
-import org.elasticsearch.client.RequestOptions;
 import org.elasticsearch.client.RestClient;
 import org.elasticsearch.client.RestHighLevelClient;
-import org.elasticsearch.client.indices.CreateIndexRequest;
-import org.elasticsearch.client.indices.CreateIndexResponse;
 
 @Slf4j
 public class AbstractSearchIndexerTest {
@@ -48,13 +54,32 @@ public class AbstractSearchIndexerTest {
       new SearchRequest().indices(EventIndex.NAME);
 
   protected SearchIndexer spawnIndexer(RestHighLevelClient client) {
+    return spawnIndexer(client, 1);
+  }
+
+  protected SearchIndexer spawnIndexer(RestHighLevelClient client, int numWorkers) {
     SearchIndexer searchIndexer =
         new SearchIndexer(
             SOURCE_TOPIC_NAME,
             RETRY_TOPIC_NAME,
             DEAD_LETTER_TOPIC_NAME,
             KafkaTestExtension.getInstance().getBootstrapServers(),
-            client);
+            client,
+            numWorkers);
+    CompletableFuture.runAsync(searchIndexer::start);
+    searchIndexers.add(searchIndexer);
+    return searchIndexer;
+  }
+
+  protected SearchIndexer spawnIndexer(
+      RestHighLevelClient client, String sourceTopicName, RetryTiers retryTiers) {
+    SearchIndexer searchIndexer =
+        new SearchIndexer(
+            sourceTopicName,
+            retryTiers,
+            KafkaTestExtension.getInstance().getBootstrapServers(),
+            client,
+            1);
     CompletableFuture.runAsync(searchIndexer::start);
     searchIndexers.add(searchIndexer);
     return searchIndexer;
@@ -78,6 +103,67 @@ public class AbstractSearchIndexerTest {
     return new KafkaProducer<>(props);
   }
 
+  private Admin admin() {
+    Properties props = new Properties();
+    props.put(
+        AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG,
+        KafkaTestExtension.getInstance().getBootstrapServers());
+    return Admin.create(props);
+  }
+
+  /**
+   * Create the source topic with numPartitions partitions, or grow it if an earlier test already
+   * created it with fewer.
+   *
+   * @param numPartitions int number of partitions
+   */
+  protected void createSourceTopic(int numPartitions)
+      throws ExecutionException, InterruptedException {
+    try (Admin admin = admin()) {
+      if (!admin.listTopics().names().get().contains(SOURCE_TOPIC_NAME)) {
+        admin
+            .createTopics(
+                Collections.singletonList(
+                    new NewTopic(SOURCE_TOPIC_NAME, numPartitions, (short) 1)))
+            .all()
+            .get();
+        return;
+      }
+      int current =
+          admin
+              .describeTopics(Collections.singletonList(SOURCE_TOPIC_NAME))
+              .all()
+              .get()
+              .get(SOURCE_TOPIC_NAME)
+              .partitions()
+              .size();
+      if (current < numPartitions) {
+        admin
+            .createPartitions(Map.of(SOURCE_TOPIC_NAME, NewPartitions.increaseTo(numPartitions)))
+            .all()
+            .get();
+      }
+    }
+  }
+
+  /** @return number of source topic consumers (workers) that own at least one partition */
+  protected long numAssignedWorkers() throws ExecutionException, InterruptedException {
+    String groupId =
+        SearchIndexer.consumerProperties(KafkaTestExtension.getInstance().getBootstrapServers())
+            .getProperty(ConsumerConfig.GROUP_ID_CONFIG);
+    try (Admin admin = admin()) {
+      ConsumerGroupDescription group =
+          admin
+              .describeConsumerGroups(Collections.singletonList(groupId))
+              .all()
+              .get()
+              .get(groupId);
+      return group.members().stream()
+          .filter(member -> !member.assignment().topicPartitions().isEmpty())
+          .count();
+    }
+  }
+
   protected Collection<ProducerRecord<String, UserEvent<AbstractBrowserEvent>>> kafkaRecords(
       Collection<UserEvent<AbstractBrowserEvent>> batch) {
     return batch.stream()
@@ -103,9 +189,8 @@ public class AbstractSearchIndexerTest {
     return kafkaRecords(batch);
   }
 
-  protected CreateIndexResponse createIndex(RestHighLevelClient client) throws IOException {
-    CreateIndexRequest createIndexRequest = new CreateIndexRequest(EventIndex.NAME);
-    return client.indices().create(createIndexRequest, RequestOptions.DEFAULT);
+  protected void createIndex(RestHighLevelClient client) throws IOException {
+    EventIndex.bootstrap(client);
   }
 
   protected Collection<Future<RecordMetadata>> writeSmallBatch(
@@ -150,7 +235,45 @@ public class AbstractSearchIndexerTest {
         .collect(Collectors.toList());
   }
 
-  private KafkaConsumer<String, UserEvent<AbstractBrowserEvent>> eventsConsumer(String topicName) {
+  /**
+   * Write a mouse move event that differs from all the events in the batches by its timestamp.
+   *
+   * @param producer KafkaProducer
+   * @param timestamp int event timestamp
+   * @return future of record metadata
+   * @throws IOException if event could not be created
+   */
+  protected Future<RecordMetadata> writeLiveEvent(
+      KafkaProducer<String, UserEvent<AbstractBrowserEvent>> producer, int timestamp)
+      throws IOException {
+    return writeLiveEvent(producer, SOURCE_TOPIC_NAME, timestamp);
+  }
+
+  /**
+   * Write a mouse move event straight into the given topic, e.g. a retry tier.
+   *
+   * @param producer KafkaProducer
+   * @param topicName String topic to write to
+   * @param timestamp int event timestamp
+   * @return future of record metadata
+   * @throws IOException if event could not be created
+   */
+  protected Future<RecordMetadata> writeLiveEvent(
+      KafkaProducer<String, UserEvent<AbstractBrowserEvent>> producer,
+      String topicName,
+      int timestamp)
+      throws IOException {
+    String payload =
+        String.format(
+            "{\"event\":{\"t\":%d,\"e\":5,\"a\":[1167,732]},\"organizationId\":\"org123\",\"pageId\":\"d274c40c-357b-4357-8359-f33aed7b86df\",\"sessionId\":\"02737f08-28ba-47c4-9c13-5a2b6a133a9a\",\"deviceId\":\"14671e07-9081-4009-8752-a4d896c620c8\"}",
+            timestamp);
+    UserEvent<AbstractBrowserEvent> event =
+        JacksonMapper.get().readValue(payload, new TypeReference<>() {});
+    return producer.send(new ProducerRecord<>(topicName, event));
+  }
+
+  protected KafkaConsumer<String, UserEvent<AbstractBrowserEvent>> eventsConsumer(
+      String topicName) {
     Properties properties =
         SearchIndexer.consumerProperties(KafkaTestExtension.getInstance().getBootstrapServers());
     KafkaConsumer<String, UserEvent<AbstractBrowserEvent>> consumer =
@@ -0,0 +1,55 @@
+package com.meemaw.events.search.indexer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+public class AdaptiveBulkControllerTest {
+
+  @Test
+  public void shouldGrowBulkSizeThenConcurrency_whenBulksAreFast() {
+    AdaptiveBulkController controller = new AdaptiveBulkController(100, 1500, 2, 500);
+    assertEquals(1000, controller.getBulkActions());
+    assertEquals(1, controller.getConcurrentRequests());
+
+    controller.onBulkCompleted(100, 0, false);
+    assertEquals(1250, controller.getBulkActions());
+    controller.onBulkCompleted(100, 0, false);
+    assertEquals(1500, controller.getBulkActions());
+
+    // bulk size maxed out: grow concurrency up to its max
+    controller.onBulkCompleted(100, 0, false);
+    controller.onBulkCompleted(100, 0, false);
+    assertEquals(1500, controller.getBulkActions());
+    assertEquals(2, controller.getConcurrentRequests());
+  }
+
+  @Test
+  public void shouldShrink_whenBulksAreSlow() {
+    AdaptiveBulkController controller = new AdaptiveBulkController(100, 10_000, 4, 500);
+    controller.onBulkCompleted(700, 0, false);
+    assertEquals(1000, controller.getBulkActions());
+
+    controller.onBulkCompleted(1500, 0, false);
+    assertEquals(750, controller.getBulkActions());
+  }
+
+  @Test
+  public void shouldBackOff_whenRejectedOrUnavailable() {
+    AdaptiveBulkController controller = new AdaptiveBulkController(100, 1000, 4, 500);
+    controller.onBulkCompleted(100, 0, false);
+    assertEquals(2, controller.getConcurrentRequests());
+
+    controller.onBulkCompleted(100, 3, false);
+    assertEquals(500, controller.getBulkActions());
+    assertEquals(1, controller.getConcurrentRequests());
+    assertEquals(3, controller.getRejections());
+
+    controller.onBulkFailed();
+    controller.onBulkFailed();
+    controller.onBulkFailed();
+    assertEquals(100, controller.getBulkActions());
+    assertEquals(1, controller.getConcurrentRequests());
+    assertEquals(3, controller.getUnavailable());
+  }
+}
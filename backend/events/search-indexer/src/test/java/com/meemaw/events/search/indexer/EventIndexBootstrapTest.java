@@ -0,0 +1,69 @@
+package com.meemaw.events.search.indexer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.meemaw.test.testconainers.elasticsearch.Elasticsearch;
+import com.meemaw.test.testconainers.elasticsearch.ElasticsearchTestExtension;
+import java.io.IOException;
+import java.util.Map;
+import org.elasticsearch.action.admin.indices.alias.get.GetAliasesRequest;
+import org.elasticsearch.action.admin.indices.delete.DeleteIndexRequest;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.action.support.IndicesOptions;
+import org.elasticsearch.action.support.WriteRequest.RefreshPolicy;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+@Elasticsearch
+public class EventIndexBootstrapTest {
+
+  private static final RestHighLevelClient client =
+      ElasticsearchTestExtension.getInstance().restHighLevelClient();
+
+  @AfterEach
+  public void cleanup() throws IOException {
+    // write blocked, so it can not be emptied by the delete by query of the cleanup
+    client
+        .indices()
+        .delete(
+            new DeleteIndexRequest(EventIndex.LEGACY_INDEX)
+                .indicesOptions(IndicesOptions.lenientExpandOpen()),
+            RequestOptions.DEFAULT);
+    ElasticsearchTestExtension.getInstance().cleanup();
+  }
+
+  @Test
+  public void bootstrap_shouldMigrateConcreteEventsIndex() throws IOException {
+    client.index(
+        new IndexRequest(EventIndex.NAME)
+            .id("legacy")
+            .source(Map.of("type", "click"))
+            .setRefreshPolicy(RefreshPolicy.IMMEDIATE),
+        RequestOptions.DEFAULT);
+
+    EventIndex.bootstrap(client);
+    assertTrue(
+        client
+            .indices()
+            .existsAlias(
+                new GetAliasesRequest(EventIndex.NAME).indices(EventIndex.LEGACY_INDEX),
+                RequestOptions.DEFAULT));
+    assertEquals(1, totalHits());
+
+    // already migrated
+    EventIndex.bootstrap(client);
+    assertEquals(1, totalHits());
+  }
+
+  private long totalHits() throws IOException {
+    return client
+        .search(new SearchRequest(EventIndex.NAME), RequestOptions.DEFAULT)
+        .getHits()
+        .getTotalHits()
+        .value;
+  }
+}
@@ -0,0 +1,26 @@
+package com.meemaw.events.search.indexer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import org.junit.jupiter.api.Test;
+
+public class EventIndexTest {
+
+  @Test
+  public void writeIndex_shouldRouteByUtcDay() {
+    Instant instant = Instant.parse("2020-06-30T23:30:00Z");
+
+    assertEquals(
+        "events-2020.06.30", EventIndex.writeIndex(Clock.fixed(instant, ZoneId.of("UTC"))));
+    // zone of the clock does not move events to another day
+    assertEquals(
+        "events-2020.06.30",
+        EventIndex.writeIndex(Clock.fixed(instant, ZoneId.of("Europe/Ljubljana"))));
+    assertEquals(
+        "events-2020.07.01",
+        EventIndex.writeIndex(Clock.fixed(instant.plusSeconds(3600), ZoneId.of("UTC"))));
+  }
+}
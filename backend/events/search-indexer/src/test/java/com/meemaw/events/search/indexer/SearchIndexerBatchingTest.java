@@ -11,6 +11,7 @@ import com.meemaw.test.testconainers.elasticsearch.ElasticsearchTestExtension;
 import com.meemaw.test.testconainers.kafka.Kafka;
 import java.io.IOException;
 import java.net.URISyntaxException;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.producer.KafkaProducer;
@@ -60,7 +61,9 @@ public class SearchIndexerBatchingTest extends AbstractSearchIndexerTest {
               return response.getHits().getTotalHits().value == 383;
             });
 
+    // replayed events keep their document id and are not indexed twice
     writeSmallBatch(producer);
+    writeLiveEvent(producer, 1);
 
     // should index live events
     await()
@@ -81,6 +84,7 @@ public class SearchIndexerBatchingTest extends AbstractSearchIndexerTest {
     int numExtraBatches = 100;
     for (int i = 0; i < numExtraBatches; i++) {
       writeSmallBatch(producer);
+      writeLiveEvent(producer, 2 + i);
     }
 
     // should index live events only once
@@ -94,4 +98,32 @@ public class SearchIndexerBatchingTest extends AbstractSearchIndexerTest {
 
     producer.close();
   }
+
+  @Test
+  public void indexBatchesWithMultipleWorkers()
+      throws IOException, URISyntaxException, ExecutionException, InterruptedException {
+    int numWorkers = 4;
+    createIndex(client);
+    createSourceTopic(numWorkers);
+
+    KafkaProducer<String, UserEvent<AbstractBrowserEvent>> producer = configureProducer();
+    writeLargeBatch(producer);
+
+    spawnIndexer(client, numWorkers);
+
+    // partitions are spread between the workers
+    await().atMost(30, TimeUnit.SECONDS).until(() -> numAssignedWorkers() > 1);
+
+    // every record is indexed exactly once regardless of which worker owns the partition
+    with()
+        .atMost(30, TimeUnit.SECONDS)
+        .until(
+            () -> {
+              SearchResponse response = client.search(SEARCH_REQUEST, RequestOptions.DEFAULT);
+              log.info("Total hits: {}", response.getHits().getTotalHits().value);
+              return response.getHits().getTotalHits().value == 382;
+            });
+
+    producer.close();
+  }
 }
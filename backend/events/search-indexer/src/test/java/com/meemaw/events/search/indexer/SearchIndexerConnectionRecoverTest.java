@@ -1,6 +1,5 @@
 package com.meemaw.events.search.indexer;
 
-import static org.awaitility.Awaitility.await;
 import static org.awaitility.Awaitility.with;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
@@ -17,7 +16,6 @@ import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.http.HttpHost;
-import org.apache.kafka.clients.consumer.ConsumerRecords;
 import org.apache.kafka.clients.consumer.KafkaConsumer;
 import org.apache.kafka.clients.producer.KafkaProducer;
 import org.elasticsearch.action.search.SearchResponse;
@@ -53,15 +51,22 @@ public class SearchIndexerConnectionRecoverTest extends AbstractSearchIndexerTes
 
     spawnIndexer(client);
 
-    await()
-        .atMost(30, TimeUnit.SECONDS)
-        .until(
-            () -> {
-              ConsumerRecords<String, UserEvent<AbstractBrowserEvent>> records =
-                  retryQueueConsumer.poll(Duration.ofMillis(1000));
-              log.info("retry queue record count: {}", records.count());
-              return records.count() == 1;
-            });
+    // the outage pauses the indexer instead of pushing records to the retry queue
+    int numRetried = 0;
+    for (int i = 0; i < 10; i++) {
+      numRetried += retryQueueConsumer.poll(Duration.ofMillis(1000)).count();
+    }
+    assertEquals(0, numRetried);
+
+    RestHighLevelClient actualClient =
+        new RestHighLevelClient(
+            RestClient.builder(ElasticsearchTestExtension.getInstance().getHttpHost()));
+    createIndex(actualClient);
+
+    // initially nothing is indexed
+    assertEquals(
+        0,
+        actualClient.search(SEARCH_REQUEST, RequestOptions.DEFAULT).getHits().getTotalHits().value);
 
     // Reconfigure ElasticSearch to actual node
     client
@@ -71,13 +76,7 @@ public class SearchIndexerConnectionRecoverTest extends AbstractSearchIndexerTes
                 .map(Node::new)
                 .collect(Collectors.toList()));
 
-    createIndex(client);
-    writeSmallBatch(producer);
-
-    // initially nothing is indexed
-    assertEquals(
-        0, client.search(SEARCH_REQUEST, RequestOptions.DEFAULT).getHits().getTotalHits().value);
-
+    // records left in the source topic are indexed once the health probe succeeds
     with()
         .atMost(30, TimeUnit.SECONDS)
         .until(
@@ -89,6 +88,6 @@ public class SearchIndexerConnectionRecoverTest extends AbstractSearchIndexerTes
 
     producer.close();
     retryQueueConsumer.close();
-    // TODO: spawn indexer for the retry queue
+    actualClient.close();
   }
 }
@@ -0,0 +1,113 @@
+package com.meemaw.events.search.indexer;
+
+import static org.awaitility.Awaitility.await;
+import static org.awaitility.Awaitility.with;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.meemaw.events.model.external.UserEvent;
+import com.meemaw.events.model.internal.AbstractBrowserEvent;
+import com.meemaw.events.stream.kafka.RetryTiers;
+import com.meemaw.test.testconainers.elasticsearch.Elasticsearch;
+import com.meemaw.test.testconainers.elasticsearch.ElasticsearchTestExtension;
+import com.meemaw.test.testconainers.kafka.Kafka;
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.elasticsearch.action.admin.indices.settings.put.UpdateSettingsRequest;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.common.settings.Settings;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+@Kafka
+@Elasticsearch
+@Slf4j
+public class SearchIndexerRetryTiersTest extends AbstractSearchIndexerTest {
+
+  private static final RestHighLevelClient client =
+      ElasticsearchTestExtension.getInstance().restHighLevelClient();
+
+  @AfterEach
+  public void cleanup() throws IOException {
+    ElasticsearchTestExtension.getInstance().cleanup();
+    searchIndexers.forEach(SearchIndexer::shutdown);
+  }
+
+  private long totalHits() throws IOException {
+    return client.search(SEARCH_REQUEST, RequestOptions.DEFAULT).getHits().getTotalHits().value;
+  }
+
+  @Test
+  public void shouldIndexRetriedRecordOnlyAfterTierDelay()
+      throws IOException, ExecutionException, InterruptedException {
+    RetryTiers retryTiers =
+        new RetryTiers("test-delay-retry-0", "test-delay-dlq", 1, Duration.ofSeconds(15), 1);
+    createIndex(client);
+    spawnIndexer(client, "test-delay-events", retryTiers);
+
+    KafkaProducer<String, UserEvent<AbstractBrowserEvent>> producer = configureProducer();
+    long writtenAt = writeLiveEvent(producer, retryTiers.topic(0), 1).get().timestamp();
+    long dueAt = writtenAt + retryTiers.delay(0).toMillis();
+
+    // without the delay the record would be indexed within a flush interval
+    await()
+        .atMost(retryTiers.delay(0).plusSeconds(30).toSeconds(), TimeUnit.SECONDS)
+        .pollInterval(500, TimeUnit.MILLISECONDS)
+        .until(
+            () -> {
+              long totalHits = totalHits();
+              if (totalHits > 0) {
+                assertTrue(
+                    System.currentTimeMillis() >= dueAt,
+                    "Retried record indexed before the tier delay passed");
+              }
+              return totalHits == 1;
+            });
+
+    producer.close();
+  }
+
+  @Test
+  public void shouldWriteToDlqAfterLastTierFailed() throws IOException {
+    RetryTiers retryTiers =
+        new RetryTiers("test-last-tier-retry-0", "test-last-tier-dlq", 2, Duration.ofSeconds(1), 1);
+    createIndex(client);
+    // a write block is a non retryable (403) failure, it does not open the circuit breaker
+    client
+        .indices()
+        .putSettings(
+            new UpdateSettingsRequest(EventIndex.writeIndex(Clock.systemUTC()))
+                .settings(Settings.builder().put("index.blocks.write", true)),
+            RequestOptions.DEFAULT);
+    spawnIndexer(client, "test-last-tier-events", retryTiers);
+
+    KafkaProducer<String, UserEvent<AbstractBrowserEvent>> producer = configureProducer();
+    KafkaConsumer<String, UserEvent<AbstractBrowserEvent>> deadLetterQueueConsumer =
+        eventsConsumer(retryTiers.getDeadLetterTopicName());
+    writeLiveEvent(producer, retryTiers.topic(1), 1);
+
+    AtomicInteger numConsumedDeadLetterQueueEvents = new AtomicInteger(0);
+    with()
+        .atMost(30, TimeUnit.SECONDS)
+        .until(
+            () -> {
+              int count =
+                  numConsumedDeadLetterQueueEvents.addAndGet(
+                      deadLetterQueueConsumer.poll(Duration.ofMillis(1000)).count());
+              log.info("Num events in dead letter queue: {}", count);
+              return count == 1;
+            });
+    assertEquals(0, totalHits());
+
+    producer.close();
+    deadLetterQueueConsumer.close();
+  }
+}
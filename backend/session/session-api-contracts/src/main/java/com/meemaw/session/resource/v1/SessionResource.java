@@ -9,6 +9,7 @@ import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.GET;
+import javax.ws.rs.HEAD;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
@@ -41,6 +42,18 @@ public interface SessionResource {
       @PathParam("pageId") UUID pageId,
       @OrganizationId @QueryParam("organizationId") String organizationId);
 
+  /**
+   * Lightweight page existence check for internal callers: 200 if the page exists within the
+   * session and organization, 404 otherwise. Responds with status only.
+   */
+  // TODO: this should be authenticated
+  @HEAD
+  @Path("{sessionId}/pages/{pageId}")
+  CompletionStage<Response> pageExists(
+      @PathParam("sessionId") UUID sessionId,
+      @PathParam("pageId") UUID pageId,
+      @OrganizationId @QueryParam("organizationId") String organizationId);
+
   // TODO: this should be authenticated
   @GET
   @Path("search")
@@ -0,0 +1,4 @@
+-- Serves PgPageDatasource#findUserSessionLink as an index-only scan: the newest page of a device
+-- is the first index entry, and session_id is read from the index without touching the heap.
+CREATE INDEX IF NOT EXISTS page_device_link_idx
+    ON session.page (organization_id, device_id, page_start DESC) INCLUDE (session_id);
@@ -0,0 +1,4 @@
+-- Partial index over active pages only; keeps the periodic active page reconciliation
+-- proportional to the number of open pages instead of the whole page history.
+CREATE INDEX IF NOT EXISTS page_active_idx
+    ON session.page (organization_id) WHERE page_end IS NULL;
@@ -0,0 +1,134 @@
+-- Range partition session.page by page_start into daily (UTC) partitions named page_yyyymmdd.
+-- Lookups bounded by page_start only touch the partitions of the days they cover, so hot-path
+-- latency no longer grows with retention. Partitions are created ahead of time and detached once
+-- expired by session.create_page_partitions / session.detach_page_partitions, which session-api
+-- calls periodically.
+
+-- The existing table becomes the history partition; its indexes are kept so attaching it reuses
+-- them instead of building new ones.
+ALTER TABLE session.page RENAME TO page_history;
+ALTER INDEX session.page_pkey RENAME TO page_history_pkey;
+ALTER INDEX session.page_device_link_idx RENAME TO page_history_device_link_idx;
+ALTER INDEX session.page_active_idx RENAME TO page_history_active_idx;
+
+CREATE TABLE session.page
+(
+    id                 UUID        NOT NULL,
+    device_id          UUID        NOT NULL,
+    session_id         UUID        NOT NULL,
+    organization_id    TEXT        NOT NULL,
+    doctype            TEXT        NOT NULL,
+    url                TEXT        NOT NULL,
+    referrer           TEXT        NOT NULL,
+    height             SMALLINT    NOT NULL,
+    width              SMALLINT    NOT NULL,
+    screen_height      SMALLINT    NOT NULL,
+    screen_width       SMALLINT    NOT NULL,
+    compiled_timestamp INTEGER     NOT NULL,
+    page_start         TIMESTAMPTZ NOT NULL DEFAULT now(),
+    page_end           TIMESTAMPTZ,
+
+    PRIMARY KEY (id, device_id, session_id, organization_id, page_start)
+) PARTITION BY RANGE (page_start);
+
+CREATE INDEX page_device_link_idx
+    ON session.page (organization_id, device_id, page_start DESC) INCLUDE (session_id);
+
+CREATE INDEX page_active_idx
+    ON session.page (organization_id) WHERE page_end IS NULL;
+
+-- Safety net for rows outside of any daily partition (e.g. partition maintenance lagging behind).
+CREATE TABLE session.page_default PARTITION OF session.page DEFAULT;
+
+-- A new partition is created detached, filled with the rows the default partition already holds
+-- for its day and only then attached, as attaching (or creating) it while the default partition
+-- holds rows of its range fails. Rows left in the default partition are reported as a warning.
+CREATE OR REPLACE FUNCTION session.create_page_partitions(days_ahead INTEGER) RETURNS INTEGER AS
+$$
+DECLARE
+    day            DATE    := (now() AT TIME ZONE 'UTC')::DATE;
+    last_day       DATE    := day + days_ahead;
+    partition_name TEXT;
+    range_start    TIMESTAMPTZ;
+    range_end      TIMESTAMPTZ;
+    created        INTEGER := 0;
+    stray          BIGINT;
+BEGIN
+    PERFORM pg_advisory_xact_lock(hashtext('session.page partitions'));
+    WHILE day <= last_day
+        LOOP
+            partition_name := 'page_' || to_char(day, 'YYYYMMDD');
+            IF to_regclass('session.' || partition_name) IS NULL THEN
+                range_start := day::TIMESTAMP AT TIME ZONE 'UTC';
+                range_end := (day + 1)::TIMESTAMP AT TIME ZONE 'UTC';
+                EXECUTE format('CREATE TABLE session.%I (LIKE session.page INCLUDING DEFAULTS)',
+                               partition_name);
+                EXECUTE format('WITH moved AS (DELETE FROM session.page_default WHERE page_start >= %L AND page_start < %L RETURNING *) '
+                                   'INSERT INTO session.%I SELECT * FROM moved',
+                               range_start, range_end, partition_name);
+                EXECUTE format('ALTER TABLE session.page ATTACH PARTITION session.%I FOR VALUES FROM (%L) TO (%L)',
+                               partition_name, range_start, range_end);
+                created := created + 1;
+            END IF;
+            day := day + 1;
+        END LOOP;
+
+    SELECT count(*) INTO stray FROM session.page_default;
+    IF stray > 0 THEN
+        RAISE WARNING 'session.page_default holds % pages outside of daily partitions', stray;
+    END IF;
+    RETURN created;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION session.detach_page_partitions(retention_days INTEGER) RETURNS INTEGER AS
+$$
+DECLARE
+    cutoff   DATE    := (now() AT TIME ZONE 'UTC')::DATE - retention_days;
+    expired  RECORD;
+    detached INTEGER := 0;
+BEGIN
+    PERFORM pg_advisory_xact_lock(hashtext('session.page partitions'));
+    FOR expired IN
+        SELECT child.relname
+        FROM pg_inherits
+                 JOIN pg_class parent ON pg_inherits.inhparent = parent.oid
+                 JOIN pg_class child ON pg_inherits.inhrelid = child.oid
+                 JOIN pg_namespace ns ON parent.relnamespace = ns.oid
+        WHERE ns.nspname = 'session'
+          AND parent.relname = 'page'
+          AND child.relname ~ '^page_[0-9]{8}$'
+        LOOP
+            IF to_date(substring(expired.relname FROM 6), 'YYYYMMDD') < cutoff THEN
+                EXECUTE format('ALTER TABLE session.page DETACH PARTITION session.%I', expired.relname);
+                detached := detached + 1;
+            END IF;
+        END LOOP;
+    RETURN detached;
+END;
+$$ LANGUAGE plpgsql;
+
+SELECT session.create_page_partitions(3);
+
+-- Pages started before this migration are kept in the history partition, except for the ones
+-- started today, which are moved to today's partition. Attaching the history table validates the
+-- partition bound with the CHECK constraint instead of copying the whole history.
+DO
+$$
+    DECLARE
+        history_end TIMESTAMPTZ := (now() AT TIME ZONE 'UTC')::DATE::TIMESTAMP AT TIME ZONE 'UTC';
+    BEGIN
+        WITH moved AS (DELETE FROM session.page_history WHERE page_start >= history_end RETURNING *)
+        INSERT
+        INTO session.page
+        SELECT *
+        FROM moved;
+
+        EXECUTE format('ALTER TABLE session.page_history ADD CONSTRAINT page_history_bound CHECK (page_start < %L) NOT VALID',
+                       history_end);
+        ALTER TABLE session.page_history VALIDATE CONSTRAINT page_history_bound;
+        EXECUTE format('ALTER TABLE session.page ATTACH PARTITION session.page_history FOR VALUES FROM (MINVALUE) TO (%L)',
+                       history_end);
+        ALTER TABLE session.page_history DROP CONSTRAINT page_history_bound;
+    END
+$$;
@@ -0,0 +1,4 @@
+-- Serves the page existence check (HEAD /v1/sessions/{sessionId}/pages/{pageId}) as an
+-- index-only scan; the primary key has device_id between id and session_id.
+CREATE INDEX IF NOT EXISTS page_existence_idx
+    ON session.page (id, session_id, organization_id);
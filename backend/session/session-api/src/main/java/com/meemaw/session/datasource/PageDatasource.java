@@ -4,6 +4,7 @@ import com.meemaw.session.model.CreatePageDTO;
 import com.meemaw.session.model.PageDTO;
 import com.meemaw.session.model.PageIdentity;
 import io.smallrye.mutiny.Uni;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -25,8 +26,18 @@ public interface PageDatasource {
    */
   Uni<PageIdentity> insertPage(UUID pageId, UUID deviceId, UUID sessionId, CreatePageDTO page);
 
-  /** @return number of currently active pages */
-  Uni<Integer> activePageCount();
+  /**
+   * Mark page as ended. Pages that are already ended are left untouched.
+   *
+   * @param pageId UUID page id
+   * @param sessionId UUID session id
+   * @param organizationId String organization id
+   * @return true if the page was active and is now ended
+   */
+  Uni<Boolean> endPage(UUID pageId, UUID sessionId, String organizationId);
+
+  /** @return number of currently active pages per organization */
+  Uni<Map<String, Long>> activePageCounts();
 
   /**
    * @param pageId String page id
@@ -35,4 +46,28 @@ public interface PageDatasource {
    * @return maybe page
    */
   Uni<Optional<PageDTO>> getPage(UUID pageId, UUID sessionId, String organizationId);
+
+  /**
+   * @param pageId String page id
+   * @param sessionId String session id
+   * @param organizationId String organization id
+   * @return true if page exists
+   */
+  Uni<Boolean> pageExists(UUID pageId, UUID sessionId, String organizationId);
+
+  /**
+   * Create the daily session.page partitions from today up to daysAhead days ahead.
+   *
+   * @param daysAhead int number of future days
+   * @return number of newly created partitions
+   */
+  Uni<Integer> createPagePartitions(int daysAhead);
+
+  /**
+   * Detach daily session.page partitions older than the retention period.
+   *
+   * @param retentionDays int number of days pages are kept attached
+   * @return number of detached partitions
+   */
+  Uni<Integer> detachPagePartitions(int retentionDays);
 }
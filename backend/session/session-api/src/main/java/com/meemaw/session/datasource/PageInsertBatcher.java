@@ -0,0 +1,195 @@
+package com.meemaw.session.datasource;
+
+import com.meemaw.shared.metrics.MetricsService;
+import com.meemaw.shared.rest.exception.DatabaseException;
+import io.smallrye.mutiny.Uni;
+import io.vertx.mutiny.core.Vertx;
+import io.vertx.mutiny.pgclient.PgPool;
+import io.vertx.mutiny.sqlclient.Tuple;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Write-behind for page inserts. Concurrent inserts are coalesced into a single multi-row INSERT
+ * that is flushed once maxBatchSize rows are queued or maxDelay after the first row was queued,
+ * whichever comes first. Every insert completes only after the batch holding it was written, so a
+ * page identity is never handed out for a page that is not stored.
+ *
+ * <p>Rows are passed as one array per column, so every batch size shares the same prepared
+ * statement. A failed batch is retried row by row, so one bad row only fails its own insert.
+ */
+@ApplicationScoped
+@Slf4j
+public class PageInsertBatcher {
+
+  private static final String BATCH_NAME = "page_insert";
+
+  private static final String INSERT_PAGES_RAW_SQL =
+      "INSERT INTO session.page (id, device_id, session_id, organization_id, doctype, url, referrer, height, width, screen_height, screen_width, compiled_timestamp) SELECT * FROM UNNEST($1::uuid[], $2::uuid[], $3::uuid[], $4::text[], $5::text[], $6::text[], $7::text[], $8::integer[], $9::integer[], $10::integer[], $11::integer[], $12::bigint[]);";
+
+  @Inject PgPool pgPool;
+  @Inject Vertx vertx;
+  @Inject MetricsService metricsService;
+
+  @ConfigProperty(name = "session.pages.write-behind.enabled", defaultValue = "false")
+  boolean enabled;
+
+  @ConfigProperty(name = "session.pages.write-behind.max-batch-size", defaultValue = "100")
+  int maxBatchSize;
+
+  @ConfigProperty(name = "session.pages.write-behind.max-delay", defaultValue = "PT0.005S")
+  Duration maxDelay;
+
+  private List<PendingInsert> pending = new ArrayList<>();
+  private boolean flushScheduled;
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Queue a page row for the next batch.
+   *
+   * @param values Tuple of the INSERT_PAGE_RAW_SQL parameters
+   * @return Uni completing once the row is written
+   */
+  public Uni<Void> insert(Tuple values) {
+    PendingInsert insert = new PendingInsert(values, new CompletableFuture<>());
+    List<PendingInsert> batch = null;
+    boolean scheduleFlush = false;
+    synchronized (this) {
+      pending.add(insert);
+      if (pending.size() >= maxBatchSize) {
+        batch = drain();
+      } else if (!flushScheduled) {
+        flushScheduled = true;
+        scheduleFlush = true;
+      }
+    }
+
+    if (batch != null) {
+      flush(batch);
+    } else if (scheduleFlush) {
+      vertx.setTimer(Math.max(1, maxDelay.toMillis()), timerId -> flushPending());
+    }
+    return Uni.createFrom().completionStage(insert.written);
+  }
+
+  private void flushPending() {
+    List<PendingInsert> batch;
+    synchronized (this) {
+      flushScheduled = false;
+      batch = drain();
+    }
+    flush(batch);
+  }
+
+  private List<PendingInsert> drain() {
+    List<PendingInsert> batch = pending;
+    pending = new ArrayList<>(maxBatchSize);
+    return batch;
+  }
+
+  private void flush(List<PendingInsert> batch) {
+    if (batch.isEmpty()) {
+      return;
+    }
+
+    long start = System.currentTimeMillis();
+    metricsService.batchSize(BATCH_NAME).update(batch.size());
+    write(batch)
+        .subscribe()
+        .with(
+            ignored -> {
+              metricsService
+                  .batchFlushDuration(BATCH_NAME)
+                  .update(System.currentTimeMillis() - start);
+              batch.forEach(insert -> insert.written.complete(null));
+            },
+            throwable -> {
+              if (batch.size() == 1) {
+                fail(batch.get(0), throwable);
+                return;
+              }
+              log.warn("Failed to insert batch of {} pages, retrying one by one", batch.size());
+              batch.forEach(this::retry);
+            });
+  }
+
+  private void retry(PendingInsert insert) {
+    write(List.of(insert))
+        .subscribe()
+        .with(ignored -> insert.written.complete(null), throwable -> fail(insert, throwable));
+  }
+
+  private void fail(PendingInsert insert, Throwable throwable) {
+    log.error("Failed to insert page", throwable);
+    insert.written.completeExceptionally(new DatabaseException(throwable));
+  }
+
+  private Uni<?> write(List<PendingInsert> batch) {
+    int size = batch.size();
+    UUID[] ids = new UUID[size];
+    UUID[] deviceIds = new UUID[size];
+    UUID[] sessionIds = new UUID[size];
+    String[] organizationIds = new String[size];
+    String[] doctypes = new String[size];
+    String[] urls = new String[size];
+    String[] referrers = new String[size];
+    Integer[] heights = new Integer[size];
+    Integer[] widths = new Integer[size];
+    Integer[] screenHeights = new Integer[size];
+    Integer[] screenWidths = new Integer[size];
+    Long[] compiledTimestamps = new Long[size];
+    for (int i = 0; i < size; i++) {
+      Tuple row = batch.get(i).values;
+      ids[i] = row.getUUID(0);
+      deviceIds[i] = row.getUUID(1);
+      sessionIds[i] = row.getUUID(2);
+      organizationIds[i] = row.getString(3);
+      doctypes[i] = row.getString(4);
+      urls[i] = row.getString(5);
+      referrers[i] = row.getString(6);
+      heights[i] = row.getInteger(7);
+      widths[i] = row.getInteger(8);
+      screenHeights[i] = row.getInteger(9);
+      screenWidths[i] = row.getInteger(10);
+      compiledTimestamps[i] = row.getLong(11);
+    }
+
+    return pgPool
+        .preparedQuery(INSERT_PAGES_RAW_SQL)
+        .execute(
+            Tuple.tuple()
+                .addValue(ids)
+                .addValue(deviceIds)
+                .addValue(sessionIds)
+                .addValue(organizationIds)
+                .addValue(doctypes)
+                .addValue(urls)
+                .addValue(referrers)
+                .addValue(heights)
+                .addValue(widths)
+                .addValue(screenHeights)
+                .addValue(screenWidths)
+                .addValue(compiledTimestamps));
+  }
+
+  private static final class PendingInsert {
+
+    private final Tuple values;
+    private final CompletableFuture<Void> written;
+
+    private PendingInsert(Tuple values, CompletableFuture<Void> written) {
+      this.values = values;
+      this.written = written;
+    }
+  }
+}
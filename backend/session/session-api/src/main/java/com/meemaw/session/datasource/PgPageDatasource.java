@@ -10,6 +10,10 @@ import io.vertx.mutiny.sqlclient.Row;
 import io.vertx.mutiny.sqlclient.RowIterator;
 import io.vertx.mutiny.sqlclient.RowSet;
 import io.vertx.mutiny.sqlclient.Tuple;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import javax.enterprise.context.ApplicationScoped;
@@ -21,6 +25,7 @@ import lombok.extern.slf4j.Slf4j;
 public class PgPageDatasource implements PageDatasource {
 
   @Inject PgPool pgPool;
+  @Inject PageInsertBatcher pageInsertBatcher;
 
   private static final String SELECT_LINK_DEVICE_SESSION_RAW_SQL =
       "SELECT session_id FROM session.page WHERE organization_id = $1 AND device_id = $2 AND page_start > now() - INTERVAL '30 min' ORDER BY page_start DESC LIMIT 1;";
@@ -28,12 +33,35 @@ public class PgPageDatasource implements PageDatasource {
   private static final String INSERT_PAGE_RAW_SQL =
       "INSERT INTO session.page (id, device_id, session_id, organization_id, doctype, url, referrer, height, width, screen_height, screen_width, compiled_timestamp) VALUES($1, $2, $3, $4, $5, $6, $7, $8, $9, $10, $11, $12);";
 
-  private static final String SELECT_ACTIVE_PAGE_COUNT =
-      "SELECT COUNT(*) FROM session.page WHERE page_end IS NULL;";
+  // recent bound is a parameter: an UPDATE prunes partitions only at plan time, never on now()
+  private static final String UPDATE_RECENT_PAGE_END_RAW_SQL =
+      "UPDATE session.page SET page_end = now() WHERE id = $1 AND session_id = $2 AND organization_id = $3 AND page_end IS NULL AND page_start > $4;";
+
+  private static final String UPDATE_PAGE_END_RAW_SQL =
+      "UPDATE session.page SET page_end = now() WHERE id = $1 AND session_id = $2 AND organization_id = $3 AND page_end IS NULL;";
+
+  private static final String SELECT_ACTIVE_PAGE_COUNTS =
+      "SELECT organization_id, COUNT(*) AS count FROM session.page WHERE page_end IS NULL GROUP BY organization_id;";
+
+  // the page_start bound lets Postgres prune to the partitions of the last day
+  private static final String SELECT_RECENT_PAGE_RAW_SQL =
+      "SELECT * FROM session.page WHERE id=$1 AND session_id=$2 AND organization_id=$3 AND page_start > now() - INTERVAL '1 day';";
 
   private static final String SELECT_PAGE_RAW_SQL =
       "SELECT * FROM session.page WHERE id=$1 AND session_id=$2 AND organization_id=$3;";
 
+  private static final String SELECT_RECENT_PAGE_EXISTS_RAW_SQL =
+      "SELECT 1 FROM session.page WHERE id=$1 AND session_id=$2 AND organization_id=$3 AND page_start > now() - INTERVAL '1 day' LIMIT 1;";
+
+  private static final String SELECT_PAGE_EXISTS_RAW_SQL =
+      "SELECT 1 FROM session.page WHERE id=$1 AND session_id=$2 AND organization_id=$3 LIMIT 1;";
+
+  private static final String CREATE_PAGE_PARTITIONS_RAW_SQL =
+      "SELECT session.create_page_partitions($1) AS count;";
+
+  private static final String DETACH_PAGE_PARTITIONS_RAW_SQL =
+      "SELECT session.detach_page_partitions($1) AS count;";
+
   @Override
   public Uni<Optional<UUID>> findUserSessionLink(String organizationId, UUID deviceId) {
     return pgPool
@@ -76,11 +104,14 @@ public class PgPageDatasource implements PageDatasource {
                 page.getScreenWidth(),
                 page.getCompiledTs()));
 
-    return pgPool
-        .preparedQuery(INSERT_PAGE_RAW_SQL)
-        .execute(values)
+    Uni<?> inserted =
+        pageInsertBatcher.isEnabled()
+            ? pageInsertBatcher.insert(values)
+            : pgPool.preparedQuery(INSERT_PAGE_RAW_SQL).execute(values);
+
+    return inserted
         .map(
-            rowSet ->
+            result ->
                 PageIdentity.builder()
                     .pageId(pageId)
                     .sessionId(sessionId)
@@ -96,24 +127,79 @@ public class PgPageDatasource implements PageDatasource {
   }
 
   @Override
-  public Uni<Integer> activePageCount() {
+  public Uni<Boolean> endPage(UUID pageId, UUID sessionId, String organizationId) {
+    OffsetDateTime recent = OffsetDateTime.now(ZoneOffset.UTC).minusDays(1);
+    return updatePageEnd(
+            UPDATE_RECENT_PAGE_END_RAW_SQL,
+            Tuple.of(pageId, sessionId, organizationId, recent))
+        .onItem()
+        .produceUni(
+            ended -> {
+              if (ended) {
+                return Uni.createFrom().item(true);
+              }
+              return updatePageEnd(
+                  UPDATE_PAGE_END_RAW_SQL, Tuple.of(pageId, sessionId, organizationId));
+            });
+  }
+
+  private Uni<Boolean> updatePageEnd(String sql, Tuple params) {
     return pgPool
-        .preparedQuery(SELECT_ACTIVE_PAGE_COUNT)
+        .preparedQuery(sql)
+        .execute(params)
+        .map(rowSet -> rowSet.rowCount() > 0)
+        .onFailure()
+        .invoke(this::onEndPageException);
+  }
+
+  private <T> T onEndPageException(Throwable throwable) {
+    log.error("Failed to end page", throwable);
+    throw new DatabaseException(throwable);
+  }
+
+  @Override
+  public Uni<Map<String, Long>> activePageCounts() {
+    return pgPool
+        .preparedQuery(SELECT_ACTIVE_PAGE_COUNTS)
         .execute()
-        .map(rowSet -> rowSet.iterator().next().getInteger("count"))
+        .map(
+            rowSet -> {
+              Map<String, Long> counts = new HashMap<>();
+              for (Row row : rowSet) {
+                counts.put(row.getString("organization_id"), row.getLong("count"));
+              }
+              return counts;
+            })
         .onFailure()
-        .invoke(this::onActivePageCountException);
+        .invoke(this::onActivePageCountsException);
   }
 
-  private <T> T onActivePageCountException(Throwable throwable) {
-    log.error("Failed to COUNT(*) active pages", throwable);
+  private <T> T onActivePageCountsException(Throwable throwable) {
+    log.error("Failed to count active pages", throwable);
     throw new DatabaseException(throwable);
   }
 
+  /**
+   * Almost every lookup is for a page started within the last day, so the recent partitions are
+   * tried first and all partitions are only searched when the page is not found there.
+   */
   @Override
   public Uni<Optional<PageDTO>> getPage(UUID pageID, UUID sessionID, String organizationID) {
+    return selectPage(SELECT_RECENT_PAGE_RAW_SQL, pageID, sessionID, organizationID)
+        .onItem()
+        .produceUni(
+            maybePage -> {
+              if (maybePage.isPresent()) {
+                return Uni.createFrom().item(maybePage);
+              }
+              return selectPage(SELECT_PAGE_RAW_SQL, pageID, sessionID, organizationID);
+            });
+  }
+
+  private Uni<Optional<PageDTO>> selectPage(
+      String sql, UUID pageID, UUID sessionID, String organizationID) {
     return pgPool
-        .preparedQuery(SELECT_PAGE_RAW_SQL)
+        .preparedQuery(sql)
         .execute(Tuple.of(pageID, sessionID, organizationID))
         .map(
             rowSet -> {
@@ -140,8 +226,58 @@ public class PgPageDatasource implements PageDatasource {
         .invoke(this::onGetPageException);
   }
 
+  /** Same recent-first lookup as {@link #getPage}, without reading or mapping the page row. */
+  @Override
+  public Uni<Boolean> pageExists(UUID pageID, UUID sessionID, String organizationID) {
+    return selectPageExists(SELECT_RECENT_PAGE_EXISTS_RAW_SQL, pageID, sessionID, organizationID)
+        .onItem()
+        .produceUni(
+            exists -> {
+              if (exists) {
+                return Uni.createFrom().item(true);
+              }
+              return selectPageExists(
+                  SELECT_PAGE_EXISTS_RAW_SQL, pageID, sessionID, organizationID);
+            });
+  }
+
+  private Uni<Boolean> selectPageExists(
+      String sql, UUID pageID, UUID sessionID, String organizationID) {
+    return pgPool
+        .preparedQuery(sql)
+        .execute(Tuple.of(pageID, sessionID, organizationID))
+        .map(rowSet -> rowSet.iterator().hasNext())
+        .onFailure()
+        .invoke(this::onGetPageException);
+  }
+
   private <T> T onGetPageException(Throwable throwable) {
     log.error("Failed to get page", throwable);
     throw new DatabaseException(throwable);
   }
+
+  @Override
+  public Uni<Integer> createPagePartitions(int daysAhead) {
+    return pgPool
+        .preparedQuery(CREATE_PAGE_PARTITIONS_RAW_SQL)
+        .execute(Tuple.of(daysAhead))
+        .map(rowSet -> rowSet.iterator().next().getInteger("count"))
+        .onFailure()
+        .invoke(this::onPagePartitionsException);
+  }
+
+  @Override
+  public Uni<Integer> detachPagePartitions(int retentionDays) {
+    return pgPool
+        .preparedQuery(DETACH_PAGE_PARTITIONS_RAW_SQL)
+        .execute(Tuple.of(retentionDays))
+        .map(rowSet -> rowSet.iterator().next().getInteger("count"))
+        .onFailure()
+        .invoke(this::onPagePartitionsException);
+  }
+
+  private <T> T onPagePartitionsException(Throwable throwable) {
+    log.error("Failed to maintain page partitions", throwable);
+    throw new DatabaseException(throwable);
+  }
 }
@@ -45,6 +45,19 @@ public class SessionResourceImpl implements SessionResource {
             maybePage -> DataResponse.ok(maybePage.orElseThrow(() -> Boom.notFound().exception())));
   }
 
+  @Override
+  public CompletionStage<Response> pageExists(
+      UUID sessionId, UUID pageId, String organizationId) {
+    return pageService
+        .pageExists(pageId, sessionId, organizationId)
+        .subscribeAsCompletionStage()
+        .thenApply(
+            exists ->
+                exists
+                    ? Response.ok().build()
+                    : Response.status(Response.Status.NOT_FOUND).build());
+  }
+
   @Override
   public CompletionStage<Response> search() {
     return sessionSearchService.search().thenApply(DataResponse::ok);
@@ -0,0 +1,82 @@
+package com.meemaw.session.service;
+
+import com.meemaw.session.datasource.PageDatasource;
+import io.quarkus.scheduler.Scheduled;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Active page counts per organization, kept up to date as pages start and end so reading them is
+ * O(1). Pages started or ended by other instances are only picked up when the counts are
+ * periodically reconciled against Postgres.
+ */
+@ApplicationScoped
+@Slf4j
+public class ActivePageCounter {
+
+  @Inject PageDatasource pageDatasource;
+
+  private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+
+  public void increment(String organizationId) {
+    counter(organizationId).increment();
+  }
+
+  public void decrement(String organizationId) {
+    counter(organizationId).decrement();
+  }
+
+  /**
+   * @param organizationId String organization id
+   * @return number of active pages of the organization
+   */
+  public long count(String organizationId) {
+    LongAdder counter = counters.get(organizationId);
+    return counter == null ? 0 : Math.max(0, counter.sum());
+  }
+
+  /** @return number of active pages across all organizations */
+  public long count() {
+    long count = 0;
+    for (LongAdder counter : counters.values()) {
+      count += Math.max(0, counter.sum());
+    }
+    return count;
+  }
+
+  @Scheduled(every = "{session.active-pages.reconcile-interval}")
+  void reconcile() {
+    pageDatasource
+        .activePageCounts()
+        .subscribe()
+        .with(this::reset, throwable -> log.error("Failed to reconcile active pages", throwable));
+  }
+
+  /**
+   * Replace the counts with the ones read from Postgres. Pages started or ended while the counts
+   * were read are off by one until the next reconciliation.
+   */
+  void reset(Map<String, Long> counts) {
+    counters.forEach(
+        (organizationId, counter) -> {
+          if (!counts.containsKey(organizationId)) {
+            counter.reset();
+          }
+        });
+    counts.forEach(
+        (organizationId, count) -> {
+          LongAdder counter = counter(organizationId);
+          counter.reset();
+          counter.add(count);
+        });
+    log.debug("Reconciled active pages of {} organizations", counts.size());
+  }
+
+  private LongAdder counter(String organizationId) {
+    return counters.computeIfAbsent(organizationId, key -> new LongAdder());
+  }
+}
@@ -0,0 +1,107 @@
+package com.meemaw.session.service;
+
+import com.meemaw.shared.metrics.MetricsService;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import lombok.Value;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Bounded LRU of the last active session per device. A device whose last page was created by this
+ * instance within the session link window is linked without querying Postgres; anything else
+ * (evicted, expired or created by another instance) falls back to the indexed lookup.
+ */
+@ApplicationScoped
+public class DeviceSessionCache {
+
+  /** Same window as the session link lookup in PgPageDatasource. */
+  public static final Duration SESSION_LINK_WINDOW = Duration.ofMinutes(30);
+
+  private static final String CACHE_NAME = "device_session";
+
+  @Inject MetricsService metricsService;
+
+  @ConfigProperty(name = "session.device-cache.max-size", defaultValue = "100000")
+  int maxSize;
+
+  private Map<DeviceKey, ActiveSession> sessions;
+
+  @PostConstruct
+  void init() {
+    sessions =
+        Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+              @Override
+              protected boolean removeEldestEntry(Map.Entry<DeviceKey, ActiveSession> eldest) {
+                if (size() > maxSize) {
+                  metricsService.cacheEviction(CACHE_NAME).inc();
+                  return true;
+                }
+                return false;
+              }
+            });
+  }
+
+  /**
+   * @param organizationId String organization id
+   * @param deviceId UUID device id
+   * @return session id of the device if its last page started within the session link window
+   */
+  public Optional<UUID> get(String organizationId, UUID deviceId) {
+    return get(organizationId, deviceId, System.currentTimeMillis());
+  }
+
+  Optional<UUID> get(String organizationId, UUID deviceId, long nowMillis) {
+    DeviceKey key = new DeviceKey(organizationId, deviceId);
+    ActiveSession cached = sessions.get(key);
+    if (cached == null) {
+      metricsService.cacheMiss(CACHE_NAME).inc();
+      return Optional.empty();
+    }
+
+    // expired entries are dropped as a plain miss, evictions only count entries pushed out by size
+    if (cached.getExpiresAt() < nowMillis) {
+      sessions.remove(key);
+      metricsService.cacheMiss(CACHE_NAME).inc();
+      return Optional.empty();
+    }
+
+    metricsService.cacheHit(CACHE_NAME).inc();
+    return Optional.of(cached.getSessionId());
+  }
+
+  /**
+   * Remember that a page of the device was just started in the given session.
+   *
+   * @param organizationId String organization id
+   * @param deviceId UUID device id
+   * @param sessionId UUID session id
+   */
+  public void put(String organizationId, UUID deviceId, UUID sessionId) {
+    put(organizationId, deviceId, sessionId, System.currentTimeMillis());
+  }
+
+  void put(String organizationId, UUID deviceId, UUID sessionId, long nowMillis) {
+    long expiresAt = nowMillis + SESSION_LINK_WINDOW.toMillis();
+    sessions.put(new DeviceKey(organizationId, deviceId), new ActiveSession(sessionId, expiresAt));
+  }
+
+  @Value
+  private static class DeviceKey {
+    String organizationId;
+    UUID deviceId;
+  }
+
+  @Value
+  private static class ActiveSession {
+    UUID sessionId;
+    long expiresAt;
+  }
+}
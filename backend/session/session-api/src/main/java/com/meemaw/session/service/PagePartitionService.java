@@ -0,0 +1,41 @@
+package com.meemaw.session.service;
+
+import com.meemaw.session.datasource.PageDatasource;
+import io.quarkus.scheduler.Scheduled;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Keeps daily session.page partitions created ahead of time and detaches expired ones. Safe to run
+ * on every instance; concurrent runs are serialized by an advisory lock in Postgres.
+ */
+@ApplicationScoped
+@Slf4j
+public class PagePartitionService {
+
+  @Inject PageDatasource pageDatasource;
+
+  @ConfigProperty(name = "session.page-partitions.days-ahead", defaultValue = "3")
+  int daysAhead;
+
+  @ConfigProperty(name = "session.page-partitions.retention-days", defaultValue = "90")
+  int retentionDays;
+
+  @Scheduled(every = "{session.page-partitions.maintenance-interval}")
+  void maintain() {
+    pageDatasource
+        .createPagePartitions(daysAhead)
+        .onItem()
+        .produceUni(
+            created -> {
+              log.info("Created {} page partitions", created);
+              return pageDatasource.detachPagePartitions(retentionDays);
+            })
+        .subscribe()
+        .with(
+            detached -> log.info("Detached {} expired page partitions", detached),
+            throwable -> log.error("Failed to maintain page partitions", throwable));
+  }
+}
@@ -19,6 +19,8 @@ import org.slf4j.MDC;
 public class PageService {
 
   @Inject PageDatasource pageDatasource;
+  @Inject DeviceSessionCache deviceSessionCache;
+  @Inject ActivePageCounter activePageCounter;
 
   /**
    * Create a new page. This method is called as a first action of the tracking script to link
@@ -44,9 +46,14 @@ public class PageService {
     // unrecognized device; start a new session
     if (deviceId != page.getDeviceId()) {
       UUID sessionId = UUID.randomUUID();
-      MDC.put(LoggingConstants.SESSION_ID, sessionId.toString());
       log.info("Creating new session");
-      return pageDatasource.insertPage(pageId, deviceId, sessionId, page);
+      return insertPage(pageId, deviceId, sessionId, page);
+    }
+
+    // recognized device and recently active on this instance; link without a lookup
+    Optional<UUID> maybeCachedSessionId = deviceSessionCache.get(organizationId, deviceId);
+    if (maybeCachedSessionId.isPresent()) {
+      return insertPage(pageId, deviceId, maybeCachedSessionId.get(), page);
     }
 
     // recognized device; try to link it with an existing session
@@ -61,12 +68,49 @@ public class PageService {
                         log.info("Failed to link to an existing session");
                         return UUID.randomUUID();
                       });
-              return pageDatasource.insertPage(pageId, deviceId, sessionId, page);
+              return insertPage(pageId, deviceId, sessionId, page);
             });
   }
 
-  public Uni<Integer> activePageCount() {
-    return pageDatasource.activePageCount();
+  private Uni<PageIdentity> insertPage(
+      UUID pageId, UUID deviceId, UUID sessionId, CreatePageDTO page) {
+    MDC.put(LoggingConstants.SESSION_ID, sessionId.toString());
+    return pageDatasource
+        .insertPage(pageId, deviceId, sessionId, page)
+        .onItem()
+        .invoke(
+            identity -> {
+              deviceSessionCache.put(page.getOrganizationId(), deviceId, sessionId);
+              activePageCounter.increment(page.getOrganizationId());
+            });
+  }
+
+  /**
+   * End a page. Ending the same page more than once (e.g. a redelivered unload event) is a no-op.
+   *
+   * @param pageId UUID page id
+   * @param sessionId UUID session id
+   * @param organizationId String organization id
+   * @return true if the page was active and is now ended
+   */
+  public Uni<Boolean> endPage(UUID pageId, UUID sessionId, String organizationId) {
+    return pageDatasource
+        .endPage(pageId, sessionId, organizationId)
+        .onItem()
+        .invoke(
+            ended -> {
+              if (ended) {
+                activePageCounter.decrement(organizationId);
+              }
+            });
+  }
+
+  public Uni<Long> activePageCount() {
+    return Uni.createFrom().item(activePageCounter.count());
+  }
+
+  public Uni<Boolean> pageExists(UUID pageID, UUID sessionID, String organizationId) {
+    return pageDatasource.pageExists(pageID, sessionID, organizationId);
   }
 
   public Uni<Optional<PageDTO>> getPage(UUID pageID, UUID sessionID, String organizationId) {
@@ -1,11 +1,14 @@
 package com.meemaw.session.service;
 
+import com.meemaw.events.model.external.UserEvent;
 import com.meemaw.events.model.internal.BrowserUnloadEvent;
 import com.meemaw.events.stream.EventsStream;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ConcurrentHashMap;
 import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
 import javax.websocket.Session;
 import lombok.extern.slf4j.Slf4j;
 import org.eclipse.microprofile.reactive.messaging.Incoming;
@@ -14,6 +17,8 @@ import org.eclipse.microprofile.reactive.messaging.Incoming;
 @Slf4j
 public class SessionSocketService {
 
+  @Inject PageService pageService;
+
   private final Map<String, Session> sessions = new ConcurrentHashMap<>();
 
   public void onOpen(Session session) {
@@ -56,8 +61,18 @@ public class SessionSocketService {
   }
 
   @Incoming(EventsStream.UNLOAD)
-  public void process(BrowserUnloadEvent event) {
+  public CompletionStage<Void> process(UserEvent<BrowserUnloadEvent> event) {
     log.info("Notifying sockets about page end {}", event);
     sessions.values().forEach(session -> sendText(session, "PAGE END"));
+    return pageService
+        .endPage(event.getPageId(), event.getSessionId(), event.getOrganizationId())
+        .subscribeAsCompletionStage()
+        .handle(
+            (ended, throwable) -> {
+              if (throwable != null) {
+                log.error("Failed to end page {}", event.getPageId(), throwable);
+              }
+              return null;
+            });
   }
 }
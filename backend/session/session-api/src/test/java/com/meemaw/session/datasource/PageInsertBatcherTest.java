@@ -0,0 +1,134 @@
+package com.meemaw.session.datasource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.meemaw.shared.metrics.MetricsService;
+import com.meemaw.shared.rest.exception.DatabaseException;
+import com.meemaw.test.testconainers.pg.PostgresTestResource;
+import io.quarkus.test.common.QuarkusTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.vertx.mutiny.core.Vertx;
+import io.vertx.mutiny.pgclient.PgPool;
+import io.vertx.mutiny.sqlclient.Tuple;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import javax.inject.Inject;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+@Tag("integration")
+@QuarkusTestResource(PostgresTestResource.class)
+public class PageInsertBatcherTest {
+
+  private static final String SELECT_PAGE_COUNT_RAW_SQL =
+      "SELECT COUNT(*) AS count FROM session.page WHERE device_id = $1;";
+
+  @Inject PgPool pgPool;
+  @Inject Vertx vertx;
+  @Inject MetricsService metricsService;
+
+  /** Write-behind is disabled by default, so the test wires its own batcher. */
+  private PageInsertBatcher batcher(int maxBatchSize, Duration maxDelay) {
+    PageInsertBatcher batcher = new PageInsertBatcher();
+    batcher.pgPool = pgPool;
+    batcher.vertx = vertx;
+    batcher.metricsService = metricsService;
+    batcher.enabled = true;
+    batcher.maxBatchSize = maxBatchSize;
+    batcher.maxDelay = maxDelay;
+    return batcher;
+  }
+
+  private Tuple page(UUID pageId, UUID deviceId, String doctype) {
+    return Tuple.newInstance(
+        io.vertx.sqlclient.Tuple.of(
+            pageId,
+            deviceId,
+            UUID.randomUUID(),
+            "000000",
+            doctype,
+            "http://localhost:3000/",
+            "http://localhost:3000/",
+            916,
+            666,
+            1050,
+            1680,
+            1579732356L));
+  }
+
+  private long pageCount(UUID deviceId) {
+    return pgPool
+        .preparedQuery(SELECT_PAGE_COUNT_RAW_SQL)
+        .execute(Tuple.of(deviceId))
+        .await()
+        .indefinitely()
+        .iterator()
+        .next()
+        .getLong("count");
+  }
+
+  @Test
+  public void insert_shouldWriteConcurrentPages() {
+    PageInsertBatcher batcher = batcher(20, Duration.ofMillis(50));
+    UUID deviceId = UUID.randomUUID();
+
+    List<CompletableFuture<Void>> inserts =
+        IntStream.range(0, 50)
+            .parallel()
+            .mapToObj(
+                i ->
+                    batcher
+                        .insert(page(UUID.randomUUID(), deviceId, "<!DOCTYPE html>"))
+                        .subscribeAsCompletionStage())
+            .collect(Collectors.toList());
+
+    CompletableFuture.allOf(inserts.toArray(CompletableFuture[]::new))
+        .orTimeout(10, TimeUnit.SECONDS)
+        .join();
+    assertEquals(50, pageCount(deviceId));
+  }
+
+  @Test
+  public void insert_shouldOnlyFailInvalidPage_whenBatchFails() {
+    PageInsertBatcher batcher = batcher(100, Duration.ofMillis(50));
+    UUID deviceId = UUID.randomUUID();
+    UUID invalidPageId = UUID.randomUUID();
+
+    // doctype is NOT NULL, so the batch holding the invalid page fails as a whole
+    Map<UUID, CompletableFuture<Void>> inserts =
+        IntStream.range(0, 10)
+            .parallel()
+            .mapToObj(i -> i == 0 ? invalidPageId : UUID.randomUUID())
+            .collect(
+                Collectors.toMap(
+                    Function.identity(),
+                    pageId ->
+                        batcher
+                            .insert(
+                                page(
+                                    pageId,
+                                    deviceId,
+                                    pageId.equals(invalidPageId) ? null : "<!DOCTYPE html>"))
+                            .subscribeAsCompletionStage()));
+
+    CompletableFuture<Void> invalid = inserts.remove(invalidPageId);
+    CompletionException exception =
+        assertThrows(
+            CompletionException.class, () -> invalid.orTimeout(10, TimeUnit.SECONDS).join());
+    assertTrue(exception.getCause() instanceof DatabaseException);
+
+    inserts.values().forEach(insert -> insert.orTimeout(10, TimeUnit.SECONDS).join());
+    assertEquals(9, pageCount(deviceId));
+  }
+}
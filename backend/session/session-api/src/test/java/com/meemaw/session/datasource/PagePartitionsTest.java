@@ -0,0 +1,146 @@
+package com.meemaw.session.datasource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.meemaw.test.testconainers.pg.PostgresTestResource;
+import io.quarkus.test.common.QuarkusTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.vertx.mutiny.pgclient.PgPool;
+import io.vertx.mutiny.sqlclient.SqlClient;
+import io.vertx.mutiny.sqlclient.Transaction;
+import io.vertx.mutiny.sqlclient.Tuple;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.UUID;
+import javax.inject.Inject;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+@Tag("integration")
+@QuarkusTestResource(PostgresTestResource.class)
+public class PagePartitionsTest {
+
+  private static final String INSERT_PAGE_RAW_SQL =
+      "INSERT INTO session.page (id, device_id, session_id, organization_id, doctype, url, referrer, height, width, screen_height, screen_width, compiled_timestamp, page_start) VALUES($1, $2, $3, '000000', '<!DOCTYPE html>', 'http://localhost:3000/', 'http://localhost:3000/', 916, 666, 1050, 1680, 1579732356, $4);";
+
+  private static final String SELECT_PARTITION_RAW_SQL =
+      "SELECT tableoid::regclass::text AS partition FROM session.page WHERE id = $1;";
+
+  private static final String SELECT_PARTITION_ATTACHED_RAW_SQL =
+      "SELECT count(*) AS count FROM pg_inherits WHERE inhparent = 'session.page'::regclass AND inhrelid = to_regclass($1);";
+
+  private static final String DETACH_ALL_DAILY_PARTITIONS_RAW_SQL =
+      "SELECT session.detach_page_partitions(-1) AS count;";
+
+  private static final DateTimeFormatter PARTITION_DAY = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+  @Inject PageDatasource pageDatasource;
+  @Inject PgPool pgPool;
+
+  private static String partitionName(LocalDate day) {
+    return "session.page_" + day.format(PARTITION_DAY);
+  }
+
+  @Test
+  public void createPagePartitions_shouldMovePagesOutOfDefaultPartition() {
+    LocalDate day = LocalDate.now(ZoneOffset.UTC).plusDays(10);
+    UUID pageId = UUID.randomUUID();
+    pgPool
+        .preparedQuery(INSERT_PAGE_RAW_SQL)
+        .execute(
+            Tuple.of(
+                pageId,
+                UUID.randomUUID(),
+                UUID.randomUUID(),
+                OffsetDateTime.of(day, LocalTime.NOON, ZoneOffset.UTC)))
+        .await()
+        .indefinitely();
+    assertEquals("session.page_default", partitionOf(pageId));
+
+    assertTrue(pageDatasource.createPagePartitions(10).await().indefinitely() > 0);
+    assertEquals(partitionName(day), partitionOf(pageId));
+
+    // every partition exists already
+    assertEquals(0, pageDatasource.createPagePartitions(10).await().indefinitely());
+  }
+
+  @Test
+  public void detachPagePartitions_shouldOnlyDetachExpiredDailyPartitions() {
+    String today = partitionName(LocalDate.now(ZoneOffset.UTC));
+    pageDatasource.createPagePartitions(3).await().indefinitely();
+
+    // no daily partition is older than today and the history partition is never detached
+    assertEquals(0, pageDatasource.detachPagePartitions(0).await().indefinitely());
+    assertTrue(isAttached(pgPool, "session.page_history"));
+    assertTrue(isAttached(pgPool, today));
+
+    // rolled back, so today's partition stays attached for the other tests
+    Transaction transaction = pgPool.begin().await().indefinitely();
+    try {
+      int detached =
+          transaction
+              .query(DETACH_ALL_DAILY_PARTITIONS_RAW_SQL)
+              .execute()
+              .await()
+              .indefinitely()
+              .iterator()
+              .next()
+              .getInteger("count");
+      assertEquals(1, detached);
+      assertFalse(isAttached(transaction, today));
+    } finally {
+      transaction.rollbackAndAwait();
+    }
+    assertTrue(isAttached(pgPool, today));
+  }
+
+  @Test
+  public void endPage_shouldFallBackToAllPartitions_whenPageIsOlderThanOneDay() {
+    UUID pageId = UUID.randomUUID();
+    UUID sessionId = UUID.randomUUID();
+    pgPool
+        .preparedQuery(INSERT_PAGE_RAW_SQL)
+        .execute(
+            Tuple.of(
+                pageId,
+                UUID.randomUUID(),
+                sessionId,
+                OffsetDateTime.now(ZoneOffset.UTC).minusDays(3)))
+        .await()
+        .indefinitely();
+
+    assertTrue(pageDatasource.endPage(pageId, sessionId, "000000").await().indefinitely());
+    // already ended
+    assertFalse(pageDatasource.endPage(pageId, sessionId, "000000").await().indefinitely());
+  }
+
+  private String partitionOf(UUID pageId) {
+    return pgPool
+        .preparedQuery(SELECT_PARTITION_RAW_SQL)
+        .execute(Tuple.of(pageId))
+        .await()
+        .indefinitely()
+        .iterator()
+        .next()
+        .getString("partition");
+  }
+
+  private boolean isAttached(SqlClient client, String partition) {
+    long count =
+        client
+            .preparedQuery(SELECT_PARTITION_ATTACHED_RAW_SQL)
+            .execute(Tuple.of(partition))
+            .await()
+            .indefinitely()
+            .iterator()
+            .next()
+            .getLong("count");
+    return count == 1;
+  }
+}
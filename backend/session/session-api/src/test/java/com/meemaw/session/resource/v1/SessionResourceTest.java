@@ -119,4 +119,40 @@ public class SessionResourceTest {
     assertNotEquals(dataResponse.getData().getSessionId(), sessionId);
     assertNotEquals(dataResponse.getData().getPageId(), pageId);
   }
+
+  @Test
+  public void headPage_shouldRespondWithStatusOnly() throws IOException, URISyntaxException {
+    String payload = Files.readString(Path.of(getClass().getResource("/page/simple.json").toURI()));
+
+    DataResponse<PageIdentity> dataResponse =
+        given()
+            .when()
+            .contentType(ContentType.JSON)
+            .body(payload)
+            .post(SessionResource.PATH)
+            .then()
+            .statusCode(200)
+            .extract()
+            .response()
+            .as(new TypeRef<>() {});
+
+    UUID sessionId = dataResponse.getData().getSessionId();
+    UUID pageId = dataResponse.getData().getPageId();
+
+    given()
+        .when()
+        .queryParam("organizationId", "RC6GTT")
+        .head(String.format("%s/%s/pages/%s", SessionResource.PATH, sessionId, pageId))
+        .then()
+        .statusCode(200)
+        .body(is(""));
+
+    given()
+        .when()
+        .queryParam("organizationId", "RC6GTT")
+        .head(String.format("%s/%s/pages/%s", SessionResource.PATH, sessionId, UUID.randomUUID()))
+        .then()
+        .statusCode(404)
+        .body(is(""));
+  }
 }
@@ -0,0 +1,106 @@
+package com.meemaw.session.service;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.meemaw.events.model.external.UserEvent;
+import com.meemaw.events.model.external.serialization.UserEventSerializer;
+import com.meemaw.events.model.internal.AbstractBrowserEvent;
+import com.meemaw.events.stream.EventsStream;
+import com.meemaw.session.model.CreatePageDTO;
+import com.meemaw.session.model.PageIdentity;
+import com.meemaw.test.testconainers.kafka.KafkaTestResource;
+import com.meemaw.test.testconainers.pg.PostgresTestResource;
+import io.quarkus.test.common.QuarkusTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.vertx.mutiny.pgclient.PgPool;
+import io.vertx.mutiny.sqlclient.Row;
+import io.vertx.mutiny.sqlclient.Tuple;
+import java.io.IOException;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import javax.inject.Inject;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+@Tag("integration")
+@QuarkusTestResource(PostgresTestResource.class)
+@QuarkusTestResource(KafkaTestResource.class)
+public class ActivePagesTest {
+
+  @ConfigProperty(name = "kafka.bootstrap.servers")
+  String bootstrapServers;
+
+  @Inject ObjectMapper objectMapper;
+  @Inject PageService pageService;
+  @Inject ActivePageCounter activePageCounter;
+  @Inject PgPool pgPool;
+
+  @Test
+  public void unload_shouldEndPageAndDecrementActivePages()
+      throws IOException, InterruptedException, ExecutionException {
+    // organization of its own, so pages left active by other tests are not counted
+    String organizationId = UUID.randomUUID().toString().substring(0, 6);
+    CreatePageDTO page =
+        new CreatePageDTO(
+            organizationId,
+            null,
+            "http://localhost:3000/",
+            "http://localhost:3000/",
+            "<!DOCTYPE html>",
+            1680,
+            1050,
+            666,
+            916,
+            1579732356);
+    PageIdentity pageIdentity = pageService.createPage(page).await().indefinitely();
+    assertEquals(1, activePageCounter.count(organizationId));
+    assertEquals(Boolean.FALSE, pageEnded(pageIdentity.getPageId()));
+
+    AbstractBrowserEvent unloadEvent =
+        objectMapper.readValue(
+            "{\"t\": 1234, \"e\": \"1\", \"a\": [\"http://localhost:3000/\"]}",
+            AbstractBrowserEvent.class);
+    UserEvent<AbstractBrowserEvent> userEvent =
+        UserEvent.<AbstractBrowserEvent>builder()
+            .event(unloadEvent)
+            .pageId(pageIdentity.getPageId())
+            .sessionId(pageIdentity.getSessionId())
+            .deviceId(pageIdentity.getDeviceId())
+            .organizationId(organizationId)
+            .build();
+
+    Properties properties = new Properties();
+    properties.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+    properties.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class.getName());
+    properties.put(
+        ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, UserEventSerializer.class.getName());
+    try (KafkaProducer<String, UserEvent<?>> producer = new KafkaProducer<>(properties)) {
+      producer.send(new ProducerRecord<>(EventsStream.UNLOAD, userEvent)).get();
+    }
+
+    await().atMost(30, TimeUnit.SECONDS).until(() -> pageEnded(pageIdentity.getPageId()));
+    assertEquals(0, activePageCounter.count(organizationId));
+  }
+
+  private boolean pageEnded(UUID pageId) {
+    Row row =
+        pgPool
+            .preparedQuery("SELECT page_end FROM session.page WHERE id = $1")
+            .execute(Tuple.of(pageId))
+            .await()
+            .indefinitely()
+            .iterator()
+            .next();
+    return row.getValue("page_end") != null;
+  }
+}
@@ -0,0 +1,100 @@
+package com.meemaw.session.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.meemaw.shared.metrics.MetricsService;
+import com.meemaw.test.testconainers.pg.PostgresTestResource;
+import io.quarkus.test.common.QuarkusTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import java.util.Optional;
+import java.util.UUID;
+import javax.inject.Inject;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+@Tag("integration")
+@QuarkusTestResource(PostgresTestResource.class)
+public class DeviceSessionCacheTest {
+
+  private static final String CACHE_NAME = "device_session";
+  private static final String ORGANIZATION_ID = "000000";
+  private static final long WINDOW_MILLIS = DeviceSessionCache.SESSION_LINK_WINDOW.toMillis();
+
+  @Inject MetricsService metricsService;
+
+  private DeviceSessionCache cache(int maxSize) {
+    DeviceSessionCache cache = new DeviceSessionCache();
+    cache.metricsService = metricsService;
+    cache.maxSize = maxSize;
+    cache.init();
+    return cache;
+  }
+
+  private long hits() {
+    return metricsService.cacheHit(CACHE_NAME).getCount();
+  }
+
+  private long misses() {
+    return metricsService.cacheMiss(CACHE_NAME).getCount();
+  }
+
+  private long evictions() {
+    return metricsService.cacheEviction(CACHE_NAME).getCount();
+  }
+
+  @Test
+  public void shouldHitWithinSessionLinkWindow() {
+    DeviceSessionCache cache = cache(10);
+    UUID deviceId = UUID.randomUUID();
+    UUID sessionId = UUID.randomUUID();
+    long hits = hits();
+    long misses = misses();
+
+    assertEquals(Optional.empty(), cache.get(ORGANIZATION_ID, deviceId, 0));
+    cache.put(ORGANIZATION_ID, deviceId, sessionId, 0);
+    assertEquals(Optional.of(sessionId), cache.get(ORGANIZATION_ID, deviceId, WINDOW_MILLIS));
+    assertEquals(Optional.empty(), cache.get("111111", deviceId, WINDOW_MILLIS));
+
+    assertEquals(hits + 1, hits());
+    assertEquals(misses + 2, misses());
+  }
+
+  @Test
+  public void shouldMissWithoutEvictionWhenExpired() {
+    DeviceSessionCache cache = cache(10);
+    UUID deviceId = UUID.randomUUID();
+    cache.put(ORGANIZATION_ID, deviceId, UUID.randomUUID(), 0);
+    long hits = hits();
+    long misses = misses();
+    long evictions = evictions();
+
+    assertEquals(Optional.empty(), cache.get(ORGANIZATION_ID, deviceId, WINDOW_MILLIS + 1));
+    // expired entry was dropped, a later lookup within its old window misses too
+    assertEquals(Optional.empty(), cache.get(ORGANIZATION_ID, deviceId, 0));
+
+    assertEquals(hits, hits());
+    assertEquals(misses + 2, misses());
+    assertEquals(evictions, evictions());
+  }
+
+  @Test
+  public void shouldEvictLeastRecentlyUsedWhenFull() {
+    DeviceSessionCache cache = cache(2);
+    UUID first = UUID.randomUUID();
+    UUID second = UUID.randomUUID();
+    UUID third = UUID.randomUUID();
+    long evictions = evictions();
+
+    cache.put(ORGANIZATION_ID, first, first, 0);
+    cache.put(ORGANIZATION_ID, second, second, 0);
+    // touching the first device makes the second one the least recently used
+    assertEquals(Optional.of(first), cache.get(ORGANIZATION_ID, first, 0));
+    cache.put(ORGANIZATION_ID, third, third, 0);
+
+    assertEquals(evictions + 1, evictions());
+    assertEquals(Optional.empty(), cache.get(ORGANIZATION_ID, second, 0));
+    assertEquals(Optional.of(first), cache.get(ORGANIZATION_ID, first, 0));
+    assertEquals(Optional.of(third), cache.get(ORGANIZATION_ID, third, 0));
+  }
+}
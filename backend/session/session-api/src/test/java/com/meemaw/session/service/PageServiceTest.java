@@ -0,0 +1,58 @@
+package com.meemaw.session.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import com.meemaw.session.model.CreatePageDTO;
+import com.meemaw.session.model.PageIdentity;
+import com.meemaw.shared.metrics.MetricsService;
+import com.meemaw.test.testconainers.pg.PostgresTestResource;
+import io.quarkus.test.common.QuarkusTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import java.util.UUID;
+import javax.inject.Inject;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+@Tag("integration")
+@QuarkusTestResource(PostgresTestResource.class)
+public class PageServiceTest {
+
+  private static final String ORGANIZATION_ID = "RC6GTT";
+
+  @Inject PageService pageService;
+  @Inject DeviceSessionCache deviceSessionCache;
+  @Inject MetricsService metricsService;
+
+  private CreatePageDTO page(UUID deviceId) {
+    return new CreatePageDTO(
+        ORGANIZATION_ID,
+        deviceId,
+        "http://localhost:3000/",
+        "http://localhost:3000/",
+        "<!DOCTYPE html>",
+        1680,
+        1050,
+        666,
+        916,
+        1579732356);
+  }
+
+  @Test
+  public void createPage_shouldSkipSessionLookup_whenDeviceSessionIsCached() {
+    UUID deviceId = UUID.randomUUID();
+    PageIdentity first = pageService.createPage(page(deviceId)).await().indefinitely();
+
+    // Postgres links the device to the first session, the cache to a different one
+    UUID cachedSessionId = UUID.randomUUID();
+    deviceSessionCache.put(ORGANIZATION_ID, deviceId, cachedSessionId);
+    long hits = metricsService.cacheHit("device_session").getCount();
+
+    PageIdentity second = pageService.createPage(page(deviceId)).await().indefinitely();
+
+    assertEquals(cachedSessionId, second.getSessionId());
+    assertNotEquals(first.getSessionId(), second.getSessionId());
+    assertEquals(hits + 1, metricsService.cacheHit("device_session").getCount());
+  }
+}
@@ -3,18 +3,26 @@ package com.meemaw.session.ws.v1;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.meemaw.events.model.external.UserEvent;
+import com.meemaw.events.model.external.serialization.UserEventSerializer;
 import com.meemaw.events.model.internal.AbstractBrowserEvent;
 import com.meemaw.events.stream.EventsStream;
 import com.meemaw.test.testconainers.kafka.KafkaTestResource;
 import io.quarkus.test.common.QuarkusTestResource;
 import io.quarkus.test.junit.QuarkusTest;
 import java.io.IOException;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import javax.inject.Inject;
 import javax.websocket.DeploymentException;
 import javax.websocket.Session;
-import org.eclipse.microprofile.reactive.messaging.Channel;
-import org.eclipse.microprofile.reactive.messaging.Emitter;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 
@@ -23,15 +31,14 @@ import org.junit.jupiter.api.Test;
 @QuarkusTestResource(KafkaTestResource.class)
 public class SessionSocketEventTest extends AbstractSessionSocketTest {
 
-  @Inject
-  @Channel(EventsStream.UNLOAD)
-  Emitter<AbstractBrowserEvent> emitter;
+  @ConfigProperty(name = "kafka.bootstrap.servers")
+  String bootstrapServers;
 
   @Inject ObjectMapper objectMapper;
 
   @Test
   public void unloadEventMessageReception()
-      throws IOException, DeploymentException, InterruptedException {
+      throws IOException, DeploymentException, InterruptedException, ExecutionException {
     try (Session session = connect()) {
       assertEquals(String.format("OPEN %s", session.getId()), MESSAGES.poll(10, TimeUnit.SECONDS));
 
@@ -39,8 +46,24 @@ public class SessionSocketEventTest extends AbstractSessionSocketTest {
       String unloadEventPayload = "{\"t\": 1234, \"e\": \"1\", \"a\": [\"http://localhost:8080\"]}";
       AbstractBrowserEvent unloadEvent =
           objectMapper.readValue(unloadEventPayload, AbstractBrowserEvent.class);
-      emitter.send(unloadEvent);
-      assertEquals("PAGE END", MESSAGES.poll(10, TimeUnit.SECONDS));
+      UserEvent<AbstractBrowserEvent> userEvent =
+          UserEvent.<AbstractBrowserEvent>builder()
+              .event(unloadEvent)
+              .pageId(UUID.randomUUID())
+              .sessionId(UUID.randomUUID())
+              .deviceId(UUID.randomUUID())
+              .organizationId("000000")
+              .build();
+
+      Properties properties = new Properties();
+      properties.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+      properties.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class.getName());
+      properties.put(
+          ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, UserEventSerializer.class.getName());
+      try (KafkaProducer<String, UserEvent<?>> producer = new KafkaProducer<>(properties)) {
+        producer.send(new ProducerRecord<>(EventsStream.UNLOAD, userEvent)).get();
+      }
+      assertEquals("PAGE END", MESSAGES.poll(30, TimeUnit.SECONDS));
     }
   }
 }
@@ -3,8 +3,12 @@ package com.meemaw.shared.metrics;
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 import org.eclipse.microprofile.metrics.Counter;
+import org.eclipse.microprofile.metrics.Gauge;
 import org.eclipse.microprofile.metrics.Histogram;
+import org.eclipse.microprofile.metrics.Metadata;
+import org.eclipse.microprofile.metrics.MetricID;
 import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.eclipse.microprofile.metrics.MetricType;
 import org.eclipse.microprofile.metrics.Tag;
 import org.eclipse.microprofile.metrics.annotation.RegistryType;
 
@@ -39,6 +43,68 @@ public class MetricsService {
     return appRegistry.counter("request_server_errors_total", status(status));
   }
 
+  public Counter cacheHit(String cache) {
+    return appRegistry.counter("cache_hits_total", cache(cache));
+  }
+
+  public Counter cacheMiss(String cache) {
+    return appRegistry.counter("cache_misses_total", cache(cache));
+  }
+
+  public Counter cacheEviction(String cache) {
+    return appRegistry.counter("cache_evictions_total", cache(cache));
+  }
+
+  public Counter eventsDropped(String type) {
+    return appRegistry.counter("events_dropped_total", type(type));
+  }
+
+  public Counter eventsDownsampled(String type) {
+    return appRegistry.counter("events_downsampled_total", type(type));
+  }
+
+  public Counter eventsRejected() {
+    return appRegistry.counter("events_rejected_total");
+  }
+
+  public Histogram batchSize(String batch) {
+    return appRegistry.histogram("batch_size", batch(batch));
+  }
+
+  public Histogram batchFlushDuration(String batch) {
+    return appRegistry.histogram("batch_flush_duration_ms", batch(batch));
+  }
+
+  public <T extends Number> Gauge<T> gauge(String name, Gauge<T> gauge) {
+    return appRegistry.register(name, gauge);
+  }
+
+  public <T extends Number> Gauge<T> kafkaProducerGauge(
+      String name, String clientId, Gauge<T> gauge) {
+    Metadata metadata = Metadata.builder().withName(name).withType(MetricType.GAUGE).build();
+    return appRegistry.register(metadata, gauge, clientId(clientId));
+  }
+
+  public boolean removeKafkaProducerGauge(String name, String clientId) {
+    return appRegistry.remove(new MetricID(name, clientId(clientId)));
+  }
+
+  private Tag cache(String cache) {
+    return new Tag("cache", cache);
+  }
+
+  private Tag batch(String batch) {
+    return new Tag("batch", batch);
+  }
+
+  private Tag clientId(String clientId) {
+    return new Tag("client_id", clientId);
+  }
+
+  private Tag type(String type) {
+    return new Tag("type", type);
+  }
+
   private Tag path(String path) {
     return new Tag("path", path);
   }
@@ -1,6 +1,7 @@
 package com.meemaw.test.testconainers.api;
 
 import com.meemaw.test.project.ProjectUtils;
+import com.meemaw.test.testconainers.kafka.KafkaTestContainer;
 import com.meemaw.test.testconainers.pg.PostgresTestContainer;
 import java.io.BufferedReader;
 import java.io.IOException;
@@ -25,7 +26,8 @@ public class AbstractApiTestContainer<SELF extends GenericContainer<SELF>>
     super(buildDockerImage(Objects.requireNonNull(api)));
     withExposedPorts(PORT)
         .waitingFor(Wait.forHttp("/health").forStatusCode(200))
-        .withNetwork(Network.SHARED);
+        .withNetwork(Network.SHARED)
+        .withNetworkAliases(api.fullName());
     this.api = api;
   }
 
@@ -39,6 +41,13 @@ public class AbstractApiTestContainer<SELF extends GenericContainer<SELF>>
                 PostgresTestContainer postgresTestContainer = (PostgresTestContainer) container;
                 postgresTestContainer.applyMigrations(api.migrations());
                 withEnv("POSTGRES_HOST", PostgresTestContainer.NETWORK_ALIAS);
+              } else if (container instanceof KafkaTestContainer) {
+                withEnv("KAFKA_BOOTSTRAP_SERVERS", KafkaTestContainer.NETWORK_BOOTSTRAP_SERVERS);
+              } else if (container instanceof AbstractApiTestContainer) {
+                Api dependency = ((AbstractApiTestContainer<?>) container).api;
+                withEnv(
+                    dependency.baseUrlEnvironmentVariable(),
+                    String.format("http://%s:%d", dependency.fullName(), PORT));
               }
             });
     super.start();
@@ -1,6 +1,8 @@
 package com.meemaw.test.testconainers.api;
 
 import com.meemaw.test.project.ProjectUtils;
+import com.meemaw.test.testconainers.api.session.SessionApiTestExtension;
+import com.meemaw.test.testconainers.kafka.KafkaTestExtension;
 import com.meemaw.test.testconainers.pg.PostgresTestExtension;
 import java.nio.file.Path;
 import java.util.Collection;
@@ -19,6 +21,12 @@ public enum Api {
     public Collection<GenericContainer<?>> dependencies() {
       return List.of(PostgresTestExtension.getInstance());
     }
+  },
+  BEACON {
+    @Override
+    public Collection<GenericContainer<?>> dependencies() {
+      return List.of(KafkaTestExtension.getInstance(), SessionApiTestExtension.getInstance());
+    }
   };
 
   public String imageName() {
@@ -34,6 +42,15 @@ public enum Api {
     return ProjectUtils.getFromBackend(name().toLowerCase(), fullName(), "migrations", "sql");
   }
 
+  /**
+   * Environment variable other APIs use to discover this API, e.g. SESSION_SERVICE_BASE_URL.
+   *
+   * @return environment variable name
+   */
+  public String baseUrlEnvironmentVariable() {
+    return String.format("%s_SERVICE_BASE_URL", name());
+  }
+
   public String fullName() {
     return String.format("%s-api", name().toLowerCase());
   }
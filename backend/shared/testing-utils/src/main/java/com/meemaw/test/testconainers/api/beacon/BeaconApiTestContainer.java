@@ -0,0 +1,19 @@
+package com.meemaw.test.testconainers.api.beacon;
+
+import com.meemaw.test.testconainers.api.AbstractApiTestContainer;
+import com.meemaw.test.testconainers.api.Api;
+import lombok.extern.slf4j.Slf4j;
+import org.testcontainers.containers.output.Slf4jLogConsumer;
+
+@Slf4j
+public class BeaconApiTestContainer extends AbstractApiTestContainer<BeaconApiTestContainer> {
+
+  private BeaconApiTestContainer() {
+    super(Api.BEACON);
+  }
+
+  /** @return */
+  public static BeaconApiTestContainer newInstance() {
+    return new BeaconApiTestContainer().withLogConsumer(new Slf4jLogConsumer(log));
+  }
+}
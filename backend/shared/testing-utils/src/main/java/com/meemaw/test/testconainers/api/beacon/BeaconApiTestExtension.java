@@ -0,0 +1,43 @@
+package com.meemaw.test.testconainers.api.beacon;
+
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.extension.BeforeAllCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+/** JUnit5 compatible test resource. Starts Kafka and session api the beacon api depends on. */
+@Slf4j
+public class BeaconApiTestExtension implements BeforeAllCallback {
+
+  private static final BeaconApiTestContainer BEACON_API = BeaconApiTestContainer.newInstance();
+
+  public static BeaconApiTestContainer getInstance() {
+    return BEACON_API;
+  }
+
+  @Override
+  public void beforeAll(ExtensionContext context) {
+    start(BEACON_API).forEach(System::setProperty);
+  }
+
+  public static void stop() {
+    BEACON_API.stop();
+  }
+
+  public static Map<String, String> start() {
+    return start(BEACON_API);
+  }
+
+  /**
+   * @param beaconApi test container
+   * @return map of system properties
+   */
+  public static Map<String, String> start(BeaconApiTestContainer beaconApi) {
+    if (!beaconApi.isRunning()) {
+      log.info("Starting beacon api container ...");
+      beaconApi.start();
+    }
+    log.info("Connecting to beacon api on {}", beaconApi.getBaseURI());
+    return Map.of("beacon-resource/mp-rest/url", beaconApi.getBaseURI());
+  }
+}
@@ -1,16 +1,33 @@
 package com.meemaw.test.testconainers.kafka;
 
 import org.testcontainers.containers.KafkaContainer;
+import org.testcontainers.containers.Network;
 
 public class KafkaTestContainer extends KafkaContainer {
 
+  public static final String NETWORK_ALIAS = "kafka";
+
+  /** Bootstrap servers for containers on the shared network (BROKER listener). */
+  public static final String NETWORK_BOOTSTRAP_SERVERS = NETWORK_ALIAS + ":9092";
+
   private static final String CONFLUENT_PLATFORM_VERSION = "5.5.0";
 
   private KafkaTestContainer() {
     super(CONFLUENT_PLATFORM_VERSION);
   }
 
+  /**
+   * The BROKER listener is advertised under the container hostname, so it is set to the network
+   * alias for other containers on the shared network to resolve it.
+   *
+   * @return KafkaTestContainer
+   */
   public static KafkaTestContainer newInstance() {
-    return new KafkaTestContainer();
+    KafkaTestContainer kafka = new KafkaTestContainer();
+    kafka
+        .withNetwork(Network.SHARED)
+        .withNetworkAliases(NETWORK_ALIAS)
+        .withCreateContainerCmdModifier(cmd -> cmd.withHostName(NETWORK_ALIAS));
+    return kafka;
   }
 }
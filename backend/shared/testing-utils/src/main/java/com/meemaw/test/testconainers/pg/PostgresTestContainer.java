@@ -7,6 +7,7 @@ import io.vertx.sqlclient.PoolOptions;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Comparator;
 import lombok.extern.slf4j.Slf4j;
 import org.testcontainers.containers.Network;
 import org.testcontainers.containers.PostgreSQLContainer;
@@ -99,6 +100,7 @@ public class PostgresTestContainer extends PostgreSQLContainer<PostgresTestConta
     try {
       Files.walk(migrationsSqlPath)
           .filter(path -> !Files.isDirectory(path))
+          .sorted(Comparator.comparingInt(PostgresTestContainer::migrationVersion))
           .forEach(
               path -> {
                 log.info("Applying migration {}", path);
@@ -117,4 +119,10 @@ public class PostgresTestContainer extends PostgreSQLContainer<PostgresTestConta
       throw new RuntimeException(ex);
     }
   }
+
+  /** Flyway version of a V{version}__{description}.sql migration; later migrations build on it. */
+  private static int migrationVersion(Path path) {
+    String fileName = path.getFileName().toString();
+    return Integer.parseInt(fileName.substring(1, fileName.indexOf("__")));
+  }
 }